@@ -0,0 +1,54 @@
+package com.romeo.birdssighting.benchmark;
+
+import com.romeo.birdssighting.BirdsSightingServiceApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class starts the application on an in-memory H2 database,
+ * for benchmarks that need the real services, repositories and Hibernate
+ */
+final class ApplicationContexts {
+
+    private ApplicationContexts() {
+    }
+
+    /**
+     * This method is used to start the application on a fresh in-memory database with the given name.
+     * Extra properties are passed as --name=value arguments
+     */
+    static ConfigurableApplicationContext startOnH2(String databaseName, String... properties) {
+        return start(WebApplicationType.NONE, databaseName, properties);
+    }
+
+    /**
+     * This method is used to start the application with its web server on a random port,
+     * the port is available from the local.server.port property
+     */
+    static ConfigurableApplicationContext startWebOnH2(String databaseName, String... properties) {
+        List<String> arguments = new ArrayList<>(List.of(properties));
+        arguments.add("--server.port=0");
+        return start(WebApplicationType.SERVLET, databaseName, arguments.toArray(String[]::new));
+    }
+
+    private static ConfigurableApplicationContext start(WebApplicationType webApplicationType, String databaseName,
+                                                        String... properties) {
+        // Command line arguments take precedence over application.yml
+        List<String> arguments = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:" + databaseName + ";DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.flyway.locations=classpath:db/migration/common",
+                "--logging.level.root=WARN"));
+        arguments.addAll(List.of(properties));
+        return new SpringApplicationBuilder(BirdsSightingServiceApplication.class)
+                .web(webApplicationType)
+                .run(arguments.toArray(String[]::new));
+    }
+}
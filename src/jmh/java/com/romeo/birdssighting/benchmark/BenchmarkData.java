@@ -0,0 +1,49 @@
+package com.romeo.birdssighting.benchmark;
+
+import com.romeo.birdssighting.domain.Bird;
+import com.romeo.birdssighting.domain.Sighting;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class builds the entities shared by the benchmarks
+ */
+final class BenchmarkData {
+
+    private static final LocalDateTime FIRST_SIGHTING = LocalDateTime.of(2024, 5, 1, 6, 30);
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * This method is used to build a bird with the given number of sightings
+     */
+    static Bird bird(long id, int sightings) {
+        var bird = new Bird();
+        bird.setId(id);
+        bird.setName("Bird " + id);
+        bird.setColor("Red");
+        bird.setWeight(15);
+        bird.setHeight(12);
+        List<Sighting> birdSightings = new ArrayList<>(sightings);
+        for (int i = 0; i < sightings; i++) {
+            birdSightings.add(sighting(id * 1_000_000 + i, bird));
+        }
+        bird.setSightings(birdSightings);
+        return bird;
+    }
+
+    /**
+     * This method is used to build a sighting of the given bird
+     */
+    static Sighting sighting(long id, Bird bird) {
+        var sighting = new Sighting();
+        sighting.setId(id);
+        sighting.setBird(bird);
+        sighting.setLocation("Location " + (id % 50));
+        sighting.setDateTime(FIRST_SIGHTING.plusMinutes(id));
+        return sighting;
+    }
+}
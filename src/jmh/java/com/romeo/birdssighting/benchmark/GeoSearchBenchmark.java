@@ -0,0 +1,149 @@
+package com.romeo.birdssighting.benchmark;
+
+import com.romeo.birdssighting.domain.GeoGrid;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class measures radius and bounding-box searches over 10M sightings spread over Europe,
+ * with the grid cell index against a full scan. The index is modelled in memory the way the
+ * (grid_cell, id) B-tree orders it: the sightings sorted by cell, each cell found by binary search
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class GeoSearchBenchmark {
+
+    private static final int QUERIES = 1024;
+    private static final int INDEX_BITS = 24;
+    private static final long INDEX_MASK = (1L << INDEX_BITS) - 1;
+
+    @Param({"10000000"})
+    public int pointCount;
+
+    @Param({"5"})
+    public double radiusKm;
+
+    private double[] latitudes;
+    private double[] longitudes;
+    // Cell in the high bits and point index in the low bits, sorted like the (grid_cell, id) index
+    private long[] cellIndex;
+    private double[][] queryPoints;
+    private int nextQuery;
+
+    @Setup
+    public void setUp() {
+        if (pointCount > INDEX_MASK) {
+            throw new IllegalArgumentException("At most " + INDEX_MASK + " points are supported");
+        }
+        var random = new SplittableRandom(42);
+        latitudes = new double[pointCount];
+        longitudes = new double[pointCount];
+        cellIndex = new long[pointCount];
+        for (int i = 0; i < pointCount; i++) {
+            latitudes[i] = 35 + random.nextDouble() * 25;
+            longitudes[i] = -10 + random.nextDouble() * 40;
+            cellIndex[i] = GeoGrid.cellOf(latitudes[i], longitudes[i]) << INDEX_BITS | i;
+        }
+        Arrays.sort(cellIndex);
+        queryPoints = new double[QUERIES][];
+        for (int i = 0; i < QUERIES; i++) {
+            var point = random.nextInt(pointCount);
+            queryPoints[i] = new double[]{latitudes[point], longitudes[point]};
+        }
+    }
+
+    @Benchmark
+    public int radiusSearchWithGridIndex() {
+        var point = nextQueryPoint();
+        var box = GeoGrid.boxAround(point[0], point[1], radiusKm);
+        var minDot = Math.cos(radiusKm / GeoGrid.EARTH_RADIUS_KM);
+        var found = 0;
+        for (long cell : GeoGrid.cellsCovering(box[0], box[1], box[2], box[3])) {
+            var end = lowerBound((cell + 1) << INDEX_BITS);
+            for (int i = lowerBound(cell << INDEX_BITS); i < end; i++) {
+                if (dot(point, (int) (cellIndex[i] & INDEX_MASK)) >= minDot) {
+                    found++;
+                }
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int boxSearchWithGridIndex() {
+        var point = nextQueryPoint();
+        double minLatitude = point[0] - 0.1, maxLatitude = point[0] + 0.1;
+        double minLongitude = point[1] - 0.15, maxLongitude = point[1] + 0.15;
+        var found = 0;
+        for (long cell : GeoGrid.cellsCovering(minLatitude, minLongitude, maxLatitude, maxLongitude)) {
+            var end = lowerBound((cell + 1) << INDEX_BITS);
+            for (int i = lowerBound(cell << INDEX_BITS); i < end; i++) {
+                var index = (int) (cellIndex[i] & INDEX_MASK);
+                if (latitudes[index] >= minLatitude && latitudes[index] <= maxLatitude
+                        && longitudes[index] >= minLongitude && longitudes[index] <= maxLongitude) {
+                    found++;
+                }
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int radiusSearchFullScan() {
+        var point = nextQueryPoint();
+        var minDot = Math.cos(radiusKm / GeoGrid.EARTH_RADIUS_KM);
+        var found = 0;
+        for (int i = 0; i < pointCount; i++) {
+            if (dot(point, i) >= minDot) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    private double[] nextQueryPoint() {
+        var point = queryPoints[nextQuery];
+        nextQuery = (nextQuery + 1) % QUERIES;
+        return point;
+    }
+
+    // Same unit vector dot product as ISightingRepository.findPageNear
+    private double dot(double[] point, int index) {
+        var latitude1 = Math.toRadians(point[0]);
+        var latitude2 = Math.toRadians(latitudes[index]);
+        return Math.sin(latitude1) * Math.sin(latitude2)
+                + Math.cos(latitude1) * Math.cos(latitude2) * Math.cos(Math.toRadians(longitudes[index] - point[1]));
+    }
+
+    // First position whose key is not below the given key
+    private int lowerBound(long key) {
+        int low = 0;
+        int high = cellIndex.length;
+        while (low < high) {
+            var middle = (low + high) >>> 1;
+            if (cellIndex[middle] < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
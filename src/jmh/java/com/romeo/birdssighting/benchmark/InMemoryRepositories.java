@@ -0,0 +1,69 @@
+package com.romeo.birdssighting.benchmark;
+
+import com.romeo.birdssighting.domain.Sighting;
+import com.romeo.birdssighting.repositories.ISightingRepository;
+import com.romeo.birdssighting.repositories.LocationCountRow;
+import org.springframework.data.domain.Pageable;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+/**
+ * This class provides repository stand-ins backed by in-memory lists,
+ * so service benchmarks measure the service and not the database
+ */
+final class InMemoryRepositories {
+
+    private InMemoryRepositories() {
+    }
+
+    /**
+     * This method is used to create a sighting repository whose findPageAfterId pages through the given list,
+     * which is ordered by id and whose sightings already hold their birds.
+     * Any other repository method throws UnsupportedOperationException
+     */
+    static ISightingRepository sightingRepository(List<Sighting> sightings) {
+        return (ISightingRepository) Proxy.newProxyInstance(
+                ISightingRepository.class.getClassLoader(),
+                new Class<?>[]{ISightingRepository.class},
+                (proxy, method, args) -> {
+                    if (!"findPageAfterId".equals(method.getName())) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    var afterId = (Long) args[0];
+                    var pageable = (Pageable) args[1];
+                    // The position of the first sighting after afterId, the list is ordered like the primary key
+                    var from = 0;
+                    var to = sightings.size();
+                    while (from < to) {
+                        var middle = (from + to) >>> 1;
+                        if (sightings.get(middle).getId() <= afterId) {
+                            from = middle + 1;
+                        } else {
+                            to = middle;
+                        }
+                    }
+                    return sightings.subList(from, Math.min(from + pageable.getPageSize(), sightings.size()));
+                });
+    }
+
+    /**
+     * This method is used to create a sighting repository whose countPerLocation returns the given rows.
+     * Any other repository method throws UnsupportedOperationException
+     */
+    static ISightingRepository locationRepository(List<LocationCountRow> rows) {
+        return answering("countPerLocation", rows);
+    }
+
+    private static ISightingRepository answering(String methodName, Object result) {
+        return (ISightingRepository) Proxy.newProxyInstance(
+                ISightingRepository.class.getClassLoader(),
+                new Class<?>[]{ISightingRepository.class},
+                (proxy, method, args) -> {
+                    if (methodName.equals(method.getName()) && method.getParameterCount() == 0) {
+                        return result;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,51 @@
+package com.romeo.birdssighting.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.romeo.birdssighting.dto.BirdDTO;
+import com.romeo.birdssighting.mapper.BirdMapper;
+import com.romeo.birdssighting.mapper.SightingMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class measures the Jackson serialization of a BirdDTO with a large sightings list,
+ * using an ObjectMapper built with the same defaults as the one Spring Boot configures
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"100", "10000"})
+    private int sightingsPerBird;
+
+    private ObjectMapper objectMapper;
+    private BirdDTO birdDTO;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        birdDTO = new BirdMapper(new SightingMapper()).convertToDTO(BenchmarkData.bird(1L, sightingsPerBird));
+    }
+
+    @Benchmark
+    public byte[] serializeBird() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(birdDTO);
+    }
+}
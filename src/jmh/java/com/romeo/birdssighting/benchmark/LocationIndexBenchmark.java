@@ -0,0 +1,114 @@
+package com.romeo.birdssighting.benchmark;
+
+import com.romeo.birdssighting.events.SightingChangeEvent;
+import com.romeo.birdssighting.events.SightingSnapshot;
+import com.romeo.birdssighting.repositories.LocationCountRow;
+import com.romeo.birdssighting.services.LocationIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class measures the location autocomplete and fuzzy search of LocationIndex
+ * over generated place names, and the cost of indexing one new sighting
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LocationIndexBenchmark {
+
+    private static final String[] KINDS = {"Lake", "Mount", "Forest", "River", "Bay", "Park", "Marsh", "Valley"};
+    private static final int QUERIES = 1024;
+
+    @Param({"10000", "100000"})
+    public int locationCount;
+
+    private LocationIndex locationIndex;
+    private String[] prefixes;
+    private String[] typos;
+    private int nextQuery;
+
+    @Setup
+    public void setUp() {
+        var random = new SplittableRandom(42);
+        List<LocationCountRow> rows = new ArrayList<>(locationCount);
+        List<String> names = new ArrayList<>(locationCount);
+        for (int i = 0; i < locationCount; i++) {
+            var name = KINDS[random.nextInt(KINDS.length)] + " " + word(random) + " " + word(random);
+            names.add(name);
+            var count = 1 + random.nextInt(100);
+            rows.add(new LocationCountRow() {
+                @Override
+                public String getLocation() {
+                    return name;
+                }
+
+                @Override
+                public long getSightingCount() {
+                    return count;
+                }
+            });
+        }
+        locationIndex = new LocationIndex(InMemoryRepositories.locationRepository(rows));
+        locationIndex.rebuild();
+
+        prefixes = new String[QUERIES];
+        typos = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            var name = names.get(random.nextInt(locationCount));
+            prefixes[i] = name.substring(0, Math.min(name.length(), 8));
+            // Drop one letter of the last word
+            var cut = name.length() - 2;
+            typos[i] = name.substring(0, cut) + name.substring(cut + 1);
+        }
+    }
+
+    @Benchmark
+    public List<String> complete() {
+        return locationIndex.complete(prefixes[next()], 10);
+    }
+
+    @Benchmark
+    public Object search() {
+        return locationIndex.search(typos[next()], 10);
+    }
+
+    @Benchmark
+    public void addAndRemoveSighting() {
+        var snapshot = new SightingSnapshot(1L, typos[next()], LocalDate.EPOCH);
+        locationIndex.onSightingChange(SightingChangeEvent.added(List.of(snapshot)));
+        locationIndex.onSightingChange(SightingChangeEvent.removed(snapshot));
+    }
+
+    private int next() {
+        nextQuery = (nextQuery + 1) % QUERIES;
+        return nextQuery;
+    }
+
+    private static String word(SplittableRandom random) {
+        var length = 4 + random.nextInt(6);
+        var word = new StringBuilder(length);
+        word.append((char) ('A' + random.nextInt(26)));
+        for (int i = 1; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(26)));
+        }
+        return word.toString();
+    }
+}
@@ -0,0 +1,89 @@
+package com.romeo.birdssighting.benchmark;
+
+import com.romeo.birdssighting.domain.Bird;
+import com.romeo.birdssighting.domain.Sighting;
+import com.romeo.birdssighting.dto.BirdDTO;
+import com.romeo.birdssighting.dto.SightingDTO;
+import com.romeo.birdssighting.mapper.BirdMapper;
+import com.romeo.birdssighting.mapper.SightingMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.BeanUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class compares the generated mappers with the BeanUtils.copyProperties
+ * based mapping they replaced, on a bird with a list of sightings
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    @Param({"1", "100"})
+    private int sightingsPerBird;
+
+    private BirdMapper birdMapper;
+    private Bird bird;
+    private BirdDTO birdDTO;
+
+    @Setup
+    public void setUp() {
+        birdMapper = new BirdMapper(new SightingMapper());
+        bird = BenchmarkData.bird(1L, sightingsPerBird);
+        birdDTO = beanUtilsBirdToDTO();
+    }
+
+    @Benchmark
+    public BirdDTO generatedBirdToDTO() {
+        return birdMapper.convertToDTO(bird);
+    }
+
+    @Benchmark
+    public BirdDTO beanUtilsBirdToDTO() {
+        var result = new BirdDTO();
+        BeanUtils.copyProperties(bird, result);
+        List<SightingDTO> sightingDTOs = new ArrayList<>();
+        for (Sighting sighting : bird.getSightings()) {
+            var sightingDTO = new SightingDTO();
+            BeanUtils.copyProperties(sighting, sightingDTO);
+            sightingDTOs.add(sightingDTO);
+        }
+        result.setSightings(sightingDTOs);
+        return result;
+    }
+
+    @Benchmark
+    public Bird generatedBirdToEntity() {
+        return birdMapper.convertToEntity(birdDTO);
+    }
+
+    @Benchmark
+    public Bird beanUtilsBirdToEntity() {
+        var result = new Bird();
+        BeanUtils.copyProperties(birdDTO, result);
+        List<Sighting> sightings = new ArrayList<>();
+        for (SightingDTO sightingDTO : birdDTO.getSightings()) {
+            var sighting = new Sighting();
+            BeanUtils.copyProperties(sightingDTO, sighting);
+            sightings.add(sighting);
+        }
+        result.setSightings(sightings);
+        return result;
+    }
+}
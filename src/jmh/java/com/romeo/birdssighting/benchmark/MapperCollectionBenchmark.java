@@ -0,0 +1,79 @@
+package com.romeo.birdssighting.benchmark;
+
+import com.romeo.birdssighting.domain.Bird;
+import com.romeo.birdssighting.domain.Sighting;
+import com.romeo.birdssighting.dto.BirdDTO;
+import com.romeo.birdssighting.dto.SightingDTO;
+import com.romeo.birdssighting.mapper.BirdMapper;
+import com.romeo.birdssighting.mapper.SightingMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class measures BirdMapper and SightingMapper entity to DTO conversion
+ * on single items and on 10k-element collections
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperCollectionBenchmark {
+
+    private static final int COLLECTION_SIZE = 10_000;
+    private static final int SIGHTINGS_PER_BIRD = 5;
+
+    private SightingMapper sightingMapper;
+    private BirdMapper birdMapper;
+    private Sighting sighting;
+    private Bird bird;
+    private List<Sighting> sightings;
+    private List<Bird> birds;
+
+    @Setup
+    public void setUp() {
+        sightingMapper = new SightingMapper();
+        birdMapper = new BirdMapper(sightingMapper);
+        bird = BenchmarkData.bird(1L, SIGHTINGS_PER_BIRD);
+        sighting = bird.getSightings().get(0);
+        sightings = BenchmarkData.bird(2L, COLLECTION_SIZE).getSightings();
+        birds = new ArrayList<>(COLLECTION_SIZE);
+        for (long id = 1; id <= COLLECTION_SIZE; id++) {
+            birds.add(BenchmarkData.bird(id, SIGHTINGS_PER_BIRD));
+        }
+    }
+
+    @Benchmark
+    public SightingDTO sightingToDTO() {
+        return sightingMapper.convertToDTO(sighting);
+    }
+
+    @Benchmark
+    public Collection<SightingDTO> sightingsToDTO() {
+        return sightingMapper.convertToDTO(sightings);
+    }
+
+    @Benchmark
+    public BirdDTO birdToDTO() {
+        return birdMapper.convertToDTO(bird);
+    }
+
+    @Benchmark
+    public Collection<BirdDTO> birdsToDTO() {
+        return birdMapper.convertToDTO(birds);
+    }
+}
@@ -0,0 +1,100 @@
+package com.romeo.birdssighting.benchmark;
+
+import com.romeo.birdssighting.domain.Bird;
+import com.romeo.birdssighting.dto.SightingDTO;
+import com.romeo.birdssighting.repositories.IBirdRepository;
+import com.romeo.birdssighting.services.SightingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class is a load test of the HTTP API, in platform thread mode against virtual thread mode.
+ * 200 client threads page through the sightings, which are read from the database on every request.
+ * Throughput is reported in requests per second, the sample time mode reports the latency percentiles
+ * (p0.99 is the p99). Requests rejected with 503 by the concurrency limit are measured like the others
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(200)
+@Fork(1)
+public class RequestExecutionBenchmark {
+
+    private static final int BIRDS = 100;
+    private static final int SIGHTINGS_PER_BIRD = 20;
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private HttpRequest request;
+
+    @Setup
+    public void setUp() {
+        context = ApplicationContexts.startWebOnH2("requests-" + virtualThreads,
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                // Same pool sizes as production, so both modes compete for the same connections
+                "--server.tomcat.threads.max=200",
+                "--spring.datasource.hikari.maximum-pool-size=10");
+        var birdRepository = context.getBean(IBirdRepository.class);
+        var sightingService = context.getBean(SightingService.class);
+        for (int i = 0; i < BIRDS; i++) {
+            var bird = new Bird();
+            bird.setName("Bird " + i);
+            var birdId = birdRepository.save(bird).getId();
+            List<SightingDTO> sightingDTOs = new ArrayList<>(SIGHTINGS_PER_BIRD);
+            for (int j = 0; j < SIGHTINGS_PER_BIRD; j++) {
+                var sightingDTO = new SightingDTO();
+                sightingDTO.setLocation("Location " + j);
+                sightingDTO.setDateTime(LocalDateTime.of(2024, 5, 1, 6, 30).plusMinutes(j));
+                sightingDTOs.add(sightingDTO);
+            }
+            sightingService.createSightings(birdId, sightingDTOs);
+        }
+
+        var port = context.getEnvironment().getProperty("local.server.port");
+        httpClient = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/sightings?limit=50"))
+                .GET()
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        httpClient.close();
+        context.close();
+    }
+
+    @Benchmark
+    public int getSightingsPage() throws IOException, InterruptedException {
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
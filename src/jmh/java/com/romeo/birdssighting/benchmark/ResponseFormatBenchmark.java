@@ -0,0 +1,97 @@
+package com.romeo.birdssighting.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.romeo.birdssighting.dto.SightingDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * This class measures writing and reading a List of SightingDTO, as served by the sighting read endpoints,
+ * in each response format (JSON, CBOR, Smile), with and without the gzip compression Tomcat applies.
+ * The mappers are built like MessageConverterConfig builds them. The bytes on the wire of every
+ * combination are printed once at setup, the benchmarks report the time to produce and to parse them
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseFormatBenchmark {
+
+    private static final TypeReference<List<SightingDTO>> SIGHTING_LIST = new TypeReference<>() {
+    };
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    @Param({"none", "gzip"})
+    public String compression;
+
+    @Param({"10000"})
+    public int sightings;
+
+    private ObjectMapper objectMapper;
+    private List<SightingDTO> sightingDTOs;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = switch (format) {
+            case "cbor" -> Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+            case "smile" -> Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build();
+            default -> Jackson2ObjectMapperBuilder.json().build();
+        };
+        sightingDTOs = new ArrayList<>(sightings);
+        var first = LocalDateTime.of(2024, 5, 1, 6, 30);
+        for (int i = 0; i < sightings; i++) {
+            sightingDTOs.add(new SightingDTO((long) i + 1, "Location " + (i % 50), first.plusMinutes(i),
+                    45.0 + (i % 1000) / 1000.0, 29.0 + (i % 700) / 700.0));
+        }
+        var json = Jackson2ObjectMapperBuilder.json().build().writeValueAsBytes(sightingDTOs);
+        var serialized = objectMapper.writeValueAsBytes(sightingDTOs);
+        encoded = serialize();
+        System.out.printf("%n%s %s: %d bytes on the wire, %.1f%% of plain JSON (%d bytes before compression)%n",
+                format, compression, encoded.length, 100.0 * encoded.length / json.length, serialized.length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        var bytes = new ByteArrayOutputStream(64 * 1024);
+        try (OutputStream out = "gzip".equals(compression) ? new GZIPOutputStream(bytes) : bytes) {
+            objectMapper.writeValue(out, sightingDTOs);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public List<SightingDTO> deserialize() throws IOException {
+        var in = new ByteArrayInputStream(encoded);
+        return objectMapper.readValue("gzip".equals(compression) ? new GZIPInputStream(in) : in,
+                SIGHTING_LIST);
+    }
+}
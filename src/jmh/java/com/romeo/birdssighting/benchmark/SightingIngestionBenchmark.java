@@ -0,0 +1,99 @@
+package com.romeo.birdssighting.benchmark;
+
+import com.romeo.birdssighting.domain.Bird;
+import com.romeo.birdssighting.dto.SightingBatchResultDTO;
+import com.romeo.birdssighting.dto.SightingDTO;
+import com.romeo.birdssighting.dto.SightingImportDTO;
+import com.romeo.birdssighting.repositories.IBirdRepository;
+import com.romeo.birdssighting.services.SightingImportService;
+import com.romeo.birdssighting.services.SightingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.StringReader;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class measures sighting ingestion in rows per second, one createSighting
+ * call per row against one createSightings batch and a CSV import, on an in-memory H2 database
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SightingIngestionBenchmark {
+
+    private static final int ROWS = 1_000;
+
+    private ConfigurableApplicationContext context;
+    private SightingService sightingService;
+    private SightingImportService sightingImportService;
+    private Long birdId;
+    private List<SightingDTO> sightingDTOs;
+    private String csv;
+
+    @Setup
+    public void setUp() {
+        context = ApplicationContexts.startOnH2("ingestion");
+        sightingService = context.getBean(SightingService.class);
+        sightingImportService = context.getBean(SightingImportService.class);
+        sightingDTOs = new ArrayList<>(ROWS);
+        var csvBuilder = new StringBuilder("bird,location,date_time\n");
+        for (int i = 0; i < ROWS; i++) {
+            var sightingDTO = new SightingDTO();
+            sightingDTO.setLocation("Location " + (i % 50));
+            sightingDTO.setDateTime(LocalDateTime.of(2024, 5, 1, 6, 30).plusMinutes(i));
+            sightingDTOs.add(sightingDTO);
+            csvBuilder.append("Robin,").append(sightingDTO.getLocation()).append(',')
+                    .append(sightingDTO.getDateTime()).append('\n');
+        }
+        csv = csvBuilder.toString();
+        var bird = new Bird();
+        bird.setName("Robin");
+        birdId = context.getBean(IBirdRepository.class).save(bird).getId();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public SightingBatchResultDTO batchInsert() {
+        return sightingService.createSightings(birdId, sightingDTOs);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public SightingImportDTO csvImport() {
+        return sightingImportService.importSightings(new StringReader(csv));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int singleInserts() {
+        int inserted = 0;
+        for (SightingDTO sightingDTO : sightingDTOs) {
+            sightingService.createSighting(birdId, sightingDTO);
+            inserted++;
+        }
+        return inserted;
+    }
+}
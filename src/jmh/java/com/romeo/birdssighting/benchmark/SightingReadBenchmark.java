@@ -0,0 +1,97 @@
+package com.romeo.birdssighting.benchmark;
+
+import com.romeo.birdssighting.domain.Bird;
+import com.romeo.birdssighting.dto.SightingDTO;
+import com.romeo.birdssighting.mapper.SightingMapper;
+import com.romeo.birdssighting.repositories.IBirdRepository;
+import com.romeo.birdssighting.repositories.ISightingRepository;
+import com.romeo.birdssighting.services.SightingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class measures reading all the sightings of one location on an in-memory H2 database,
+ * through managed entities copied into DTOs in a read-write transaction against the
+ * read-only DTO projection used by SightingService. Run it with -prof gc to compare
+ * the allocated bytes per read (gc.alloc.rate.norm)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class SightingReadBenchmark {
+
+    private static final String LOCATION = "Danube Delta";
+    private static final int INSERT_BATCH = 10_000;
+
+    @Param({"100000"})
+    public int sightingCount;
+
+    private ConfigurableApplicationContext context;
+    private SightingService sightingService;
+    private ISightingRepository iSightingRepository;
+    private SightingMapper sightingMapper;
+    private TransactionTemplate transactionTemplate;
+
+    @Setup
+    public void setUp() {
+        context = ApplicationContexts.startOnH2("reads");
+        sightingService = context.getBean(SightingService.class);
+        iSightingRepository = context.getBean(ISightingRepository.class);
+        sightingMapper = context.getBean(SightingMapper.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+
+        var bird = new Bird();
+        bird.setName("Pelican");
+        var birdId = context.getBean(IBirdRepository.class).save(bird).getId();
+        var start = LocalDateTime.of(2024, 5, 1, 6, 30);
+        for (int from = 0; from < sightingCount; from += INSERT_BATCH) {
+            List<SightingDTO> batch = new ArrayList<>(INSERT_BATCH);
+            for (int i = from; i < Math.min(from + INSERT_BATCH, sightingCount); i++) {
+                var sightingDTO = new SightingDTO();
+                sightingDTO.setLocation(LOCATION);
+                sightingDTO.setDateTime(start.plusMinutes(i));
+                sightingDTO.setLatitude(45.1);
+                sightingDTO.setLongitude(29.5);
+                batch.add(sightingDTO);
+            }
+            sightingService.createSightings(birdId, batch);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<SightingDTO> managedEntities() {
+        // The read path before the projections: entities in a read-write transaction, then copied
+        return transactionTemplate.execute(status ->
+                new ArrayList<>(sightingMapper.convertToDTO(iSightingRepository.findByLocation(LOCATION))));
+    }
+
+    @Benchmark
+    public List<SightingDTO> readOnlyProjection() {
+        return sightingService.findByLocation(LOCATION);
+    }
+}
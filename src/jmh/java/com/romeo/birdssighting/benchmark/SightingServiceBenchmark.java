@@ -0,0 +1,72 @@
+package com.romeo.birdssighting.benchmark;
+
+import com.romeo.birdssighting.domain.Sighting;
+import com.romeo.birdssighting.mapper.BirdMapper;
+import com.romeo.birdssighting.mapper.SightingMapper;
+import com.romeo.birdssighting.services.SightingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class measures walking all pages of SightingService.findSightingsPage on top of an in-memory
+ * repository, i.e. the mapping work done per sighting and its bird
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SightingServiceBenchmark {
+
+    private static final int SIGHTINGS_PER_BIRD = 100;
+    // The largest page a client may ask for
+    private static final int PAGE_SIZE = 500;
+
+    @Param({"1000", "10000"})
+    private int sightingCount;
+
+    private SightingService sightingService;
+
+    @Setup
+    public void setUp() {
+        List<Sighting> sightings = new ArrayList<>(sightingCount);
+        for (long birdId = 1; sightings.size() < sightingCount; birdId++) {
+            sightings.addAll(BenchmarkData.bird(birdId, SIGHTINGS_PER_BIRD).getSightings());
+        }
+        var sightingMapper = new SightingMapper();
+        sightingService = new SightingService(
+                InMemoryRepositories.sightingRepository(sightings.subList(0, sightingCount)),
+                sightingMapper,
+                null,
+                new BirdMapper(sightingMapper),
+                null,
+                null,
+                null,
+                null);
+    }
+
+    @Benchmark
+    public void findSightingsPages(Blackhole blackhole) {
+        String after = null;
+        do {
+            var page = sightingService.findSightingsPage(after, PAGE_SIZE);
+            blackhole.consume(page);
+            after = page.getNextCursor();
+        } while (after != null);
+    }
+}
@@ -0,0 +1,22 @@
+package com.romeo.birdssighting.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * This class represents the configuration of the in-process caches.
+ * The caches themselves are created by Spring Boot from the spring.cache properties
+ */
+@Configuration
+// The cache advice runs outside the transaction, so a hit does not open one
+// and evictions happen only after the transaction committed
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+public class CacheConfig {
+
+    public static final String BIRDS_BY_ID = "birdsById";
+
+    public static final String BIRDS_BY_NAME = "birdsByName";
+
+    public static final String BIRDS_BY_COLOR = "birdsByColor";
+}
@@ -0,0 +1,60 @@
+package com.romeo.birdssighting.config;
+
+import com.romeo.birdssighting.services.QueryDiagnostics;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.internal.StatisticsImpl;
+
+/**
+ * This class represents the Hibernate statistics, also passing every event to the query diagnostics.
+ * Slow statements are not kept by Hibernate, its map of them has one entry per distinct SQL text and is never trimmed
+ */
+class DiagnosticStatistics extends StatisticsImpl {
+
+    private final QueryDiagnostics queryDiagnostics;
+
+    DiagnosticStatistics(SessionFactoryImplementor sessionFactory, QueryDiagnostics queryDiagnostics) {
+        super(sessionFactory);
+        this.queryDiagnostics = queryDiagnostics;
+    }
+
+    @Override
+    public void prepareStatement() {
+        super.prepareStatement();
+        queryDiagnostics.statementPrepared();
+    }
+
+    @Override
+    public void queryExecuted(String hql, int rows, long time) {
+        super.queryExecuted(hql, rows, time);
+        queryDiagnostics.queryExecuted(hql, rows, time);
+    }
+
+    @Override
+    public void loadEntity(String entityName) {
+        super.loadEntity(entityName);
+        queryDiagnostics.loaded();
+    }
+
+    @Override
+    public void loadCollection(String role) {
+        super.loadCollection(role);
+        queryDiagnostics.loaded();
+    }
+
+    @Override
+    public void fetchEntity(String entityName) {
+        super.fetchEntity(entityName);
+        queryDiagnostics.fetched();
+    }
+
+    @Override
+    public void fetchCollection(String role) {
+        super.fetchCollection(role);
+        queryDiagnostics.fetched();
+    }
+
+    @Override
+    public void slowQuery(String sql, long time) {
+        queryDiagnostics.slowQuery(sql, time);
+    }
+}
@@ -0,0 +1,72 @@
+package com.romeo.birdssighting.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.romeo.birdssighting.domain.Bird;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * This class represents the configuration of the Hibernate second-level cache.
+ * Bird entities and the results of the cacheable bird queries are kept in bounded Caffeine regions,
+ * used through JCache. Birds are read-write cached: Hibernate updates or invalidates an entry when
+ * the bird is written through JPA, and a query result when any bird changes.
+ * The sightings of a bird are not cached, sightings are also written with plain JDBC
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    /**
+     * This method is used to enable the second-level and query caches, with a cache manager of their own
+     */
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(
+            @Value("${birds.hibernate-cache.bird.maximum-size}") long birdMaximumSize,
+            @Value("${birds.hibernate-cache.bird.expire-after-write}") Duration birdExpireAfterWrite,
+            @Value("${birds.hibernate-cache.query-results.maximum-size}") long queryResultsMaximumSize) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, ConfigSettings.SIMPLE_FACTORY_NAME);
+            // Every region is created here, a typo in a region name fails at startup instead of creating an unbounded one
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            // Hibernate closes the cache manager together with the entity manager factory
+            properties.put(ConfigSettings.CACHE_MANAGER,
+                    createCacheManager(birdMaximumSize, birdExpireAfterWrite, queryResultsMaximumSize));
+        };
+    }
+
+    private static CacheManager createCacheManager(long birdMaximumSize, Duration birdExpireAfterWrite,
+                                                   long queryResultsMaximumSize) {
+        var provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        // A cache manager per entity manager factory, so application contexts never share regions
+        var cacheManager = provider.getCacheManager(URI.create("hibernate-" + UUID.randomUUID()),
+                HibernateCacheConfig.class.getClassLoader());
+
+        var bird = new CaffeineConfiguration<Object, Object>();
+        bird.setMaximumSize(OptionalLong.of(birdMaximumSize));
+        bird.setExpireAfterWrite(OptionalLong.of(birdExpireAfterWrite.toNanos()));
+        cacheManager.createCache(Bird.CACHE_REGION, bird);
+
+        var queryResults = new CaffeineConfiguration<Object, Object>();
+        queryResults.setMaximumSize(OptionalLong.of(queryResultsMaximumSize));
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, queryResults);
+
+        // One entry per table, it must never be evicted or cached query results could outlive their tables
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+                new CaffeineConfiguration<>());
+        return cacheManager;
+    }
+}
@@ -0,0 +1,49 @@
+package com.romeo.birdssighting.config;
+
+import com.romeo.birdssighting.filter.QueryStatisticsFilter;
+import com.romeo.birdssighting.services.QueryDiagnostics;
+import org.hibernate.cfg.JdbcSettings;
+import org.hibernate.cfg.StatisticsSettings;
+import org.hibernate.stat.spi.StatisticsFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * This class represents the configuration of the Hibernate statistics.
+ * Besides the counters Hibernate keeps itself, published as hibernate.* metrics, every statement,
+ * query, load and fetch is passed on to the query diagnostics, and statements slower than
+ * birds.diagnostics.slow-query-threshold are logged by Hibernate (org.hibernate.SQL_SLOW) and kept in the slow-query log
+ */
+@Configuration
+public class HibernateStatisticsConfig {
+
+    /**
+     * This method is used to enable the statistics and the slow-query log, with the query diagnostics as listener
+     */
+    @Bean
+    public HibernatePropertiesCustomizer statisticsCustomizer(
+            QueryDiagnostics queryDiagnostics,
+            @Value("${birds.diagnostics.slow-query-threshold}") Duration slowQueryThreshold) {
+        return properties -> {
+            properties.put(StatisticsSettings.GENERATE_STATISTICS, true);
+            properties.put(JdbcSettings.LOG_SLOW_QUERY, slowQueryThreshold.toMillis());
+            properties.put(StatisticsSettings.STATS_BUILDER,
+                    (StatisticsFactory) sessionFactory -> new DiagnosticStatistics(sessionFactory, queryDiagnostics));
+        };
+    }
+
+    /**
+     * This method is used to count the statements of every API request and check them against the endpoint budgets
+     */
+    @Bean
+    public QueryStatisticsFilter queryStatisticsFilter(
+            QueryDiagnostics queryDiagnostics,
+            @Value("${birds.diagnostics.statement-count-header}") boolean statementCountHeader,
+            @Value("${birds.diagnostics.enforce-statement-budget}") boolean enforceStatementBudget) {
+        return new QueryStatisticsFilter(queryDiagnostics, statementCountHeader, enforceStatementBudget);
+    }
+}
@@ -0,0 +1,35 @@
+package com.romeo.birdssighting.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * This class represents the configuration of the binary response formats.
+ * Besides JSON, every endpoint can read and write CBOR (Accept: application/cbor) and Smile
+ * (Accept: application/x-jackson-smile). Both mappers are built from the builder Spring Boot configures,
+ * so the binary formats carry the same fields and date formats as the JSON responses. JSON stays the default
+ */
+@Configuration
+public class MessageConverterConfig {
+
+    /**
+     * This method is used to create the CBOR converter, replacing the one Spring MVC adds with its own defaults
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    /**
+     * This method is used to create the Smile converter, replacing the one Spring MVC adds with its own defaults
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
@@ -0,0 +1,26 @@
+package com.romeo.birdssighting.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * This class represents the configuration of the application metrics.
+ * Controllers are timed by Spring MVC (http.server.requests) and repositories by
+ * Spring Data (spring.data.repository.invocations), the services are timed here
+ */
+@Configuration
+public class MetricsConfig {
+
+    // Timer of the service methods, tagged with the class and method names
+    public static final String SERVICE_METRIC = "birds.service";
+
+    /**
+     * This method is used to enable the @Timed annotation on Spring beans
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
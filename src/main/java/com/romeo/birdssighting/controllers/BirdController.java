@@ -2,7 +2,10 @@ package com.romeo.birdssighting.controllers;
 
 
 import com.romeo.birdssighting.dto.BirdDTO;
+import com.romeo.birdssighting.dto.BirdPatchDTO;
+import com.romeo.birdssighting.filter.StatementBudget;
 import com.romeo.birdssighting.services.BirdService;
+import com.romeo.birdssighting.services.ResourceVersions;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -13,8 +16,10 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -32,12 +37,18 @@ import java.util.List;
 public class BirdController {
 
     private final BirdService birdService;
+    private final ResourceVersions resourceVersions;
 
     /**
-     * This method is used for returns all birds
+     * This method is used for returns all birds.
+     * Answers 304 without loading the birds when the If-None-Match ETag is still current
      */
+    @StatementBudget(1)
     @GetMapping
-    public ResponseEntity<List<BirdDTO>> getAllBirds() {
+    public ResponseEntity<List<BirdDTO>> getAllBirds(WebRequest webRequest) {
+        if (webRequest.checkNotModified(resourceVersions.birdsETag())) {
+            return null;
+        }
         return ResponseEntity.ok(birdService.getAllBirds());
     }
 
@@ -50,6 +61,19 @@ public class BirdController {
         return ResponseEntity.ok(birdService.saveBird(birdDTO));
     }
 
+    /**
+     * This method is used for returns a bird by id
+     */
+    @StatementBudget(2)
+    @GetMapping("/{id}")
+    public ResponseEntity<BirdDTO> findById(@PathVariable("id") Long id, WebRequest webRequest) {
+        log.info("REST request to get a bird by id: {}", id);
+        if (webRequest.checkNotModified(resourceVersions.birdETag(id))) {
+            return null;
+        }
+        return ResponseEntity.ok(birdService.findBirdById(id));
+    }
+
     /**
      * This method is used for returns a bird by color
      */
@@ -78,7 +102,19 @@ public class BirdController {
     }
 
     /**
-     * This method is used for delete a bird by id
+     * This method is used for update some fields of a bird, its sightings are left as they are
+     */
+    @StatementBudget(2)
+    @PatchMapping("/{id}")
+    public ResponseEntity<BirdDTO> patchBird(@PathVariable("id") Long id, @RequestBody BirdPatchDTO birdPatchDTO) {
+        log.info("REST request to patch bird {}: {}", id, birdPatchDTO);
+        return ResponseEntity.ok(birdService.patchBird(id, birdPatchDTO));
+    }
+
+    /**
+     * This method is used for delete a bird by id.
+     * It has no statement budget, its statements grow with the sightings of the bird: every chunk of
+     * BirdService.DELETE_CHUNK_SIZE sightings is read and deleted with one statement each, then the bird with one more
      */
     @DeleteMapping("/{id}")
     public void deleteBird(@PathVariable Long id) {
@@ -0,0 +1,30 @@
+package com.romeo.birdssighting.controllers;
+
+import com.romeo.birdssighting.dto.CacheStatsDTO;
+import com.romeo.birdssighting.services.CacheStatsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * This class represents the actuator endpoint exposing the usage of the in-process caches on /actuator/cachestats,
+ * it is meant for operators sizing the caches and not for API clients
+ */
+@Component
+@RequiredArgsConstructor
+@Endpoint(id = "cachestats")
+public class CacheStatsEndpoint {
+
+    private final CacheStatsService cacheStatsService;
+
+    /**
+     * This method is used for returns the counters of every cache
+     */
+    @ReadOperation
+    public List<CacheStatsDTO> getCacheStats() {
+        return cacheStatsService.getCacheStats();
+    }
+}
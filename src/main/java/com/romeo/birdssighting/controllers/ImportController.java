@@ -0,0 +1,47 @@
+package com.romeo.birdssighting.controllers;
+
+import com.romeo.birdssighting.dto.SightingImportDTO;
+import com.romeo.birdssighting.services.SightingImportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * This class represents a REST controller for bulk imports of historical data
+ */
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/import")
+public class ImportController {
+
+    private final SightingImportService sightingImportService;
+
+    /**
+     * This method is used for returns the outcome of importing the sightings of a UTF-8 CSV upload.
+     * The request body is read as a stream while it is imported, it is never held in memory as a whole
+     */
+    @PostMapping(value = "/sightings", consumes = {"text/csv", "text/plain"})
+    public ResponseEntity<SightingImportDTO> importSightings(InputStream body) {
+        log.info("REST request to import sightings");
+        return ResponseEntity.ok(sightingImportService.importSightings(
+                new InputStreamReader(body, StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * This method is used for returns the progress of the sighting imports still running
+     */
+    @GetMapping("/sightings")
+    public ResponseEntity<List<SightingImportDTO>> getRunningImports() {
+        return ResponseEntity.ok(sightingImportService.findRunningImports());
+    }
+}
@@ -0,0 +1,55 @@
+package com.romeo.birdssighting.controllers;
+
+import com.romeo.birdssighting.dto.LocationMatchDTO;
+import com.romeo.birdssighting.dto.LocationSightingsDTO;
+import com.romeo.birdssighting.services.LocationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * This class represents a REST controller for searching the locations of the sightings
+ */
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/locations")
+public class LocationController {
+
+    private final LocationService locationService;
+
+    /**
+     * This method is used for returns the locations starting with a prefix, for autocomplete
+     */
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<String>> completeLocation(@RequestParam("prefix") String prefix,
+                                                         @RequestParam(value = "limit", required = false) Integer limit) {
+        return ResponseEntity.ok(locationService.completeLocation(prefix, limit));
+    }
+
+    /**
+     * This method is used for returns the locations similar to the q parameter, best match first
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<LocationMatchDTO>> searchLocations(@RequestParam("q") String text,
+                                                                  @RequestParam(value = "limit", required = false) Integer limit) {
+        log.info("REST request to search locations: {}", text);
+        return ResponseEntity.ok(locationService.searchLocations(text, limit));
+    }
+
+    /**
+     * This method is used for returns the ids of the sightings at a location chosen from the search
+     */
+    @GetMapping("/sightings")
+    public ResponseEntity<LocationSightingsDTO> getSightingIds(@RequestParam("location") String location,
+                                                               @RequestParam(value = "after", required = false) String after) {
+        log.info("REST request to get the sighting ids of location: {}", location);
+        return ResponseEntity.ok(locationService.findSightingIds(location, after));
+    }
+}
@@ -0,0 +1,41 @@
+package com.romeo.birdssighting.controllers;
+
+import com.romeo.birdssighting.dto.QueryStatsDTO;
+import com.romeo.birdssighting.services.QueryDiagnostics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * This class represents the actuator endpoint exposing the query diagnostics on /actuator/queries,
+ * by fingerprint and never with bind parameters. It is meant for operators looking for the worst repository
+ * queries and not for API clients, so like every actuator endpoint it is only served once exposed
+ */
+@Component
+@RequiredArgsConstructor
+@Endpoint(id = "queries")
+public class QueryDiagnosticsEndpoint {
+
+    private final QueryDiagnostics queryDiagnostics;
+
+    /**
+     * This method is used for returns the query fingerprints that took the most time in total, worst first
+     */
+    @ReadOperation
+    public List<QueryStatsDTO> getWorstQueries(@Nullable Integer limit) {
+        return queryDiagnostics.getWorstQueries(limit);
+    }
+
+    /**
+     * This method is used for resets the query counters and the slow-query log, e.g. after a deployment
+     */
+    @DeleteOperation
+    public void clear() {
+        queryDiagnostics.clear();
+    }
+}
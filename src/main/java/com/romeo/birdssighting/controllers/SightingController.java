@@ -1,11 +1,20 @@
 package com.romeo.birdssighting.controllers;
 
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.romeo.birdssighting.dto.SightingBatchResultDTO;
 import com.romeo.birdssighting.dto.SightingDTO;
+import com.romeo.birdssighting.dto.SightingPageDTO;
+import com.romeo.birdssighting.filter.StatementBudget;
+import com.romeo.birdssighting.services.ResourceVersions;
 import com.romeo.birdssighting.services.SightingService;
+import com.romeo.birdssighting.services.SightingWriteBehind;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -16,7 +25,12 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -35,30 +49,67 @@ import java.util.List;
 public class SightingController {
 
     private final SightingService sightingService;
+    private final ObjectMapper objectMapper;
+    private final ResourceVersions resourceVersions;
+    // Only available when the write-behind ingestion is enabled
+    private final ObjectProvider<SightingWriteBehind> sightingWriteBehind;
 
     /**
-     * This method is used for get all sightings by birdId
+     * This method is used for get all sightings by birdId.
+     * Answers 304 without loading the sightings when the If-None-Match ETag is still current
      */
+    @StatementBudget(2)
     @GetMapping("/birds/{birdId}/sightings")
-    public ResponseEntity<List<SightingDTO>> getAllSightingsByBirdId(@PathVariable(value = "birdId") Long birdId) {
+    public ResponseEntity<List<SightingDTO>> getAllSightingsByBirdId(@PathVariable(value = "birdId") Long birdId,
+                                                                     WebRequest webRequest) {
         log.info("REST request to get sightings by birdId : {}", birdId);
+        if (webRequest.checkNotModified(resourceVersions.birdETag(birdId))) {
+            return null;
+        }
         return ResponseEntity.ok(sightingService.findAllSightingsByBirdId(birdId));
 
     }
 
     /**
-     * This method is used for save a Sighting allocated to a bird
+     * This method is used for save a Sighting allocated to a bird.
+     * With the write-behind ingestion the sighting is queued and answered with 202 and its id
      */
+    @StatementBudget(3)
     @PostMapping("/birds/{birdId}/sightings")
     public ResponseEntity<SightingDTO> saveSighting(@PathVariable(value = "birdId") Long birdId,
                                                     @RequestBody SightingDTO sightingDTO) {
         log.info("REST request to save sightingDTO: {}", sightingDTO);
+        var writeBehind = sightingWriteBehind.getIfAvailable();
+        if (writeBehind != null) {
+            return ResponseEntity.accepted().body(writeBehind.enqueueSighting(birdId, sightingDTO));
+        }
         return ResponseEntity.ok(sightingService.createSighting(birdId, sightingDTO));
     }
 
+    /**
+     * This method is used for save many sightings allocated to a bird in one request
+     */
+    @PostMapping("/birds/{birdId}/sightings/batch")
+    public ResponseEntity<SightingBatchResultDTO> saveSightings(@PathVariable(value = "birdId") Long birdId,
+                                                                @RequestBody List<SightingDTO> sightingDTOs) {
+        log.info("REST request to save {} sightings for birdId: {}", sightingDTOs.size(), birdId);
+        return ResponseEntity.ok(sightingService.createSightings(birdId, sightingDTOs));
+    }
+
+    /**
+     * This method is used for save many sightings of different birds in one request,
+     * each sighting references its bird by bird.id
+     */
+    @PostMapping("/sightings/batch")
+    public ResponseEntity<SightingBatchResultDTO> saveSightings(@RequestBody List<SightingDTO> sightingDTOs) {
+        log.info("REST request to save {} sightings", sightingDTOs.size());
+        return ResponseEntity.ok(sightingService.createSightings(sightingDTOs));
+    }
+
     /**
      * This method is used for update a sighting
      */
+    @StatementBudget(2)
     @PutMapping("/sighting/{id}")
     public ResponseEntity<SightingDTO> updateSighting(@PathVariable("id") Long id,
                                                       @RequestBody SightingDTO sightingDTO) {
@@ -69,6 +120,7 @@ public class SightingController {
     /**
      * This method is used for get a single Sighting by Id
      */
+    @StatementBudget(1)
     @GetMapping("/sightings/{id}")
     public ResponseEntity<SightingDTO> getSightingById(@PathVariable(value = "id") Long id) {
         log.info("REST request to get sighting by id : {}", id);
@@ -95,17 +147,92 @@ public class SightingController {
     }
 
     /**
-     * This method is used for returns all sightings
+     * This method is used for returns a page of the sightings inside a box of coordinates
+     */
+    @GetMapping("/sightings/within")
+    public ResponseEntity<SightingPageDTO> getSightingsInBox(@RequestParam("minLat") double minLatitude,
+                                                             @RequestParam("minLon") double minLongitude,
+                                                             @RequestParam("maxLat") double maxLatitude,
+                                                             @RequestParam("maxLon") double maxLongitude,
+                                                             @RequestParam(value = "after", required = false) String after,
+                                                             @RequestParam(value = "limit", required = false) Integer limit) {
+        log.info("REST request for returns the sightings within: {}, {}, {}, {}",
+                minLatitude, minLongitude, maxLatitude, maxLongitude);
+        return ResponseEntity.ok(sightingService.findSightingsInBox(minLatitude, minLongitude, maxLatitude,
+                maxLongitude, after, limit));
+    }
+
+    /**
+     * This method is used for returns a page of the sightings at most radiusKm away from a point
+     */
+    @GetMapping("/sightings/near")
+    public ResponseEntity<SightingPageDTO> getSightingsNear(@RequestParam("lat") double latitude,
+                                                            @RequestParam("lon") double longitude,
+                                                            @RequestParam("radiusKm") double radiusKm,
+                                                            @RequestParam(value = "after", required = false) String after,
+                                                            @RequestParam(value = "limit", required = false) Integer limit) {
+        log.info("REST request for returns the sightings within {} km of: {}, {}", radiusKm, latitude, longitude);
+        return ResponseEntity.ok(sightingService.findSightingsNear(latitude, longitude, radiusKm, after, limit));
+    }
+
+    /**
+     * This method is used for returns a page of sightings,
+     * the after parameter is the nextCursor returned by the previous page.
+     * With from and/or to only the sightings seen in [from, to) are returned, ordered by dateTime,
+     * and they can be narrowed to one bird and/or one location. Without them the sightings of
+     * the bird and/or the location are returned ordered by id
      */
+   @StatementBudget(1)
    @GetMapping("/sightings")
-   public ResponseEntity<List<SightingDTO>> getAllSightings() {
-       log.info("REST request for returns all sightings");
-       return ResponseEntity.ok(sightingService.findAllSightings());
+   public ResponseEntity<SightingPageDTO> getAllSightings(@RequestParam(value = "from", required = false)
+                                                          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                          LocalDateTime from,
+                                                          @RequestParam(value = "to", required = false)
+                                                          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                          LocalDateTime to,
+                                                          @RequestParam(value = "birdId", required = false) Long birdId,
+                                                          @RequestParam(value = "location", required = false) String location,
+                                                          @RequestParam(value = "after", required = false) String after,
+                                                          @RequestParam(value = "limit", required = false) Integer limit) {
+       if (from == null && to == null && birdId == null && location == null) {
+           log.info("REST request for returns a page of sightings after: {}, limit: {}", after, limit);
+           return ResponseEntity.ok(sightingService.findSightingsPage(after, limit));
+       }
+       if (from == null && to == null) {
+           log.info("REST request for returns a page of sightings of birdId: {}, location: {}", birdId, location);
+           return ResponseEntity.ok(sightingService.findSightingsPage(birdId, location, after, limit));
+       }
+       log.info("REST request for returns a page of sightings from: {}, to: {}, birdId: {}, location: {}",
+               from, to, birdId, location);
+       return ResponseEntity.ok(sightingService.findSightingsInRange(from, to, birdId, location, after, limit));
    }
 
+    /**
+     * This method is used for export all sightings with their bird as newline-delimited JSON.
+     * Each sighting is written to the response as soon as it is read from the database
+     */
+    @GetMapping("/sightings/export")
+    public void exportSightings(HttpServletResponse response) throws IOException {
+        log.info("REST request to export all sightings");
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        var outputStream = new BufferedOutputStream(response.getOutputStream());
+        sightingService.exportSightings(sightingDTO -> writeLine(outputStream, sightingDTO));
+        outputStream.flush();
+    }
+
+    private void writeLine(OutputStream outputStream, SightingDTO sightingDTO) {
+        try {
+            outputStream.write(objectMapper.writeValueAsBytes(sightingDTO));
+            outputStream.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     /**
      * This method is used for delete a Sighting by id
      */
+    @StatementBudget(2)
     @DeleteMapping("/sightings/{id}")
     public void deleteSighting(@PathVariable Long id) {
         log.info("REST request to delete Sighting : {}", id);
@@ -0,0 +1,30 @@
+package com.romeo.birdssighting.controllers;
+
+import com.romeo.birdssighting.dto.SlowQueryDTO;
+import com.romeo.birdssighting.services.QueryDiagnostics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * This class represents the actuator endpoint exposing the slow-query log on /actuator/slowqueries.
+ * It is cleared together with the query counters, by DELETE /actuator/queries
+ */
+@Component
+@RequiredArgsConstructor
+@Endpoint(id = "slowqueries")
+public class SlowQueriesEndpoint {
+
+    private final QueryDiagnostics queryDiagnostics;
+
+    /**
+     * This method is used for returns the last statements slower than the slow-query threshold, most recent first
+     */
+    @ReadOperation
+    public List<SlowQueryDTO> getSlowQueries() {
+        return queryDiagnostics.getSlowQueries();
+    }
+}
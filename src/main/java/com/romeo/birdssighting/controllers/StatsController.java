@@ -0,0 +1,45 @@
+package com.romeo.birdssighting.controllers;
+
+import com.romeo.birdssighting.dto.SightingStatsDTO;
+import com.romeo.birdssighting.services.SightingStatsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * This class represents a REST controller for the statistics of the sightings
+ */
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/stats")
+public class StatsController {
+
+    private final SightingStatsService sightingStatsService;
+
+    /**
+     * This method is used for returns the number of sightings grouped by bird, location and/or day,
+     * optionally between the from and to days (both included)
+     */
+    @GetMapping("/sightings")
+    public ResponseEntity<List<SightingStatsDTO>> getSightingStats(@RequestParam(value = "groupBy",
+                                                                           defaultValue = "bird,location,day")
+                                                                   String groupBy,
+                                                                   @RequestParam(value = "from", required = false)
+                                                                   @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+                                                                   LocalDate from,
+                                                                   @RequestParam(value = "to", required = false)
+                                                                   @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+                                                                   LocalDate to) {
+        log.info("REST request to get sighting stats grouped by: {}, from: {}, to: {}", groupBy, from, to);
+        return ResponseEntity.ok(sightingStatsService.getSightingStats(groupBy, from, to));
+    }
+}
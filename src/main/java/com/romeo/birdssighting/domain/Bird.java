@@ -4,6 +4,11 @@ import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
 
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.GenerationType;
@@ -11,6 +16,9 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.GeneratedValue;
 import java.util.List;
 
@@ -21,10 +29,18 @@ import java.util.List;
  */
 @Entity
 @Table(name = "bird")
+@NamedEntityGraph(name = Bird.WITH_SIGHTINGS, attributeNodes = @NamedAttributeNode("sightings"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Bird.CACHE_REGION)
 @Getter
 @Setter
 public class Bird {
 
+    // Second-level cache region of the birds, created by HibernateCacheConfig
+    public static final String CACHE_REGION = "bird";
+    // Fetch plan of the use cases returning the birds together with their sightings
+    public static final String WITH_SIGHTINGS = "Bird.withSightings";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -32,8 +48,11 @@ public class Bird {
     @Column(name = "name")
     private String name;
 
+    // A list of sightings embeds their birds with all their sightings, the collections of up to
+    // 100 birds of the persistence context are then read with one query instead of one query per bird
     @ToString.Exclude
-    @OneToMany(mappedBy = "bird", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 100)
+    @OneToMany(mappedBy = "bird", fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Sighting> sightings;
 
     @Column(name = "color")
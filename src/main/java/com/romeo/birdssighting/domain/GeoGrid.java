@@ -0,0 +1,96 @@
+package com.romeo.birdssighting.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class divides the globe into cells of CELL_SIZE_DEGREES x CELL_SIZE_DEGREES.
+ * Every located sighting stores the number of its cell in an indexed column, so an area
+ * search first selects the few cells covering the area and only checks the sightings inside them
+ */
+public final class GeoGrid {
+
+    // 0.1 degree is about 11 km north-south, a 5 km radius search covers 2 to 3 cells per axis
+    public static final double CELL_SIZE_DEGREES = 0.1;
+
+    // Mean earth radius used for the distances
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+
+    static final int ROWS = 1800;
+    static final int COLUMNS = 3600;
+
+    private GeoGrid() {
+    }
+
+    /**
+     * This method is used to returns the cell containing a point, null when the point is not known
+     */
+    public static Long cellOf(Double latitude, Double longitude) {
+        if (latitude == null || longitude == null) {
+            return null;
+        }
+        return (long) rowOf(latitude) * COLUMNS + columnOf(longitude);
+    }
+
+    /**
+     * This method is used to returns the number of cells covering a box.
+     * The longitudes may go beyond +/-180 for a box crossing the antimeridian
+     */
+    public static long cellCount(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude) {
+        long rows = rowOf(maxLatitude) - rowOf(minLatitude) + 1;
+        return rows * columnSpan(minLongitude, maxLongitude);
+    }
+
+    /**
+     * This method is used to returns the cells covering a box.
+     * The longitudes may go beyond +/-180 for a box crossing the antimeridian
+     */
+    public static List<Long> cellsCovering(double minLatitude, double minLongitude,
+                                           double maxLatitude, double maxLongitude) {
+        var columnSpan = columnSpan(minLongitude, maxLongitude);
+        var firstColumn = columnSpan == COLUMNS ? 0 : Math.floorMod(rawColumnOf(minLongitude), COLUMNS);
+        List<Long> cells = new ArrayList<>();
+        for (int row = rowOf(minLatitude); row <= rowOf(maxLatitude); row++) {
+            for (int i = 0; i < columnSpan; i++) {
+                cells.add((long) row * COLUMNS + (firstColumn + i) % COLUMNS);
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * This method is used to returns the smallest box containing the circle of radiusKm around a point,
+     * as {minLatitude, minLongitude, maxLatitude, maxLongitude}. The longitudes go beyond +/-180
+     * when the circle crosses the antimeridian
+     */
+    public static double[] boxAround(double latitude, double longitude, double radiusKm) {
+        var angularRadius = radiusKm / EARTH_RADIUS_KM;
+        var latitudeDelta = Math.toDegrees(angularRadius);
+        var minLatitude = Math.max(-90, latitude - latitudeDelta);
+        var maxLatitude = Math.min(90, latitude + latitudeDelta);
+        // Widest longitude offset of the circle, around a pole the circle covers every longitude
+        var longitudeDelta = 180.0;
+        if (minLatitude > -90 && maxLatitude < 90) {
+            longitudeDelta = Math.toDegrees(Math.asin(Math.min(1, Math.sin(angularRadius)
+                    / Math.cos(Math.toRadians(latitude)))));
+        }
+        return new double[]{minLatitude, longitude - longitudeDelta, maxLatitude, longitude + longitudeDelta};
+    }
+
+    private static int rowOf(double latitude) {
+        // The north pole belongs to the last row
+        return Math.min(ROWS - 1, Math.max(0, (int) Math.floor((latitude + 90) / CELL_SIZE_DEGREES)));
+    }
+
+    private static int columnOf(double longitude) {
+        return Math.floorMod(rawColumnOf(longitude), COLUMNS);
+    }
+
+    private static int rawColumnOf(double longitude) {
+        return (int) Math.floor((longitude + 180) / CELL_SIZE_DEGREES);
+    }
+
+    private static int columnSpan(double minLongitude, double maxLongitude) {
+        return (int) Math.min(COLUMNS, (long) rawColumnOf(maxLongitude) - rawColumnOf(minLongitude) + 1);
+    }
+}
@@ -2,18 +2,24 @@ package com.romeo.birdssighting.domain;
 
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
 import jakarta.persistence.ManyToOne;
-import jakarta.persistence.CascadeType;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Column;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 import jakarta.persistence.Entity;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import java.time.LocalDateTime;
 
 
@@ -25,13 +31,21 @@ import java.time.LocalDateTime;
 @Setter
 @Entity
 @Table(name = "sighting")
+@NamedEntityGraph(name = Sighting.WITH_BIRD, attributeNodes = @NamedAttributeNode("bird"))
 public class Sighting {
 
+    // Fetch plan of the use cases returning the sightings together with their bird
+    public static final String WITH_BIRD = "Sighting.withBird";
+
+    // A pooled sequence lets Hibernate assign ids without a round trip per row, which keeps JDBC insert batching on
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sighting_seq")
+    @SequenceGenerator(name = "sighting_seq", sequenceName = "sighting_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne(cascade = CascadeType.ALL)
+    // Lazy, a use case needing the bird asks for it with the WITH_BIRD graph or a join fetch.
+    // Nothing cascades to the bird, deleting a sighting must not delete its bird
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name="bird_id", nullable=false)
     private Bird bird;
 
@@ -41,4 +55,21 @@ public class Sighting {
     @JsonFormat(pattern = "YYYY-MM-dd HH:mm")
     @Column(name = "date_time")
     private LocalDateTime dateTime;
+
+    @Column(name = "latitude")
+    private Double latitude;
+
+    @Column(name = "longitude")
+    private Double longitude;
+
+    // Derived from latitude and longitude, see GeoGrid
+    @Setter(AccessLevel.NONE)
+    @Column(name = "grid_cell")
+    private Long gridCell;
+
+    @PrePersist
+    @PreUpdate
+    void updateGridCell() {
+        gridCell = GeoGrid.cellOf(latitude, longitude);
+    }
 }
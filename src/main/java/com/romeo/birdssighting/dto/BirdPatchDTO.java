@@ -0,0 +1,16 @@
+package com.romeo.birdssighting.dto;
+
+import lombok.Data;
+
+/**
+ * This class represents a partial update of a bird, the fields left null are not changed.
+ * It has no sightings, a patch never touches them
+ */
+@Data
+public class BirdPatchDTO {
+
+    private String name;
+    private String color;
+    private Integer weight;
+    private Integer height;
+}
@@ -0,0 +1,17 @@
+package com.romeo.birdssighting.dto;
+
+import lombok.Data;
+
+/**
+ * This class represents the usage counters of one cache
+ */
+@Data
+public class CacheStatsDTO {
+
+    private String name;
+    private long size;
+    private long hitCount;
+    private long missCount;
+    private double hitRate;
+    private long evictionCount;
+}
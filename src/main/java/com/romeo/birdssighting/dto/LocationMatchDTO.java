@@ -0,0 +1,19 @@
+package com.romeo.birdssighting.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This class represents a location matching a search,
+ * the score is the trigram similarity with the search text, from 0 to 1
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LocationMatchDTO {
+
+    private String location;
+    private long sightings;
+    private double score;
+}
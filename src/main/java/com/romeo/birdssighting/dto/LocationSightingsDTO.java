@@ -0,0 +1,17 @@
+package com.romeo.birdssighting.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * This class represents a page of the ids of the sightings at one location
+ */
+@Data
+public class LocationSightingsDTO {
+
+    private String location;
+    private List<Long> sightingIds;
+    // Opaque token for the next page, null on the last page
+    private String nextCursor;
+}
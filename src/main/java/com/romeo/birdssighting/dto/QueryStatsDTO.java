@@ -0,0 +1,17 @@
+package com.romeo.birdssighting.dto;
+
+import lombok.Data;
+
+/**
+ * This class represents the execution counters of all the queries sharing one fingerprint
+ */
+@Data
+public class QueryStatsDTO {
+
+    private String fingerprint;
+    private long executionCount;
+    private long rowCount;
+    private long totalTimeMillis;
+    private double averageTimeMillis;
+    private long maxTimeMillis;
+}
@@ -0,0 +1,16 @@
+package com.romeo.birdssighting.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * This class represents the outcome of a batch sighting insert
+ */
+@Data
+public class SightingBatchResultDTO {
+
+    private int inserted;
+    // Ids of the inserted sightings, in the order they were sent
+    private List<Long> ids;
+}
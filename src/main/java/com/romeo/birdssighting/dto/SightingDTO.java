@@ -1,15 +1,31 @@
 package com.romeo.birdssighting.dto;
 
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 
 
 @Data
+@NoArgsConstructor
 public class SightingDTO {
 
     private Long id;
     private String location;
     private BirdDTO bird;
     private LocalDateTime dateTime;
+    // Optional coordinates of the sighting, in degrees
+    private Double latitude;
+    private Double longitude;
+
+    /**
+     * This constructor is used by the projection queries of ISightingRepository, the bird is not read
+     */
+    public SightingDTO(Long id, String location, LocalDateTime dateTime, Double latitude, Double longitude) {
+        this.id = id;
+        this.location = location;
+        this.dateTime = dateTime;
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
 }
@@ -0,0 +1,23 @@
+package com.romeo.birdssighting.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * This class represents the progress of a CSV import of sightings, and its outcome once finished
+ */
+@Data
+public class SightingImportDTO {
+
+    private String id;
+    private LocalDateTime startedAt;
+    private boolean finished;
+    // Data rows read so far, the header is not counted
+    private long rowsRead;
+    private long imported;
+    private long rejected;
+    // The first rejected rows, at most SightingImportService.MAX_REPORTED_REJECTIONS of them
+    private List<SightingImportRejectionDTO> rejectedRows;
+}
@@ -0,0 +1,17 @@
+package com.romeo.birdssighting.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This class represents a row of a sightings CSV that was not imported, with its line and the reason
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SightingImportRejectionDTO {
+
+    private long line;
+    private String reason;
+}
@@ -0,0 +1,17 @@
+package com.romeo.birdssighting.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * This class represents one keyset page of sightings together with
+ * the opaque cursor that has to be sent back to get the next page
+ */
+@Data
+public class SightingPageDTO {
+
+    private List<SightingDTO> sightings;
+    // Null when there are no more sightings after this page
+    private String nextCursor;
+}
@@ -0,0 +1,24 @@
+package com.romeo.birdssighting.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * This class represents the number of sightings of one group,
+ * the fields that are not part of the grouping are left out
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SightingStatsDTO {
+
+    private Long birdId;
+    private String location;
+    private LocalDate day;
+    private long count;
+}
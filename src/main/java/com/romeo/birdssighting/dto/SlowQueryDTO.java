@@ -0,0 +1,17 @@
+package com.romeo.birdssighting.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * This class represents one statement that took longer than the slow-query threshold
+ */
+@Data
+public class SlowQueryDTO {
+
+    private String fingerprint;
+    private long timeMillis;
+    private LocalDateTime executedAt;
+    private String request;
+}
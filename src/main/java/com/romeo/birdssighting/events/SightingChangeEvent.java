@@ -0,0 +1,33 @@
+package com.romeo.birdssighting.events;
+
+import java.util.List;
+
+/**
+ * This class represents an event published when sightings are created, updated or deleted.
+ * An update is published as the removal of the old values and the addition of the new ones
+ */
+public record SightingChangeEvent(List<SightingSnapshot> removed, List<SightingSnapshot> added) {
+
+    public static SightingChangeEvent added(List<SightingSnapshot> added) {
+        return new SightingChangeEvent(List.of(), added);
+    }
+
+    public static SightingChangeEvent removed(SightingSnapshot removed) {
+        return new SightingChangeEvent(List.of(removed), List.of());
+    }
+
+    public static SightingChangeEvent removed(List<SightingSnapshot> removed) {
+        return new SightingChangeEvent(removed, List.of());
+    }
+
+    public static SightingChangeEvent updated(SightingSnapshot before, SightingSnapshot after) {
+        return new SightingChangeEvent(List.of(before), List.of(after));
+    }
+
+    /**
+     * This method is used to tell whether the event changes no sighting
+     */
+    public boolean isEmpty() {
+        return removed.isEmpty() && added.isEmpty();
+    }
+}
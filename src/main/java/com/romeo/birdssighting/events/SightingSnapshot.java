@@ -0,0 +1,38 @@
+package com.romeo.birdssighting.events;
+
+import com.romeo.birdssighting.domain.Sighting;
+import com.romeo.birdssighting.dto.SightingDTO;
+import com.romeo.birdssighting.repositories.SightingRemovalRow;
+
+import java.time.LocalDate;
+
+/**
+ * This class represents the values of a sighting at the time it was changed,
+ * listeners get these instead of the managed entity
+ */
+public record SightingSnapshot(Long birdId, String location, LocalDate day) {
+
+    /**
+     * This method is used to take a snapshot of a sighting
+     */
+    public static SightingSnapshot of(Sighting sighting) {
+        var birdId = sighting.getBird() == null ? null : sighting.getBird().getId();
+        var day = sighting.getDateTime() == null ? null : sighting.getDateTime().toLocalDate();
+        return new SightingSnapshot(birdId, sighting.getLocation(), day);
+    }
+
+    /**
+     * This method is used to take a snapshot of a sighting of a bird, read or sent as a DTO
+     */
+    public static SightingSnapshot of(Long birdId, SightingDTO sightingDTO) {
+        var day = sightingDTO.getDateTime() == null ? null : sightingDTO.getDateTime().toLocalDate();
+        return new SightingSnapshot(birdId, sightingDTO.getLocation(), day);
+    }
+
+    /**
+     * This method is used to take a snapshot of a sighting that is about to be deleted, read as a projection
+     */
+    public static SightingSnapshot of(SightingRemovalRow row) {
+        return new SightingSnapshot(row.getBirdId(), row.getLocation(), row.getSightingDate());
+    }
+}
@@ -0,0 +1,107 @@
+package com.romeo.birdssighting.filter;
+
+import com.romeo.birdssighting.services.ResourceVersions;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * This class represents a filter limiting the number of database-bound requests handled at the same time.
+ * With virtual threads Tomcat no longer bounds the concurrency, so without it every request
+ * beyond the connection pool size would queue inside Hikari until its connection timeout.
+ * Requests waiting longer than the acquire timeout are rejected with 503.
+ * Requests that do not need the database, or hold a connection for minutes, are not limited:
+ * the actuator, the in-memory location search, the export and the import,
+ * and the conditional GETs whose ETag is still current, answered with 304 from the in-process versions.
+ * A conditional GET with a stale ETag reads the database like any other request and is limited
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    // Served from memory, or streaming for minutes, these wait for a connection in the pool instead
+    private static final List<String> UNLIMITED_PATHS = List.of("/api/locations/autocomplete",
+            "/api/locations/search", "/api/sightings/export", "/api/import/");
+    // The resources with an ETag: /api/birds, /api/birds/{id} and /api/birds/{id}/sightings
+    private static final Pattern VERSIONED_PATH = Pattern.compile("/api/birds(?:/(\\d{1,18})(?:/sightings)?)?");
+
+    private final ResourceVersions resourceVersions;
+    private final Semaphore permits;
+    private final long acquireTimeoutNanos;
+
+    public ConcurrencyLimitFilter(ResourceVersions resourceVersions,
+                                  @Value("${birds.concurrency.max-database-requests}") int maxDatabaseRequests,
+                                  @Value("${birds.concurrency.acquire-timeout}") Duration acquireTimeout) {
+        this.resourceVersions = resourceVersions;
+        this.permits = new Semaphore(maxDatabaseRequests, true);
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        var uri = request.getRequestURI();
+        if (!uri.startsWith("/api/") || UNLIMITED_PATHS.stream().anyMatch(uri::startsWith)) {
+            return true;
+        }
+        return isNotModified(request);
+    }
+
+    // Whether the controller will answer 304, a write committing in between only lets this request through unlimited
+    private boolean isNotModified(HttpServletRequest request) {
+        if (!HttpMethod.GET.matches(request.getMethod()) || request.getHeader(HttpHeaders.IF_NONE_MATCH) == null) {
+            return false;
+        }
+        var matcher = VERSIONED_PATH.matcher(request.getRequestURI());
+        if (!matcher.matches()) {
+            return false;
+        }
+        var eTag = matcher.group(1) == null
+                ? resourceVersions.birdsETag()
+                : resourceVersions.birdETag(Long.valueOf(matcher.group(1)));
+        // The check the controllers run, without a response nothing is written yet
+        return new ServletWebRequest(request).checkNotModified(eTag);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!acquire()) {
+            log.warn("Rejecting {} {}, too many requests in flight", request.getMethod(), request.getRequestURI());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Too many requests in flight");
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private boolean acquire() {
+        try {
+            return permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.romeo.birdssighting.filter;
+
+import com.romeo.birdssighting.services.QueryDiagnostics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * This class represents a filter counting the Hibernate statements, query time, loads and fetches of every API request.
+ * The counters are published tagged with the URI pattern, like http.server.requests, so a request
+ * issuing one statement per row shows up as a growing birds.request.statements.
+ * Outside production the statement count is also returned in the X-Statement-Count header, and the requests
+ * of an endpoint with a @StatementBudget are checked against it.
+ * It is registered by HibernateStatisticsConfig, together with the statistics it reads
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class QueryStatisticsFilter extends OncePerRequestFilter {
+
+    public static final String STATEMENT_COUNT_HEADER = "X-Statement-Count";
+
+    private static final String UNKNOWN_URI = "UNKNOWN";
+
+    private final QueryDiagnostics queryDiagnostics;
+    // Whether the X-Statement-Count header is returned
+    private final boolean statementCountHeader;
+    // Whether a request over the budget of its endpoint fails instead of being logged
+    private final boolean enforceStatementBudget;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        queryDiagnostics.startRequest(request.getMethod() + " " + request.getRequestURI());
+        QueryDiagnostics.RequestStatistics statistics;
+        String uri;
+        try {
+            filterChain.doFilter(request, statementCountHeader ? new StatementCountResponse(response) : response);
+        } finally {
+            var pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            uri = pattern == null ? UNKNOWN_URI : pattern.toString();
+            statistics = queryDiagnostics.endRequest(uri);
+            if (statistics != null) {
+                log.debug("{}: {} statements, {} queries in {} ms, {} loads, {} fetches",
+                        statistics.getRequest(), statistics.getStatements(), statistics.getQueries(),
+                        statistics.getQueryTimeMillis(), statistics.getLoads(), statistics.getFetches());
+                // Responses without a body are only committed after the filters
+                if (statementCountHeader && !response.isCommitted()) {
+                    response.setHeader(STATEMENT_COUNT_HEADER, Long.toString(statistics.getStatements()));
+                }
+            }
+        }
+        checkStatementBudget(request, uri, statistics);
+    }
+
+    private void checkStatementBudget(HttpServletRequest request, String uri,
+                                      QueryDiagnostics.RequestStatistics statistics) {
+        if (statistics == null
+                || !(request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod handler)
+                || !handler.hasMethodAnnotation(StatementBudget.class)) {
+            return;
+        }
+        var budget = handler.getMethodAnnotation(StatementBudget.class).value();
+        if (statistics.getStatements() <= budget) {
+            return;
+        }
+        queryDiagnostics.statementBudgetExceeded(uri);
+        var message = statistics.getRequest() + " issued " + statistics.getStatements()
+                + " statements, its budget is " + budget;
+        if (enforceStatementBudget) {
+            throw new IllegalStateException(message);
+        }
+        log.warn(message);
+    }
+
+    // Sets the header when the body starts, once the response is committed headers are ignored
+    private final class StatementCountResponse extends HttpServletResponseWrapper {
+
+        StatementCountResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            setStatementCount();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            setStatementCount();
+            return super.getWriter();
+        }
+
+        private void setStatementCount() {
+            var statistics = queryDiagnostics.getCurrentRequest();
+            if (statistics != null && !isCommitted()) {
+                setHeader(STATEMENT_COUNT_HEADER, Long.toString(statistics.getStatements()));
+            }
+        }
+    }
+}
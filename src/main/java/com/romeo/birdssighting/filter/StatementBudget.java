@@ -0,0 +1,23 @@
+package com.romeo.birdssighting.filter;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * This annotation declares the largest number of JDBC statements a request of an endpoint may issue.
+ * QueryStatisticsFilter checks it once the request is handled: a request over budget is logged and counted
+ * in birds.request.budget.exceeded, and fails when birds.diagnostics.enforce-statement-budget is on, as in the tests
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface StatementBudget {
+
+    /**
+     * This method is used to returns the statement budget of a request, with cold caches
+     */
+    int value();
+}
@@ -1,21 +1,37 @@
 package com.romeo.birdssighting.mapper;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+
 import java.util.Collection;
 import java.util.stream.Collectors;
 
 /**
  *  This class provides a flexible and reusable foundation for mapping
- *  between entity objects and DTO
+ *  between entity objects and DTO.
+ *  Every conversion is counted in the mapper.conversions metric, tagged by mapper and direction
  *
  */
 
 public abstract class BaseMapper<E, D> {
 
+    private static final String CONVERSIONS_METRIC = "mapper.conversions";
+
+    // Registered on the global registry, Spring Boot adds its registries to it
+    private final Counter toEntityConversions = conversionCounter("to_entity");
+    private final Counter toDTOConversions = conversionCounter("to_dto");
+
     // Method to convert a DTO (Data Transfer Object) to an entity
-    public abstract E convertToEntity(D dto, Object... args);
+    public E convertToEntity(D dto, Object... args) {
+        toEntityConversions.increment();
+        return toEntity(dto, args);
+    }
 
     // Method to convert an entity to a DTO (Data Transfer Object)
-    public abstract D convertToDTO(E entity, Object... args);
+    public D convertToDTO(E entity, Object... args) {
+        toDTOConversions.increment();
+        return toDTO(entity, args);
+    }
 
     // Method to convert a collection of DTOs to a collection of entities
     public Collection<E> convertToEntity(Collection<D> dto, Object... args) {
@@ -28,4 +44,18 @@ public abstract class BaseMapper<E, D> {
         // Utilizes Java Streams to map each entity to its corresponding DTO
         return entity.stream().map(e -> convertToDTO(e, args)).collect(Collectors.toList());
     }
+
+    // Conversion of a DTO to an entity, implemented by each mapper
+    protected abstract E toEntity(D dto, Object... args);
+
+    // Conversion of an entity to a DTO, implemented by each mapper
+    protected abstract D toDTO(E entity, Object... args);
+
+    private Counter conversionCounter(String direction) {
+        return Counter.builder(CONVERSIONS_METRIC)
+                .description("Number of objects converted by the mapper")
+                .tag("mapper", getClass().getSimpleName())
+                .tag("direction", direction)
+                .register(Metrics.globalRegistry);
+    }
 }
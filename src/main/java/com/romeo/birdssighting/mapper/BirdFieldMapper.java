@@ -0,0 +1,29 @@
+package com.romeo.birdssighting.mapper;
+
+import com.romeo.birdssighting.domain.Bird;
+import com.romeo.birdssighting.dto.BirdDTO;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+import org.mapstruct.ReportingPolicy;
+import org.mapstruct.factory.Mappers;
+
+/**
+ *  This interface declares the field-by-field copy between Bird and BirdDTO.
+ *  The implementation is generated at build time by MapStruct, so no reflection is used at runtime
+ */
+@Mapper(unmappedTargetPolicy = ReportingPolicy.ERROR)
+interface BirdFieldMapper {
+
+    BirdFieldMapper INSTANCE = Mappers.getMapper(BirdFieldMapper.class);
+
+    // The sightings are converted by BirdMapper through SightingMapper
+    @Mapping(target = "sightings", ignore = true)
+    void copy(Bird source, @MappingTarget BirdDTO target);
+
+    @Mapping(target = "sightings", ignore = true)
+    void copy(BirdDTO source, @MappingTarget Bird target);
+
+    @Mapping(target = "sightings", ignore = true)
+    void copy(BirdDTO source, @MappingTarget BirdDTO target);
+}
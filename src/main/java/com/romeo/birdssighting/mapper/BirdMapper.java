@@ -5,9 +5,9 @@ import com.romeo.birdssighting.domain.Sighting;
 import com.romeo.birdssighting.dto.BirdDTO;
 import com.romeo.birdssighting.dto.SightingDTO;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.BeanUtils;
 import org.springframework.stereotype.Component;
 
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -19,15 +19,18 @@ import java.util.List;
 @RequiredArgsConstructor
 public class BirdMapper extends BaseMapper<Bird, BirdDTO>{
 
+    // Conversion argument of convertToDTO, the sightings of the bird are neither read nor converted
+    public static final Object WITHOUT_SIGHTINGS = new Object();
+
     private final SightingMapper sightingMapper;
 
     // Method to convert a BirdDTO to a Bird entity
     @Override
-    public Bird convertToEntity(BirdDTO dto, Object... args) {
+    protected Bird toEntity(BirdDTO dto, Object... args) {
         var bird = new Bird();
-        // Copies properties from DTO to entity using Spring's BeanUtils
+        // Copies properties from DTO to entity using the generated field mapper
         if (dto != null) {
-            BeanUtils.copyProperties(dto, bird);
+            BirdFieldMapper.INSTANCE.copy(dto, bird);
         }
         // Convert and set sightings if available
         if (dto != null && dto.getSightings() != null) {
@@ -39,18 +42,26 @@ public class BirdMapper extends BaseMapper<Bird, BirdDTO>{
     }
     // Method to convert a Bird entity to a BirdDTO
     @Override
-    public BirdDTO convertToDTO(Bird entity, Object... args) {
+    protected BirdDTO toDTO(Bird entity, Object... args) {
         var birdDTO = new BirdDTO();
-        // Copies properties from entity to DTO using Spring's BeanUtils
+        // Copies properties from entity to DTO using the generated field mapper
         if (entity != null) {
-            BeanUtils.copyProperties(entity, birdDTO);
+            BirdFieldMapper.INSTANCE.copy(entity, birdDTO);
         }
 
-        if (entity != null && entity.getSightings() != null) {
+        if (entity != null && entity.getSightings() != null && !Arrays.asList(args).contains(WITHOUT_SIGHTINGS)) {
             var sightings = (List<SightingDTO>) sightingMapper.convertToDTO(entity.getSightings());
             birdDTO.setSightings(sightings);
         }
 
         return birdDTO;
     }
+
+    // Method to copy the fields of a BirdDTO together with the given sightings, cached BirdDTOs are shared and never changed
+    public BirdDTO withSightings(BirdDTO source, List<SightingDTO> sightings) {
+        var birdDTO = new BirdDTO();
+        BirdFieldMapper.INSTANCE.copy(source, birdDTO);
+        birdDTO.setSightings(sightings);
+        return birdDTO;
+    }
 }
@@ -0,0 +1,28 @@
+package com.romeo.birdssighting.mapper;
+
+import com.romeo.birdssighting.domain.Sighting;
+import com.romeo.birdssighting.dto.SightingDTO;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+import org.mapstruct.ReportingPolicy;
+import org.mapstruct.factory.Mappers;
+
+/**
+ *  This interface declares the field-by-field copy between Sighting and SightingDTO.
+ *  The implementation is generated at build time by MapStruct, so no reflection is used at runtime
+ */
+@Mapper(unmappedTargetPolicy = ReportingPolicy.ERROR)
+interface SightingFieldMapper {
+
+    SightingFieldMapper INSTANCE = Mappers.getMapper(SightingFieldMapper.class);
+
+    // The bird is converted by the caller when it is needed
+    @Mapping(target = "bird", ignore = true)
+    void copy(Sighting source, @MappingTarget SightingDTO target);
+
+    // The grid cell is derived by the entity when it is saved
+    @Mapping(target = "bird", ignore = true)
+    @Mapping(target = "gridCell", ignore = true)
+    void copy(SightingDTO source, @MappingTarget Sighting target);
+}
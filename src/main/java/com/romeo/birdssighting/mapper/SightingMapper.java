@@ -2,7 +2,6 @@ package com.romeo.birdssighting.mapper;
 
 import com.romeo.birdssighting.domain.Sighting;
 import com.romeo.birdssighting.dto.SightingDTO;
-import org.springframework.beans.BeanUtils;
 import org.springframework.stereotype.Component;
 
 
@@ -10,21 +9,21 @@ import org.springframework.stereotype.Component;
 public class SightingMapper extends BaseMapper<Sighting, SightingDTO> {
 
     @Override
-    public Sighting convertToEntity(SightingDTO dto, Object... args) {
+    protected Sighting toEntity(SightingDTO dto, Object... args) {
         var sighting = new Sighting();
 
         if (dto != null) {
-            BeanUtils.copyProperties(dto, sighting);
+            SightingFieldMapper.INSTANCE.copy(dto, sighting);
         }
         return sighting;
     }
 
     @Override
-    public SightingDTO convertToDTO(Sighting entity, Object... args) {
+    protected SightingDTO toDTO(Sighting entity, Object... args) {
         var sightingDTO = new SightingDTO();
 
         if (entity != null) {
-            BeanUtils.copyProperties(entity, sightingDTO);
+            SightingFieldMapper.INSTANCE.copy(entity, sightingDTO);
         }
 
         return sightingDTO;
@@ -1,7 +1,18 @@
 package com.romeo.birdssighting.repositories;
 
 import com.romeo.birdssighting.domain.Bird;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Interface for managing persistence operations related to the Bird entity
@@ -10,12 +21,41 @@ import org.springframework.data.jpa.repository.JpaRepository;
 public interface IBirdRepository extends JpaRepository<Bird, Long> {
 
     /**
-     * This method is used to find bird by name
+     * This method is used to find bird by name, the result is kept in the query cache
      */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     Bird findByName(String name);
 
     /**
-     * This method is used to find bird by color
+     * This method is used to find bird by color, the result is kept in the query cache
      */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     Bird findByColor(String color);
+
+    /**
+     * This method is used to find all birds together with their sightings in a single query
+     */
+    @EntityGraph(Bird.WITH_SIGHTINGS)
+    @Query("SELECT b FROM Bird b")
+    List<Bird> findAllWithSightings();
+
+    /**
+     * This method is used to return which of the given bird ids exist, without loading the birds
+     */
+    @Query("SELECT b.id FROM Bird b WHERE b.id IN :ids")
+    Set<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * This method is used to find the ids of the birds with a name, without loading the birds
+     */
+    @Query("SELECT b.id FROM Bird b WHERE b.name = :name")
+    List<Long> findIdsByName(@Param("name") String name);
+
+    /**
+     * This method is used to delete a bird with one statement, without loading it or its sightings.
+     * Returns the number of deleted birds, 0 when the bird does not exist
+     */
+    @Modifying
+    @Query("DELETE FROM Bird b WHERE b.id = :id")
+    int deleteBirdById(@Param("id") Long id);
 }
@@ -1,13 +1,22 @@
 package com.romeo.birdssighting.repositories;
 
-import com.romeo.birdssighting.domain.Bird;
 import com.romeo.birdssighting.domain.Sighting;
+import com.romeo.birdssighting.dto.SightingDTO;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Interface for managing persistence operations related to the Sighting entity
@@ -19,6 +28,13 @@ public interface ISightingRepository extends JpaRepository<Sighting, Long> {
      */
     List<Sighting> findByBirdId(Long birdId);
 
+    /**
+     * This method is used to find a sighting together with its bird in a single query
+     */
+    @EntityGraph(Sighting.WITH_BIRD)
+    @Query("SELECT s FROM Sighting s WHERE s.id = :id")
+    Optional<Sighting> findWithBirdById(@Param("id") Long id);
+
     /**
      * This method is used to find Sighting by location
      */
@@ -29,14 +45,200 @@ public interface ISightingRepository extends JpaRepository<Sighting, Long> {
      * This method is used to find all Sightings by dateTime
      */
     List<Sighting> findByDateTime(LocalDateTime dateTime);
+
+    /**
+     * This method is used to read the sightings of a bird straight into DTOs, no entity is loaded
+     */
+    @Query("SELECT new com.romeo.birdssighting.dto.SightingDTO(s.id, s.location, s.dateTime, s.latitude, s.longitude) "
+            + "FROM Sighting s WHERE s.bird.id = :birdId")
+    List<SightingDTO> findSightingDTOsByBirdId(@Param("birdId") Long birdId);
+
+    /**
+     * This method is used to read the sightings of a location straight into DTOs, no entity is loaded
+     */
+    @Query("SELECT new com.romeo.birdssighting.dto.SightingDTO(s.id, s.location, s.dateTime, s.latitude, s.longitude) "
+            + "FROM Sighting s WHERE s.location = :location")
+    List<SightingDTO> findSightingDTOsByLocation(@Param("location") String location);
+
+    /**
+     * This method is used to read the sightings of a date time straight into DTOs, no entity is loaded
+     */
+    @Query("SELECT new com.romeo.birdssighting.dto.SightingDTO(s.id, s.location, s.dateTime, s.latitude, s.longitude) "
+            + "FROM Sighting s WHERE s.dateTime = :dateTime")
+    List<SightingDTO> findSightingDTOsByDateTime(@Param("dateTime") LocalDateTime dateTime);
     /**
      * This method is used to delete a sighting
      */
     void deleteById(Long id);
 
     /**
-     * This method is used to return a sighting by bird
+     * This method is used to read the bird, location and day of a sighting that is about to be deleted,
+     * no entity is loaded
+     */
+    @Query("SELECT s.id AS id, s.bird.id AS birdId, s.location AS location, "
+            + "cast(s.dateTime AS LocalDate) AS sightingDate FROM Sighting s WHERE s.id = :id")
+    Optional<SightingRemovalRow> findRemovalRowById(@Param("id") Long id);
+
+    /**
+     * This method is used to delete a sighting with one statement, without loading it.
+     * Returns the number of deleted sightings, 0 when the sighting does not exist
+     */
+    @Modifying
+    @Query("DELETE FROM Sighting s WHERE s.id = :id")
+    int deleteSightingById(@Param("id") Long id);
+
+    /**
+     * This method is used to read the first sightings of a bird in id order, with only the columns
+     * their removal events need. Backed by the (bird_id, id) index, so a chunk reads only its own rows
+     */
+    @Query("SELECT s.id AS id, s.bird.id AS birdId, s.location AS location, "
+            + "cast(s.dateTime AS LocalDate) AS sightingDate FROM Sighting s WHERE s.bird.id = :birdId ORDER BY s.id")
+    List<SightingRemovalRow> findRemovalRowsByBirdId(@Param("birdId") Long birdId, Pageable pageable);
+
+    /**
+     * This method is used to delete the sightings of a bird up to lastId with one statement, without loading them.
+     * Returns the number of deleted sightings
+     */
+    @Modifying
+    @Query("DELETE FROM Sighting s WHERE s.bird.id = :birdId AND s.id <= :lastId")
+    int deleteByBirdIdUpTo(@Param("birdId") Long birdId, @Param("lastId") Long lastId);
+
+    /**
+     * This method is used to return the sightings that follow afterId in primary key order.
+     * The id predicate is resolved on the primary key index, so every page costs the same
+     */
+    @Query("SELECT s FROM Sighting s JOIN FETCH s.bird WHERE s.id > :afterId ORDER BY s.id")
+    List<Sighting> findPageAfterId(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * This method is used to return the sightings of one bird that follow afterId, ordered by id.
+     * The location filter is skipped when it is null. Backed by the (bird_id, id) index
+     */
+    @Query("SELECT s FROM Sighting s JOIN FETCH s.bird "
+            + "WHERE s.bird.id = :birdId AND s.id > :afterId "
+            + "AND (:location IS NULL OR s.location = :location) "
+            + "ORDER BY s.id")
+    List<Sighting> findPageAfterIdByBirdId(@Param("birdId") Long birdId,
+                                           @Param("afterId") Long afterId,
+                                           @Param("location") String location,
+                                           Pageable pageable);
+
+    /**
+     * This method is used to return the sightings of one location that follow afterId, ordered by id.
+     * Backed by the (location, id) index
+     */
+    @Query("SELECT s FROM Sighting s JOIN FETCH s.bird "
+            + "WHERE s.location = :location AND s.id > :afterId ORDER BY s.id")
+    List<Sighting> findPageAfterIdByLocation(@Param("location") String location,
+                                             @Param("afterId") Long afterId,
+                                             Pageable pageable);
+
+    /**
+     * This method is used to return the sightings of a time range that follow the
+     * (afterDateTime, afterId) position, ordered by dateTime and id.
+     * The location filter is skipped when it is null. Backed by the date_time index
+     */
+    @Query("SELECT s FROM Sighting s JOIN FETCH s.bird "
+            + "WHERE s.dateTime >= :from AND s.dateTime < :to "
+            + "AND (s.dateTime > :afterDateTime OR (s.dateTime = :afterDateTime AND s.id > :afterId)) "
+            + "AND (:location IS NULL OR s.location = :location) "
+            + "ORDER BY s.dateTime, s.id")
+    List<Sighting> findPageInRange(@Param("from") LocalDateTime from,
+                                   @Param("to") LocalDateTime to,
+                                   @Param("afterDateTime") LocalDateTime afterDateTime,
+                                   @Param("afterId") Long afterId,
+                                   @Param("location") String location,
+                                   Pageable pageable);
+
+    /**
+     * This method is used to return the sightings of one bird in a time range that follow the
+     * (afterDateTime, afterId) position, ordered by dateTime and id.
+     * The location filter is skipped when it is null. Backed by the (bird_id, date_time) index
+     */
+    @Query("SELECT s FROM Sighting s JOIN FETCH s.bird "
+            + "WHERE s.bird.id = :birdId AND s.dateTime >= :from AND s.dateTime < :to "
+            + "AND (s.dateTime > :afterDateTime OR (s.dateTime = :afterDateTime AND s.id > :afterId)) "
+            + "AND (:location IS NULL OR s.location = :location) "
+            + "ORDER BY s.dateTime, s.id")
+    List<Sighting> findPageInRangeByBirdId(@Param("birdId") Long birdId,
+                                           @Param("from") LocalDateTime from,
+                                           @Param("to") LocalDateTime to,
+                                           @Param("afterDateTime") LocalDateTime afterDateTime,
+                                           @Param("afterId") Long afterId,
+                                           @Param("location") String location,
+                                           Pageable pageable);
+
+    /**
+     * This method is used to return the sightings inside a box that follow afterId, ordered by id.
+     * The cells are the GeoGrid cells covering the box, they let the grid_cell index skip the other sightings
+     */
+    @Query("SELECT s FROM Sighting s JOIN FETCH s.bird "
+            + "WHERE s.gridCell IN :cells "
+            + "AND s.latitude BETWEEN :minLatitude AND :maxLatitude "
+            + "AND s.longitude BETWEEN :minLongitude AND :maxLongitude "
+            + "AND s.id > :afterId ORDER BY s.id")
+    List<Sighting> findPageInBox(@Param("cells") Collection<Long> cells,
+                                 @Param("minLatitude") double minLatitude,
+                                 @Param("minLongitude") double minLongitude,
+                                 @Param("maxLatitude") double maxLatitude,
+                                 @Param("maxLongitude") double maxLongitude,
+                                 @Param("afterId") Long afterId,
+                                 Pageable pageable);
+
+    /**
+     * This method is used to return the sightings near a point that follow afterId, ordered by id.
+     * The point is given as its unit vector (x, y, z), a sighting is kept when the dot product of its
+     * unit vector with the point is at least minDot, the cosine of the search radius seen from the earth center.
+     * The cells are the GeoGrid cells covering the circle
+     */
+    @Query("SELECT s FROM Sighting s JOIN FETCH s.bird "
+            + "WHERE s.gridCell IN :cells "
+            + "AND cos(radians(s.latitude)) * cos(radians(s.longitude)) * :x "
+            + "+ cos(radians(s.latitude)) * sin(radians(s.longitude)) * :y "
+            + "+ sin(radians(s.latitude)) * :z >= :minDot "
+            + "AND s.id > :afterId ORDER BY s.id")
+    List<Sighting> findPageNear(@Param("cells") Collection<Long> cells,
+                                @Param("x") double x,
+                                @Param("y") double y,
+                                @Param("z") double z,
+                                @Param("minDot") double minDot,
+                                @Param("afterId") Long afterId,
+                                Pageable pageable);
+
+    /**
+     * This method is used to count the sightings of every distinct location
+     */
+    @Query("SELECT s.location AS location, count(s) AS sightingCount "
+            + "FROM Sighting s WHERE s.location IS NOT NULL GROUP BY s.location")
+    List<LocationCountRow> countPerLocation();
+
+    /**
+     * This method is used to return the ids of the sightings at a location that follow afterId, ordered by id.
+     * It is an equality match served by the (location, id) index
+     */
+    @Query("SELECT s.id FROM Sighting s WHERE s.location = :location AND s.id > :afterId ORDER BY s.id")
+    List<Long> findIdsByLocation(@Param("location") String location,
+                                 @Param("afterId") Long afterId,
+                                 Pageable pageable);
+
+    /**
+     * This method is used to count the sightings per bird, location and day
+     */
+    @Query("SELECT s.bird.id AS birdId, s.location AS location, "
+            + "cast(s.dateTime AS LocalDate) AS sightingDate, count(s) AS sightingCount "
+            + "FROM Sighting s WHERE s.dateTime IS NOT NULL "
+            + "GROUP BY s.bird.id, s.location, cast(s.dateTime AS LocalDate)")
+    List<SightingRollupRow> countPerBirdLocationAndDay();
+
+    /**
+     * This method is used to stream all sightings with their bird in primary key order.
+     * The rows are read forward-only from a cursor, 500 at a time, and the stream
+     * has to be consumed inside a transaction and closed
      */
-    @Query("SELECT s FROM Sighting s JOIN FETCH s.bird WHERE s.bird = :bird")
-    List<Sighting> findByBird(@Param("bird") Bird bird);
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT s FROM Sighting s JOIN FETCH s.bird ORDER BY s.id")
+    Stream<Sighting> streamAllWithBird();
 }
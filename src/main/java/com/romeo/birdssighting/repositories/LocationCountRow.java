@@ -0,0 +1,11 @@
+package com.romeo.birdssighting.repositories;
+
+/**
+ * This interface represents the number of sightings of one location
+ */
+public interface LocationCountRow {
+
+    String getLocation();
+
+    long getSightingCount();
+}
@@ -0,0 +1,17 @@
+package com.romeo.birdssighting.repositories;
+
+import java.time.LocalDate;
+
+/**
+ * This interface represents the id, bird, location and day of a sighting that is about to be deleted
+ */
+public interface SightingRemovalRow {
+
+    Long getId();
+
+    Long getBirdId();
+
+    String getLocation();
+
+    LocalDate getSightingDate();
+}
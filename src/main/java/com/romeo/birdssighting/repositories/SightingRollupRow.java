@@ -0,0 +1,17 @@
+package com.romeo.birdssighting.repositories;
+
+import java.time.LocalDate;
+
+/**
+ * This interface represents the number of sightings of one bird at one location on one day
+ */
+public interface SightingRollupRow {
+
+    Long getBirdId();
+
+    String getLocation();
+
+    LocalDate getSightingDate();
+
+    long getSightingCount();
+}
@@ -0,0 +1,51 @@
+package com.romeo.birdssighting.services;
+
+import com.romeo.birdssighting.config.CacheConfig;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * This class represents a component responsible for removing the cached birds of BirdLookup.
+ * The caches hold the fields of the birds only, so the bird writes of BirdService are the only ones evicting them
+ */
+@Component
+@RequiredArgsConstructor
+public class BirdCacheEvictor {
+
+    private static final List<String> BIRD_CACHES =
+            List.of(CacheConfig.BIRDS_BY_ID, CacheConfig.BIRDS_BY_NAME, CacheConfig.BIRDS_BY_COLOR);
+
+    private final CacheManager cacheManager;
+
+    /**
+     * This method is used to evict all cached birds once the transaction committed.
+     * Bird writes are rare, and a renamed bird is cached under its old name and color as well
+     */
+    public void evictAll() {
+        afterCommit(() -> BIRD_CACHES.stream()
+                .map(cacheManager::getCache)
+                .filter(Objects::nonNull)
+                .forEach(Cache::clear));
+    }
+
+    // Evicting before the commit would let a concurrent read cache the old state again
+    private void afterCommit(Runnable eviction) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eviction.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eviction.run();
+            }
+        });
+    }
+}
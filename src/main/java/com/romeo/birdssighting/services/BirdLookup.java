@@ -0,0 +1,60 @@
+package com.romeo.birdssighting.services;
+
+import com.romeo.birdssighting.config.CacheConfig;
+import com.romeo.birdssighting.dto.BirdDTO;
+import com.romeo.birdssighting.exception.ResourceNotFoundException;
+import com.romeo.birdssighting.mapper.BirdMapper;
+import com.romeo.birdssighting.repositories.IBirdRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+
+/**
+ * This class represents a component responsible for the cached bird lookups of BirdService.
+ * Only the fields of a bird are cached, its sightings are read on every request,
+ * so a sighting write leaves the caches alone and a bird write is the only reason to evict them
+ */
+@Component
+@RequiredArgsConstructor
+public class BirdLookup {
+
+    private final IBirdRepository iBirdRepository;
+    private final BirdMapper birdMapper;
+
+    /**
+     * This method is used to returns the fields of a bird by id
+     */
+    @Cacheable(CacheConfig.BIRDS_BY_ID)
+    public BirdDTO findById(Long id) {
+        var bird = iBirdRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Bird not exist with id :" + id));
+
+        return birdMapper.convertToDTO(bird, BirdMapper.WITHOUT_SIGHTINGS);
+    }
+
+    /**
+     * This method is used to returns the fields of a bird by name
+     */
+    @Cacheable(CacheConfig.BIRDS_BY_NAME)
+    public BirdDTO findByName(String name) {
+        var bird = iBirdRepository.findByName(name);
+        if (bird == null) {
+            throw new ResourceNotFoundException("Bird not found with name: " + name);
+        }
+
+        return birdMapper.convertToDTO(bird, BirdMapper.WITHOUT_SIGHTINGS);
+    }
+
+    /**
+     * This method is used to returns the fields of a bird by color
+     */
+    @Cacheable(CacheConfig.BIRDS_BY_COLOR)
+    public BirdDTO findByColor(String color) {
+        var bird = iBirdRepository.findByColor(color);
+        if (bird == null) {
+            throw new ResourceNotFoundException("Bird not found with color: " + color);
+        }
+
+        return birdMapper.convertToDTO(bird, BirdMapper.WITHOUT_SIGHTINGS);
+    }
+}
@@ -1,22 +1,35 @@
 package com.romeo.birdssighting.services;
 
 
+import com.romeo.birdssighting.config.MetricsConfig;
 import com.romeo.birdssighting.domain.Bird;
 import com.romeo.birdssighting.domain.Sighting;
 import com.romeo.birdssighting.dto.BirdDTO;
+import com.romeo.birdssighting.dto.BirdPatchDTO;
 import com.romeo.birdssighting.dto.SightingDTO;
+import com.romeo.birdssighting.events.SightingChangeEvent;
+import com.romeo.birdssighting.events.SightingSnapshot;
+import com.romeo.birdssighting.exception.BadRequestException;
 import com.romeo.birdssighting.exception.ResourceNotFoundException;
 import com.romeo.birdssighting.mapper.BirdMapper;
 import com.romeo.birdssighting.mapper.SightingMapper;
 import com.romeo.birdssighting.repositories.IBirdRepository;
 import com.romeo.birdssighting.repositories.ISightingRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 
 
 /**
@@ -25,11 +38,15 @@ import java.util.List;
  * for managing business logic related to birds
  */
 
+@Timed(value = MetricsConfig.SERVICE_METRIC, histogram = true)
 @Transactional
 @Service
 @RequiredArgsConstructor
 public class BirdService {
 
+    // Sightings deleted per statement, and per transaction when a bird is deleted
+    static final int DELETE_CHUNK_SIZE = 10_000;
+
     // Dependency on IBirdRepository for database operations
     private final IBirdRepository iBirdRepository;
     // Dependency on BirdMapper for entity-DTO mapping
@@ -37,13 +54,27 @@ public class BirdService {
 
     private final ISightingRepository iSightingRepository;
     private final SightingMapper sightingMapper;
+    // Publishes the changed sightings to the location index and the rollups
+    private final ApplicationEventPublisher eventPublisher;
+    // Versions behind the ETags of the birds and of their sightings
+    private final ResourceVersions resourceVersions;
+    // Commits the sightings of a deleted bird chunk by chunk
+    private final TransactionTemplate transactionTemplate;
+    // Cached fields of the birds, read by id, name and color
+    private final BirdLookup birdLookup;
+    // Drops the cached birds once a bird write committed
+    private final BirdCacheEvictor birdCacheEvictor;
 
     /**
-     * This method is used for save a bird
+     * This method is used for save a bird.
+     * Bird writes are rare, so they simply drop every cached bird
      */
     public BirdDTO saveBird(BirdDTO birdDTO) {
         // Convert BirdDTO to Bird entity
         var bird = birdMapper.convertToEntity(birdDTO);
+        // Nothing cascades from a sighting to its bird, so the bird is saved first, without sightings
+        bird.setSightings(new ArrayList<>());
+        bird = iBirdRepository.save(bird);
 
         // Convert and save Sightings
         var sightingDTOS = birdDTO.getSightings();
@@ -56,15 +87,20 @@ public class BirdService {
             });
             iSightingRepository.saveAll(sightings);
             // Update the bird with the saved sightings
-            bird.setSightings(sightings);
-            bird = iBirdRepository.save(bird);
+            bird.getSightings().addAll(sightings);
+            eventPublisher.publishEvent(SightingChangeEvent.added(sightings.stream().map(SightingSnapshot::of).toList()));
         }
+        birdCacheEvictor.evictAll();
+        resourceVersions.birdChanged(bird.getId());
 
         return birdMapper.convertToDTO(bird);
     }
 
     /**
      * This method is used for update a bird.
+     * The sightings sent are compared with the stored ones by id: a sighting without id is inserted, a changed one
+     * updated and a stored one missing from the list deleted, unchanged sightings are not written.
+     * When no sightings are sent the sightings of the bird are left as they are
      */
     public BirdDTO updateBird(Long id, BirdDTO birdDTO) {
         var bird = iBirdRepository.findById(id)
@@ -74,70 +110,187 @@ public class BirdService {
         bird.setColor(birdDTO.getColor());
         bird.setHeight(birdDTO.getHeight());
         bird.setWeight(birdDTO.getWeight());
-        List<Sighting> sightings = (List<Sighting>) sightingMapper.convertToEntity(birdDTO.getSightings());
-        sightings.forEach(sighting -> {
-            // Set the associated bird for each sighting
-            sighting.setBird(bird);
-        });
-        iSightingRepository.saveAll(sightings);
-        bird.setSightings(sightings);
+        if (birdDTO.getSightings() != null) {
+            var changes = reconcileSightings(bird, birdDTO.getSightings());
+            if (!changes.isEmpty()) {
+                // The changes are written before the sightings of the bird are read for the response
+                iSightingRepository.flush();
+                eventPublisher.publishEvent(changes);
+            }
+        }
         iBirdRepository.save(bird);
+        birdCacheEvictor.evictAll();
+        resourceVersions.birdChanged(id);
 
         return birdMapper.convertToDTO(bird);
     }
 
+    /**
+     * This method is used for update some fields of a bird, the fields left null and the sightings are not changed.
+     * The sightings are not read either, the returned bird has none
+     */
+    public BirdDTO patchBird(Long id, BirdPatchDTO birdPatchDTO) {
+        var bird = iBirdRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Bird not exist with id :" + id));
+
+        if (birdPatchDTO.getName() != null) {
+            bird.setName(birdPatchDTO.getName());
+        }
+        if (birdPatchDTO.getColor() != null) {
+            bird.setColor(birdPatchDTO.getColor());
+        }
+        if (birdPatchDTO.getHeight() != null) {
+            bird.setHeight(birdPatchDTO.getHeight());
+        }
+        if (birdPatchDTO.getWeight() != null) {
+            bird.setWeight(birdPatchDTO.getWeight());
+        }
+        iBirdRepository.save(bird);
+        birdCacheEvictor.evictAll();
+        resourceVersions.birdChanged(id);
+
+        return birdMapper.convertToDTO(bird, BirdMapper.WITHOUT_SIGHTINGS);
+    }
+
+    // Writes only the differences between the stored sightings of the bird and the ones sent,
+    // the stored ones are read as DTOs and only the changed ones loaded as entities. Returns the differences
+    private SightingChangeEvent reconcileSightings(Bird bird, List<SightingDTO> sightingDTOs) {
+        var stored = new HashMap<Long, SightingDTO>();
+        iSightingRepository.findSightingDTOsByBirdId(bird.getId())
+                .forEach(sightingDTO -> stored.put(sightingDTO.getId(), sightingDTO));
+        var kept = new HashSet<Long>();
+        var changed = new HashMap<Long, SightingDTO>();
+        var added = new ArrayList<Sighting>();
+        for (var sightingDTO : sightingDTOs) {
+            SightingService.validateCoordinates(sightingDTO);
+            if (sightingDTO.getId() == null) {
+                var sighting = sightingMapper.convertToEntity(sightingDTO);
+                sighting.setBird(bird);
+                added.add(sighting);
+                continue;
+            }
+            var storedDTO = stored.get(sightingDTO.getId());
+            if (storedDTO == null || !kept.add(sightingDTO.getId())) {
+                throw new BadRequestException("Sighting " + sightingDTO.getId()
+                        + " is not a sighting of bird " + bird.getId() + " or is sent twice");
+            }
+            if (!sameValues(storedDTO, sightingDTO)) {
+                changed.put(sightingDTO.getId(), sightingDTO);
+            }
+        }
+        var removed = stored.keySet().stream().filter(sightingId -> !kept.contains(sightingId)).toList();
+
+        for (int from = 0; from < removed.size(); from += DELETE_CHUNK_SIZE) {
+            iSightingRepository.deleteAllByIdInBatch(
+                    removed.subList(from, Math.min(from + DELETE_CHUNK_SIZE, removed.size())));
+        }
+        if (!changed.isEmpty()) {
+            // Managed entities, Hibernate writes the changed columns on flush
+            iSightingRepository.findAllById(changed.keySet()).forEach(sighting -> {
+                var sightingDTO = changed.get(sighting.getId());
+                sighting.setLocation(sightingDTO.getLocation());
+                sighting.setDateTime(sightingDTO.getDateTime());
+                sighting.setLatitude(sightingDTO.getLatitude());
+                sighting.setLongitude(sightingDTO.getLongitude());
+            });
+        }
+        iSightingRepository.saveAll(added);
+
+        // A changed sighting is removed with its stored values and added with the new ones
+        var removedSnapshots = new ArrayList<SightingSnapshot>();
+        var addedSnapshots = new ArrayList<SightingSnapshot>();
+        removed.forEach(sightingId -> removedSnapshots.add(SightingSnapshot.of(bird.getId(), stored.get(sightingId))));
+        changed.forEach((sightingId, sightingDTO) -> {
+            removedSnapshots.add(SightingSnapshot.of(bird.getId(), stored.get(sightingId)));
+            addedSnapshots.add(SightingSnapshot.of(bird.getId(), sightingDTO));
+        });
+        added.forEach(sighting -> addedSnapshots.add(SightingSnapshot.of(sighting)));
+        return new SightingChangeEvent(removedSnapshots, addedSnapshots);
+    }
+
+    private static boolean sameValues(SightingDTO stored, SightingDTO sent) {
+        return Objects.equals(stored.getLocation(), sent.getLocation())
+                && Objects.equals(stored.getDateTime(), sent.getDateTime())
+                && Objects.equals(stored.getLatitude(), sent.getLatitude())
+                && Objects.equals(stored.getLongitude(), sent.getLongitude());
+    }
+
     /**
      * This method is used for returns all birds.
      */
     public List<BirdDTO> getAllBirds() {
-        // Retrieve all Bird entities from the repository
-        var birds = iBirdRepository.findAll();
-
-        // Convert Bird entities to BirdDTO objects
-        List<BirdDTO> birdDTOs = new ArrayList<>();
-        for (Bird bird : birds) {
-            var birdDTO = birdMapper.convertToDTO(bird);
-            List<Sighting> sightings = iSightingRepository.findByBird(bird);
-            List<SightingDTO> sightingDTOs = (List<SightingDTO>) sightingMapper.convertToDTO(sightings);
-            birdDTO.setSightings(sightingDTOs);
-            birdDTOs.add(birdDTO);
-        }
+        // Retrieve all Bird entities with their sightings in one query
+        var birds = iBirdRepository.findAllWithSightings();
+
+        // Convert Bird entities to BirdDTO objects, the mapper converts the fetched sightings as well
+        return new ArrayList<>(birdMapper.convertToDTO(birds));
+    }
 
-        return birdDTOs;
+    /**
+     * This method is used to returns a bird by id.
+     * The fields of the bird come from the cache, its sightings are read as DTOs
+     */
+    public BirdDTO findBirdById(Long id) {
+        return withSightings(birdLookup.findById(id));
     }
 
     /**
      * This method is used to returns a bird by name
      */
     public BirdDTO findBirdByName(String name) {
-        var bird = iBirdRepository.findByName(name);
-        if (bird == null) {
-            throw new ResourceNotFoundException("Bird not found with name: " + name);
-        }
-
-        return birdMapper.convertToDTO(bird);
+        return withSightings(birdLookup.findByName(name));
     }
 
     /**
      * This method is used to returns a bird by color
      */
     public BirdDTO findBirdByColor(String color) {
-        var bird = iBirdRepository.findByColor(color);
-        if (bird == null) {
-            throw new ResourceNotFoundException("Bird not found with color: " + color);
-        }
-        return birdMapper.convertToDTO(bird);
+        return withSightings(birdLookup.findByColor(color));
+    }
 
+    private BirdDTO withSightings(BirdDTO birdDTO) {
+        return birdMapper.withSightings(birdDTO, iSightingRepository.findSightingDTOsByBirdId(birdDTO.getId()));
     }
 
     /**
-     * This method is used to delete a bird by id
+     * This method is used to delete a bird by id together with its sightings, without loading them as entities.
+     * The sightings are deleted DELETE_CHUNK_SIZE at a time in id order, every chunk in a transaction
+     * of its own, so deleting a bird with many sightings never holds its locks for long. Each chunk publishes
+     * the sightings it deleted. The last chunk and the bird are deleted in the same transaction
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void deleteBird(Long id) {
-        if (iBirdRepository.existsById(id)) {
-            iBirdRepository.deleteById(id);
-        } else {
-            throw new ResourceNotFoundException("Bird does not exist with id: " + id);
+        var committedChunks = 0;
+        try {
+            while (transactionTemplate.execute(status -> deleteSightingsChunkOrBird(id)) == DELETE_CHUNK_SIZE) {
+                committedChunks++;
+            }
+        } catch (RuntimeException e) {
+            if (committedChunks > 0) {
+                // Some of its sightings are gone although the bird is not, the committed chunks published them
+                birdCacheEvictor.evictAll();
+                resourceVersions.birdChanged(id);
+            }
+            throw e;
+        }
+    }
+
+    // Deletes up to DELETE_CHUNK_SIZE sightings of the bird, and the bird itself once fewer are left
+    private int deleteSightingsChunkOrBird(Long id) {
+        var chunk = iSightingRepository.findRemovalRowsByBirdId(id, PageRequest.of(0, DELETE_CHUNK_SIZE));
+        if (!chunk.isEmpty()) {
+            // The chunk is the first sightings in id order, so it is deleted by range instead of by a list of ids
+            iSightingRepository.deleteByBirdIdUpTo(id, chunk.get(chunk.size() - 1).getId());
+            eventPublisher.publishEvent(SightingChangeEvent.removed(chunk.stream().map(SightingSnapshot::of).toList()));
+        }
+        var deleted = chunk.size();
+        if (deleted < DELETE_CHUNK_SIZE) {
+            if (iBirdRepository.deleteBirdById(id) == 0) {
+                throw new ResourceNotFoundException("Bird does not exist with id: " + id);
+            }
+            birdCacheEvictor.evictAll();
+            resourceVersions.birdChanged(id);
         }
+        return deleted;
     }
 }
@@ -0,0 +1,47 @@
+package com.romeo.birdssighting.services;
+
+import com.romeo.birdssighting.dto.CacheStatsDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * This class represents a service component responsible
+ * for reporting the usage of the in-process caches
+ */
+@Service
+@RequiredArgsConstructor
+public class CacheStatsService {
+
+    private final CacheManager cacheManager;
+
+    /**
+     * This method is used to returns the hit, miss and eviction counters of every Caffeine cache
+     */
+    public List<CacheStatsDTO> getCacheStats() {
+        return cacheManager.getCacheNames().stream()
+                .sorted()
+                .map(cacheManager::getCache)
+                .filter(Objects::nonNull)
+                .filter(CaffeineCache.class::isInstance)
+                .map(cache -> convertToDTO((CaffeineCache) cache))
+                .toList();
+    }
+
+    private CacheStatsDTO convertToDTO(CaffeineCache cache) {
+        var nativeCache = cache.getNativeCache();
+        var stats = nativeCache.stats();
+        var cacheStatsDTO = new CacheStatsDTO();
+        cacheStatsDTO.setName(cache.getName());
+        cacheStatsDTO.setSize(nativeCache.estimatedSize());
+        cacheStatsDTO.setHitCount(stats.hitCount());
+        cacheStatsDTO.setMissCount(stats.missCount());
+        cacheStatsDTO.setHitRate(stats.hitRate());
+        cacheStatsDTO.setEvictionCount(stats.evictionCount());
+        return cacheStatsDTO;
+    }
+}
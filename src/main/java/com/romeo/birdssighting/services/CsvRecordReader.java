@@ -0,0 +1,125 @@
+package com.romeo.birdssighting.services;
+
+import com.romeo.birdssighting.exception.BadRequestException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class represents a streaming reader of RFC 4180 CSV records: comma separated,
+ * fields optionally quoted, "" for a quote inside a quoted field, quoted fields may span lines.
+ * Only one record is held in memory, a record longer than maxRecordLength is rejected,
+ * so an unterminated quote cannot pull the rest of the input into memory
+ */
+final class CsvRecordReader {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Reader reader;
+    private final int maxRecordLength;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final StringBuilder field = new StringBuilder();
+    private int position;
+    private int limit;
+    private long line = 1;
+    private long recordLine;
+
+    CsvRecordReader(Reader reader, int maxRecordLength) {
+        this.reader = reader;
+        this.maxRecordLength = maxRecordLength;
+    }
+
+    /**
+     * This method is used to read the next record, blank lines are skipped. Returns null at the end of the input
+     */
+    List<String> next() throws IOException {
+        int c = read();
+        while (c == '\n' || c == '\r') {
+            skipLineBreak(c);
+            c = read();
+        }
+        if (c == -1) {
+            return null;
+        }
+        recordLine = line;
+        List<String> fields = new ArrayList<>();
+        int length = 0;
+        boolean quoted = false;
+        field.setLength(0);
+        while (true) {
+            if (++length > maxRecordLength) {
+                throw new BadRequestException("The CSV record at line " + recordLine
+                        + " is longer than " + maxRecordLength + " characters");
+            }
+            if (quoted) {
+                if (c == -1) {
+                    throw new BadRequestException("The quoted field starting at line " + recordLine + " is not closed");
+                }
+                if (c == '"') {
+                    c = read();
+                    if (c == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        continue;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r' || c == -1) {
+                fields.add(field.toString());
+                if (c != -1) {
+                    skipLineBreak(c);
+                }
+                return fields;
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    /**
+     * This method is used to returns the line the last record started on, counted from 1
+     */
+    long recordLine() {
+        return recordLine;
+    }
+
+    // c is the \n or \r just read, the \n of a \r\n is consumed as well
+    private void skipLineBreak(int c) throws IOException {
+        line++;
+        if (c == '\r' && peek() == '\n') {
+            position++;
+        }
+    }
+
+    private int read() throws IOException {
+        int c = peek();
+        if (c != -1) {
+            position++;
+        }
+        return c;
+    }
+
+    private int peek() throws IOException {
+        if (position == limit) {
+            limit = Math.max(reader.read(buffer, 0, BUFFER_SIZE), 0);
+            position = 0;
+            if (limit == 0) {
+                return -1;
+            }
+        }
+        return buffer[position];
+    }
+}
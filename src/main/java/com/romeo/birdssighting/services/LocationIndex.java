@@ -0,0 +1,264 @@
+package com.romeo.birdssighting.services;
+
+import com.romeo.birdssighting.dto.LocationMatchDTO;
+import com.romeo.birdssighting.events.SightingChangeEvent;
+import com.romeo.birdssighting.repositories.ISightingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * This class represents an in-memory index of the distinct sighting locations.
+ * Locations are kept sorted for prefix completion and split into trigrams for fuzzy search.
+ * Each location counts its sightings, so it leaves the index with its last sighting.
+ * The index is loaded at startup and kept up to date by the sighting change events.
+ * Writes are serialized, searches run without locking on arrays that writes replace instead of changing:
+ * a write registering or removing locations changes a copy of the id array and publishes it when it is done
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LocationIndex implements SmartInitializingSingleton {
+
+    // Smallest trigram similarity of a fuzzy match, the pg_trgm default
+    static final double MIN_SIMILARITY = 0.3;
+
+    private final ISightingRepository iSightingRepository;
+
+    private volatile Index index = new Index();
+
+    /**
+     * The index is loaded before the web server starts, so no change can be missed
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    /**
+     * This method is used to reload the index from the database.
+     * The new index is built aside and then replaces the current one
+     */
+    public synchronized void rebuild() {
+        var start = System.nanoTime();
+        var rebuilt = new Index();
+        var rows = iSightingRepository.countPerLocation();
+        rows.stream()
+                .filter(row -> row.getLocation() != null && !row.getLocation().isBlank())
+                .forEach(row -> rebuilt.locations
+                        .computeIfAbsent(normalize(row.getLocation()), rebuilt::register)
+                        .sightings.merge(row.getLocation(), row.getSightingCount(), Long::sum));
+
+        Map<String, List<Integer>> postings = new HashMap<>();
+        rebuilt.locations.values().forEach(location -> trigramsOf(location.key)
+                .forEach(trigram -> postings.computeIfAbsent(trigram, t -> new ArrayList<>()).add(location.id)));
+        postings.forEach((trigram, ids) ->
+                rebuilt.trigrams.put(trigram, ids.stream().mapToInt(Integer::intValue).sorted().toArray()));
+
+        rebuilt.publish();
+        index = rebuilt;
+        log.info("Indexed {} locations in {} ms", rebuilt.locations.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * This method is used to apply created, updated and deleted sightings once their transaction committed
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onSightingChange(SightingChangeEvent event) {
+        var current = index;
+        try {
+            event.removed().forEach(snapshot -> add(current, snapshot.location(), -1));
+            event.added().forEach(snapshot -> add(current, snapshot.location(), 1));
+        } finally {
+            current.publish();
+        }
+    }
+
+    /**
+     * This method is used to returns the locations starting with a prefix, ignoring case
+     */
+    public List<String> complete(String prefix, int limit) {
+        var normalizedPrefix = normalize(prefix);
+        List<String> completions = new ArrayList<>(limit);
+        for (var entry : index.locations.tailMap(normalizedPrefix, true).entrySet()) {
+            if (completions.size() >= limit || !entry.getKey().startsWith(normalizedPrefix)) {
+                break;
+            }
+            entry.getValue().sightings.keySet().stream().sorted().forEach(completions::add);
+        }
+        return completions.size() > limit ? completions.subList(0, limit) : completions;
+    }
+
+    /**
+     * This method is used to returns the locations most similar to a text, best match first.
+     * The trigrams shared with each location are counted in an array indexed by location id,
+     * which is then scanned in order: both passes are sequential, without a branch per posting
+     */
+    public List<LocationMatchDTO> search(String text, int limit) {
+        var textTrigrams = trigramsOf(normalize(text));
+        if (textTrigrams.isEmpty()) {
+            return List.of();
+        }
+        if (textTrigrams.size() > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Search text too long");
+        }
+        var current = index;
+        var locations = current.byId;
+        var shared = new short[locations.length];
+        for (String trigram : textTrigrams) {
+            for (int id : current.trigrams.getOrDefault(trigram, new int[0])) {
+                // Ids registered after this search started are skipped
+                if (id < shared.length) {
+                    shared[id]++;
+                }
+            }
+        }
+
+        // A similarity of MIN_SIMILARITY needs at least that fraction of the trigrams of the text,
+        // this drops the many locations sharing only a common word before looking them up
+        var minShared = Math.max(1, (int) Math.ceil(MIN_SIMILARITY * textTrigrams.size() - 1e-9));
+        List<LocationMatchDTO> matches = new ArrayList<>();
+        for (int id = 0; id < shared.length; id++) {
+            if (shared[id] < minShared || locations[id] == null) {
+                continue;
+            }
+            var location = locations[id];
+            var score = (double) shared[id] / (textTrigrams.size() + location.trigramCount - shared[id]);
+            if (score >= MIN_SIMILARITY) {
+                location.sightings.forEach((written, sightings) ->
+                        matches.add(new LocationMatchDTO(written, sightings, score)));
+            }
+        }
+        matches.sort(Comparator.comparingDouble(LocationMatchDTO::getScore).reversed()
+                .thenComparing(Comparator.comparingLong(LocationMatchDTO::getSightings).reversed())
+                .thenComparing(LocationMatchDTO::getLocation));
+        return matches.size() > limit ? matches.subList(0, limit) : matches;
+    }
+
+    private static void add(Index current, String location, long delta) {
+        if (location == null || location.isBlank()) {
+            return;
+        }
+        var normalized = normalize(location);
+        var indexed = current.locations.get(normalized);
+        if (indexed == null) {
+            if (delta <= 0) {
+                return;
+            }
+            indexed = current.register(normalized);
+            var id = indexed.id;
+            trigramsOf(normalized).forEach(trigram -> current.trigrams.merge(trigram, new int[]{id}, LocationIndex::concat));
+            current.locations.put(normalized, indexed);
+        }
+        indexed.sightings.compute(location, (key, count) -> {
+            var total = (count == null ? 0 : count) + delta;
+            return total > 0 ? total : null;
+        });
+        if (indexed.sightings.isEmpty()) {
+            var id = indexed.id;
+            current.locations.remove(normalized);
+            current.writableIds()[id] = null;
+            trigramsOf(normalized).forEach(trigram -> current.trigrams.computeIfPresent(trigram, (t, ids) -> {
+                var remaining = Arrays.stream(ids).filter(other -> other != id).toArray();
+                return remaining.length == 0 ? null : remaining;
+            }));
+        }
+    }
+
+    private static int[] concat(int[] ids, int[] added) {
+        var result = Arrays.copyOf(ids, ids.length + added.length);
+        System.arraycopy(added, 0, result, ids.length, added.length);
+        return result;
+    }
+
+    static String normalize(String text) {
+        return text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Trigrams of every word padded like pg_trgm, "lake" gives "  l", " la", "lak", "ake", "ke "
+    static Set<String> trigramsOf(String normalized) {
+        Set<String> result = new HashSet<>();
+        for (String word : normalized.split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            var padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                result.add(padded.substring(i, i + 3));
+            }
+        }
+        return result;
+    }
+
+    private static final class Index {
+
+        // Normalized location -> indexed location, sorted for prefix completion
+        private final NavigableMap<String, IndexedLocation> locations = new ConcurrentSkipListMap<>();
+        // Trigram -> ids of the locations containing it, ascending so searches count them in memory order.
+        // New ids are the highest, so appending them keeps the order
+        private final Map<String, int[]> trigrams = new ConcurrentHashMap<>();
+        // Id -> indexed location, null once removed. Ids are not reused until the next rebuild.
+        // Searches read it without locking, so it is never changed once published
+        private volatile IndexedLocation[] byId = new IndexedLocation[1024];
+        // The copy of byId the running write changes, made when it first registers or removes a location
+        private IndexedLocation[] pendingIds;
+        private int nextId;
+
+        private IndexedLocation register(String key) {
+            var location = new IndexedLocation(nextId++, key, trigramsOf(key).size());
+            var ids = writableIds();
+            if (location.id == ids.length) {
+                ids = Arrays.copyOf(ids, ids.length * 2);
+                pendingIds = ids;
+            }
+            ids[location.id] = location;
+            return location;
+        }
+
+        private IndexedLocation[] writableIds() {
+            if (pendingIds == null) {
+                pendingIds = Arrays.copyOf(byId, byId.length);
+            }
+            return pendingIds;
+        }
+
+        // Makes the changes of the running write visible to the searches
+        private void publish() {
+            if (pendingIds != null) {
+                byId = pendingIds;
+                pendingIds = null;
+            }
+        }
+    }
+
+    private static final class IndexedLocation {
+
+        private final int id;
+        private final String key;
+        private final int trigramCount;
+        // Location as written -> number of sightings
+        private final Map<String, Long> sightings = new ConcurrentHashMap<>();
+
+        private IndexedLocation(int id, String key, int trigramCount) {
+            this.id = id;
+            this.key = key;
+            this.trigramCount = trigramCount;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.romeo.birdssighting.services;
+
+import com.romeo.birdssighting.dto.LocationMatchDTO;
+import com.romeo.birdssighting.dto.LocationSightingsDTO;
+import com.romeo.birdssighting.exception.BadRequestException;
+import com.romeo.birdssighting.repositories.ISightingRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * This class represents a service component responsible
+ * for the location autocomplete and search
+ */
+@Service
+@RequiredArgsConstructor
+public class LocationService {
+
+    // Number of locations returned when the client does not send a limit
+    static final int DEFAULT_LIMIT = 10;
+    // Hard cap on the number of locations returned
+    static final int MAX_LIMIT = 100;
+    // Longest accepted search text
+    static final int MAX_TEXT_LENGTH = 200;
+    // Number of sighting ids per page
+    static final int SIGHTING_IDS_PAGE_SIZE = 1_000;
+
+    private final LocationIndex locationIndex;
+    private final ISightingRepository iSightingRepository;
+
+    /**
+     * This method is used to returns the locations starting with a prefix
+     */
+    public List<String> completeLocation(String prefix, Integer limit) {
+        return locationIndex.complete(prefix, resolveLimit(limit));
+    }
+
+    /**
+     * This method is used to returns the locations similar to a text, tolerating typos and missing words
+     */
+    public List<LocationMatchDTO> searchLocations(String text, Integer limit) {
+        if (text.length() > MAX_TEXT_LENGTH) {
+            throw new BadRequestException("q must be at most " + MAX_TEXT_LENGTH + " characters");
+        }
+        return locationIndex.search(text, resolveLimit(limit));
+    }
+
+    /**
+     * This method is used to returns a page of the ids of the sightings at exactly one location
+     */
+    @Transactional(readOnly = true)
+    public LocationSightingsDTO findSightingIds(String location, String after) {
+        var afterId = after == null ? 0L : SightingCursor.decode(after).id();
+        var ids = iSightingRepository.findIdsByLocation(location, afterId,
+                PageRequest.of(0, SIGHTING_IDS_PAGE_SIZE + 1));
+        var hasNext = ids.size() > SIGHTING_IDS_PAGE_SIZE;
+
+        var locationSightingsDTO = new LocationSightingsDTO();
+        locationSightingsDTO.setLocation(location);
+        locationSightingsDTO.setSightingIds(hasNext ? ids.subList(0, SIGHTING_IDS_PAGE_SIZE) : ids);
+        if (hasNext) {
+            locationSightingsDTO.setNextCursor(new SightingCursor(ids.get(SIGHTING_IDS_PAGE_SIZE - 1)).encode());
+        }
+        return locationSightingsDTO;
+    }
+
+    private int resolveLimit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        if (limit < 1) {
+            throw new BadRequestException("limit must be positive");
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+}
@@ -0,0 +1,278 @@
+package com.romeo.birdssighting.services;
+
+import com.romeo.birdssighting.dto.QueryStatsDTO;
+import com.romeo.birdssighting.dto.SlowQueryDTO;
+import com.romeo.birdssighting.exception.BadRequestException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class represents a service component responsible for the query diagnostics fed by the Hibernate statistics:
+ * the execution counters of every query fingerprint, the log of the last slow statements and
+ * the statements, query time, loads and fetches of each HTTP request, published as birds.request.* metrics.
+ * Only fingerprints are kept, bind parameters and literals are never recorded
+ */
+@Service
+public class QueryDiagnostics {
+
+    public static final String REQUEST_STATEMENTS_METRIC = "birds.request.statements";
+    public static final String REQUEST_QUERY_TIME_METRIC = "birds.request.query.time";
+    public static final String REQUEST_LOADS_METRIC = "birds.request.loads";
+    public static final String REQUEST_FETCHES_METRIC = "birds.request.fetches";
+    public static final String REQUEST_BUDGET_EXCEEDED_METRIC = "birds.request.budget.exceeded";
+
+    // Number of fingerprints returned when the client does not send a limit
+    static final int DEFAULT_LIMIT = 20;
+    // Hard cap on the number of fingerprints returned
+    static final int MAX_LIMIT = 500;
+
+    private final ThreadLocal<RequestStatistics> currentRequest = new ThreadLocal<>();
+    private final Map<String, QueryCounters> queries = new ConcurrentHashMap<>();
+    private final Deque<SlowQueryDTO> slowQueries = new ArrayDeque<>();
+    private final MeterRegistry meterRegistry;
+    private final int maxFingerprints;
+    private final int slowQueryLogSize;
+
+    public QueryDiagnostics(MeterRegistry meterRegistry,
+                            @Value("${birds.diagnostics.max-fingerprints}") int maxFingerprints,
+                            @Value("${birds.diagnostics.slow-query-log-size}") int slowQueryLogSize) {
+        this.meterRegistry = meterRegistry;
+        this.maxFingerprints = maxFingerprints;
+        this.slowQueryLogSize = slowQueryLogSize;
+    }
+
+    /**
+     * This method is used to start counting the statements of the request handled by the current thread
+     */
+    public void startRequest(String request) {
+        currentRequest.set(new RequestStatistics(request));
+    }
+
+    /**
+     * This method is used to stop counting for the current thread and publish the counters of the request,
+     * tagged with the URI pattern of the request. Returns the counters, or null when no request was started
+     */
+    public RequestStatistics endRequest(String uri) {
+        var statistics = currentRequest.get();
+        if (statistics == null) {
+            return null;
+        }
+        currentRequest.remove();
+        summary(REQUEST_STATEMENTS_METRIC, "JDBC statements prepared per request", uri)
+                .record(statistics.statements);
+        summary(REQUEST_LOADS_METRIC, "Entities and collections loaded per request", uri)
+                .record(statistics.loads);
+        summary(REQUEST_FETCHES_METRIC, "Lazy entities and collections fetched per request", uri)
+                .record(statistics.fetches);
+        Timer.builder(REQUEST_QUERY_TIME_METRIC)
+                .description("Time spent executing queries per request")
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(statistics.queryTimeMillis, TimeUnit.MILLISECONDS);
+        return statistics;
+    }
+
+    /**
+     * This method is used to returns the counters of the request handled by the current thread so far,
+     * or null when no request was started
+     */
+    public RequestStatistics getCurrentRequest() {
+        return currentRequest.get();
+    }
+
+    /**
+     * This method is used to count a request that issued more statements than the budget of its endpoint
+     */
+    public void statementBudgetExceeded(String uri) {
+        Counter.builder(REQUEST_BUDGET_EXCEEDED_METRIC)
+                .description("Requests issuing more statements than the budget of their endpoint")
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * This method is used to count a JDBC statement prepared by Hibernate
+     */
+    public void statementPrepared() {
+        var statistics = currentRequest.get();
+        if (statistics != null) {
+            statistics.statements++;
+        }
+    }
+
+    /**
+     * This method is used to record the execution of a HQL, criteria or native query
+     */
+    public void queryExecuted(String query, int rows, long timeMillis) {
+        var statistics = currentRequest.get();
+        if (statistics != null) {
+            statistics.queries++;
+            statistics.queryTimeMillis += timeMillis;
+        }
+        var fingerprint = QueryFingerprint.of(query);
+        var counters = queries.get(fingerprint);
+        if (counters == null) {
+            // Bounded, a flood of distinct statements cannot grow the map without limit
+            if (queries.size() >= maxFingerprints) {
+                return;
+            }
+            counters = queries.computeIfAbsent(fingerprint, key -> new QueryCounters());
+        }
+        counters.record(rows, timeMillis);
+    }
+
+    /**
+     * This method is used to count an entity or collection loaded
+     */
+    public void loaded() {
+        var statistics = currentRequest.get();
+        if (statistics != null) {
+            statistics.loads++;
+        }
+    }
+
+    /**
+     * This method is used to count a lazy entity or collection fetched
+     */
+    public void fetched() {
+        var statistics = currentRequest.get();
+        if (statistics != null) {
+            statistics.fetches++;
+        }
+    }
+
+    /**
+     * This method is used to record a statement that took longer than the slow-query threshold
+     */
+    public void slowQuery(String sql, long timeMillis) {
+        var statistics = currentRequest.get();
+        var slowQueryDTO = new SlowQueryDTO();
+        slowQueryDTO.setFingerprint(QueryFingerprint.of(sql));
+        slowQueryDTO.setTimeMillis(timeMillis);
+        slowQueryDTO.setExecutedAt(LocalDateTime.now());
+        if (statistics != null) {
+            statistics.slowQueries++;
+            slowQueryDTO.setRequest(statistics.request);
+        }
+        synchronized (slowQueries) {
+            if (slowQueries.size() == slowQueryLogSize) {
+                slowQueries.removeFirst();
+            }
+            slowQueries.addLast(slowQueryDTO);
+        }
+    }
+
+    /**
+     * This method is used to returns the query fingerprints that took the most time in total, worst first
+     */
+    public List<QueryStatsDTO> getWorstQueries(Integer limit) {
+        return queries.entrySet().stream()
+                .map(entry -> entry.getValue().convertToDTO(entry.getKey()))
+                .sorted(Comparator.comparingLong(QueryStatsDTO::getTotalTimeMillis).reversed()
+                        .thenComparing(Comparator.comparingLong(QueryStatsDTO::getExecutionCount).reversed()))
+                .limit(resolveLimit(limit))
+                .toList();
+    }
+
+    /**
+     * This method is used to returns the last slow statements, most recent first
+     */
+    public List<SlowQueryDTO> getSlowQueries() {
+        synchronized (slowQueries) {
+            var result = new ArrayList<SlowQueryDTO>(slowQueries.size());
+            slowQueries.descendingIterator().forEachRemaining(result::add);
+            return result;
+        }
+    }
+
+    /**
+     * This method is used to forget the query counters and the slow-query log
+     */
+    public void clear() {
+        queries.clear();
+        synchronized (slowQueries) {
+            slowQueries.clear();
+        }
+    }
+
+    private int resolveLimit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        if (limit < 1) {
+            throw new BadRequestException("limit must be positive");
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+
+    private DistributionSummary summary(String name, String description, String uri) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .tag("uri", uri)
+                .register(meterRegistry);
+    }
+
+    /**
+     * This class represents the counters of one request, only updated by the thread handling it
+     */
+    @Getter
+    public static final class RequestStatistics {
+
+        private final String request;
+        private long statements;
+        private long queries;
+        private long queryTimeMillis;
+        private long loads;
+        private long fetches;
+        private long slowQueries;
+
+        RequestStatistics(String request) {
+            this.request = request;
+        }
+    }
+
+    private static final class QueryCounters {
+
+        private final LongAdder executions = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder totalTime = new LongAdder();
+        private final LongAccumulator maxTime = new LongAccumulator(Math::max, 0);
+
+        void record(int rowCount, long timeMillis) {
+            executions.increment();
+            rows.add(rowCount);
+            totalTime.add(timeMillis);
+            maxTime.accumulate(timeMillis);
+        }
+
+        QueryStatsDTO convertToDTO(String fingerprint) {
+            var queryStatsDTO = new QueryStatsDTO();
+            queryStatsDTO.setFingerprint(fingerprint);
+            queryStatsDTO.setExecutionCount(executions.sum());
+            queryStatsDTO.setRowCount(rows.sum());
+            queryStatsDTO.setTotalTimeMillis(totalTime.sum());
+            queryStatsDTO.setAverageTimeMillis(queryStatsDTO.getExecutionCount() == 0 ? 0
+                    : (double) queryStatsDTO.getTotalTimeMillis() / queryStatsDTO.getExecutionCount());
+            queryStatsDTO.setMaxTimeMillis(maxTime.get());
+            return queryStatsDTO;
+        }
+    }
+}
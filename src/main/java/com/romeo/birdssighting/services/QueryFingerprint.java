@@ -0,0 +1,40 @@
+package com.romeo.birdssighting.services;
+
+import java.util.regex.Pattern;
+
+/**
+ * This class represents the fingerprint of a SQL or HQL statement: the statement with every literal and
+ * bind parameter replaced by ?, IN lists collapsed to a single ? and whitespace normalized.
+ * Statements differing only in their values share a fingerprint, and no value ever leaves the database
+ */
+public final class QueryFingerprint {
+
+    // Longer statements are cut, the start of a statement is enough to recognize it
+    public static final int MAX_LENGTH = 2000;
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMERIC_LITERAL = Pattern.compile("(?<![\\w$.])-?\\d+(?:\\.\\d+)?(?:[eE][-+]?\\d+)?(?![\\w$])");
+    private static final Pattern POSITIONAL_PARAMETER = Pattern.compile("\\?\\d+");
+    private static final Pattern NAMED_PARAMETER = Pattern.compile("(?<![:\\w]):[A-Za-z_]\\w*");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private QueryFingerprint() {
+    }
+
+    /**
+     * This method is used to returns the fingerprint of the statement
+     */
+    public static String of(String statement) {
+        if (statement == null) {
+            return null;
+        }
+        var fingerprint = STRING_LITERAL.matcher(statement).replaceAll("?");
+        fingerprint = POSITIONAL_PARAMETER.matcher(fingerprint).replaceAll("?");
+        fingerprint = NAMED_PARAMETER.matcher(fingerprint).replaceAll("?");
+        fingerprint = NUMERIC_LITERAL.matcher(fingerprint).replaceAll("?");
+        fingerprint = WHITESPACE.matcher(fingerprint).replaceAll(" ").strip();
+        fingerprint = IN_LIST.matcher(fingerprint).replaceAll("in (?)");
+        return fingerprint.length() > MAX_LENGTH ? fingerprint.substring(0, MAX_LENGTH) : fingerprint;
+    }
+}
@@ -0,0 +1,86 @@
+package com.romeo.birdssighting.services;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class represents the versions of the bird resources, used as their ETags.
+ * The services bump them on every write of a bird or a sighting, once the transaction committed.
+ * Reads take the version before loading, so a response never carries a newer version than its data.
+ * Like the bird caches the versions are kept in process, the epoch of the process is part
+ * of every ETag so a restart does not answer 304 to an ETag of the previous run.
+ * The ETags are weak: one version is served as JSON, CBOR or Smile, gzip compressed or not,
+ * and a strong ETag may only be shared by byte-identical responses
+ */
+@Component
+public class ResourceVersions {
+
+    // Birds share a version when their ids fall in the same stripe, a write then only costs the others a 304
+    static final int BIRD_STRIPES = 4096;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    // Version of the list of all birds, which embeds their sightings
+    private final AtomicLong birdsVersion = new AtomicLong();
+    // Version of each bird and of its sightings
+    private final AtomicLongArray birdVersions = new AtomicLongArray(BIRD_STRIPES);
+
+    /**
+     * This method is used to returns the ETag of the list of all birds
+     */
+    public String birdsETag() {
+        return eTag(birdsVersion.get());
+    }
+
+    /**
+     * This method is used to returns the ETag of a bird and of its sightings
+     */
+    public String birdETag(Long birdId) {
+        return eTag(birdVersions.get(stripe(birdId)));
+    }
+
+    /**
+     * This method is used to bump the versions of a bird after the current transaction committed
+     */
+    public void birdChanged(Long birdId) {
+        birdsChanged(birdId == null ? List.of() : List.of(birdId));
+    }
+
+    /**
+     * This method is used to bump the versions of some birds after the current transaction committed
+     */
+    public void birdsChanged(Collection<Long> birdIds) {
+        afterCommit(() -> {
+            birdIds.stream().filter(Objects::nonNull).forEach(birdId -> birdVersions.incrementAndGet(stripe(birdId)));
+            birdsVersion.incrementAndGet();
+        });
+    }
+
+    private String eTag(long version) {
+        return "W/\"" + epoch + "-" + version + "\"";
+    }
+
+    private static int stripe(Long birdId) {
+        return Long.hashCode(birdId) & (BIRD_STRIPES - 1);
+    }
+
+    // Bumping before the commit would let a concurrent read tag the old state with the new version
+    private static void afterCommit(Runnable bump) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bump.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                bump.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,50 @@
+package com.romeo.birdssighting.services;
+
+import com.romeo.birdssighting.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * This class represents the position of the last sighting returned in a page.
+ * Pages ordered by id only need the id, pages of a time range are ordered by
+ * dateTime and id, so their cursor carries both.
+ * It is handed to clients as an opaque URL-safe token, so the paging key can
+ * change later without breaking them
+ */
+record SightingCursor(LocalDateTime dateTime, long id) {
+
+    private static final String SEPARATOR = "|";
+
+    SightingCursor(long id) {
+        this(null, id);
+    }
+
+    /**
+     * This method is used to encode the cursor as an opaque token
+     */
+    String encode() {
+        var value = dateTime == null ? Long.toString(id) : dateTime + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * This method is used to decode a token previously returned by encode
+     */
+    static SightingCursor decode(String token) {
+        try {
+            var value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            var separator = value.indexOf(SEPARATOR);
+            if (separator < 0) {
+                return new SightingCursor(Long.parseLong(value));
+            }
+            return new SightingCursor(LocalDateTime.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            // NumberFormatException is an IllegalArgumentException as well
+            throw new BadRequestException("Invalid sightings cursor: " + token);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.romeo.birdssighting.services;
+
+import com.romeo.birdssighting.domain.Sighting;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.stereotype.Component;
+
+/**
+ * This class represents the allocation of sighting ids outside of Hibernate, for sightings written with plain JDBC.
+ * It uses the identifier generator of the Sighting entity, so these ids and the ids of saved entities
+ * come from the same pooled sequence and never collide
+ */
+@Component
+public class SightingIdAllocator {
+
+    private final SessionFactoryImplementor sessionFactory;
+    private final IdentifierGenerator idGenerator;
+
+    public SightingIdAllocator(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.idGenerator = (IdentifierGenerator) sessionFactory.getMappingMetamodel()
+                .getEntityDescriptor(Sighting.class).getGenerator();
+    }
+
+    /**
+     * This method is used to allocate one sighting id
+     */
+    public long nextId() {
+        return nextIds(1)[0];
+    }
+
+    /**
+     * This method is used to allocate count sighting ids,
+     * the pooled optimizer hits the sequence once per allocation size
+     */
+    public long[] nextIds(int count) {
+        var ids = new long[count];
+        try (var session = sessionFactory.openStatelessSession()) {
+            for (int i = 0; i < count; i++) {
+                ids[i] = (Long) idGenerator.generate((SharedSessionContractImplementor) session, null);
+            }
+        }
+        return ids;
+    }
+}
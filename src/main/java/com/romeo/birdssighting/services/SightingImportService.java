@@ -0,0 +1,336 @@
+package com.romeo.birdssighting.services;
+
+import com.romeo.birdssighting.dto.SightingImportDTO;
+import com.romeo.birdssighting.dto.SightingImportRejectionDTO;
+import com.romeo.birdssighting.events.SightingChangeEvent;
+import com.romeo.birdssighting.exception.BadRequestException;
+import com.romeo.birdssighting.repositories.IBirdRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class represents the bulk import of historical sightings from CSV.
+ * The input is read as a stream, one record at a time, and written in batches of batch-size rows,
+ * each batch in its own transaction: with COPY on PostgreSQL, with JDBC batch inserts on other databases.
+ * Memory does not grow with the input, only a batch, a bounded cache of bird ids
+ * and the first rejected rows are held. Rows that cannot be imported are counted and skipped,
+ * a malformed CSV stops the import and keeps the batches committed before it
+ */
+@Slf4j
+@Service
+public class SightingImportService {
+
+    static final int MAX_REPORTED_REJECTIONS = 100;
+    static final int MAX_RECORD_LENGTH = 64 * 1024;
+    private static final int MAX_CACHED_BIRDS = 10_000;
+
+    static final String BIRD_COLUMN = "bird";
+    static final String LOCATION_COLUMN = "location";
+    static final String DATE_TIME_COLUMN = "date_time";
+    static final String LATITUDE_COLUMN = "latitude";
+    static final String LONGITUDE_COLUMN = "longitude";
+
+    private static final String COPY_SQL = "COPY sighting "
+            + "(id, bird_id, location, date_time, latitude, longitude, grid_cell) FROM STDIN WITH (FORMAT csv)";
+
+    private final IBirdRepository iBirdRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ResourceVersions resourceVersions;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SightingIdAllocator sightingIdAllocator;
+    private final int batchSize;
+
+    private final Map<String, SightingImport> runningImports = new ConcurrentHashMap<>();
+
+    public SightingImportService(IBirdRepository iBirdRepository,
+                                 JdbcTemplate jdbcTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 ResourceVersions resourceVersions,
+                                 ApplicationEventPublisher eventPublisher,
+                                 SightingIdAllocator sightingIdAllocator,
+                                 @Value("${birds.ingestion.import.batch-size}") int batchSize) {
+        this.iBirdRepository = iBirdRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.resourceVersions = resourceVersions;
+        this.eventPublisher = eventPublisher;
+        this.sightingIdAllocator = sightingIdAllocator;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * This method is used to import the sightings of a CSV with a header row. The bird column holds the bird name,
+     * location is required, date_time (ISO, date and time separated by T or a space), latitude and longitude
+     * are optional. Other columns are ignored
+     */
+    public SightingImportDTO importSightings(Reader reader) {
+        var sightingImport = new SightingImport(UUID.randomUUID().toString(), LocalDateTime.now());
+        runningImports.put(sightingImport.id, sightingImport);
+        try {
+            var csv = new CsvRecordReader(reader, MAX_RECORD_LENGTH);
+            var header = csv.next();
+            if (header == null) {
+                throw new BadRequestException("The CSV is empty, a header row is required");
+            }
+            var columns = new Columns(header);
+            var useCopy = Boolean.TRUE.equals(jdbcTemplate.execute(
+                    (ConnectionCallback<Boolean>) connection -> connection.isWrapperFor(PGConnection.class)));
+            var birdIds = new BirdIdCache();
+
+            List<ParsedSighting> batch = new ArrayList<>(batchSize);
+            List<String> record;
+            while ((record = csv.next()) != null) {
+                sightingImport.rowsRead++;
+                try {
+                    batch.add(columns.parse(record, birdIds));
+                } catch (RejectedRowException e) {
+                    sightingImport.reject(csv.recordLine(), e.getMessage());
+                }
+                if (batch.size() == batchSize) {
+                    write(batch, useCopy, sightingImport);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                write(batch, useCopy, sightingImport);
+            }
+            sightingImport.finished = true;
+            log.info("Sighting import {} finished: {} rows read, {} imported, {} rejected", sightingImport.id,
+                    sightingImport.rowsRead, sightingImport.imported, sightingImport.rejected);
+            return sightingImport.toDTO();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Reading the sightings CSV failed", e);
+        } finally {
+            runningImports.remove(sightingImport.id);
+        }
+    }
+
+    /**
+     * This method is used to returns the progress of the imports still running
+     */
+    public List<SightingImportDTO> findRunningImports() {
+        return runningImports.values().stream().map(SightingImport::toDTO).toList();
+    }
+
+    private void write(List<ParsedSighting> batch, boolean useCopy, SightingImport sightingImport) {
+        var ids = sightingIdAllocator.nextIds(batch.size());
+        List<SightingRow> rows = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            rows.add(batch.get(i).toRow(ids[i]));
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            if (useCopy) {
+                copy(rows);
+            } else {
+                jdbcTemplate.batchUpdate(SightingRow.INSERT_SQL, rows, rows.size(),
+                        (statement, row) -> row.bind(statement));
+            }
+            // The same after-commit notifications as SightingService.createSightings
+            resourceVersions.birdsChanged(rows.stream().map(SightingRow::birdId).distinct().toList());
+            eventPublisher.publishEvent(SightingChangeEvent.added(rows.stream().map(SightingRow::snapshot).toList()));
+        });
+        sightingImport.imported += rows.size();
+        log.info("Sighting import {}: {} rows read, {} imported, {} rejected", sightingImport.id,
+                sightingImport.rowsRead, sightingImport.imported, sightingImport.rejected);
+    }
+
+    private void copy(List<SightingRow> rows) {
+        var csv = new StringBuilder(rows.size() * 96);
+        for (SightingRow row : rows) {
+            csv.append(row.id()).append(',').append(row.birdId()).append(',');
+            // Quoted so that an empty location stays an empty string, unquoted empty fields are NULL
+            if (row.location() != null) {
+                csv.append('"').append(row.location().replace("\"", "\"\"")).append('"');
+            }
+            csv.append(',').append(row.dateTime() == null ? "" : row.dateTime().toString())
+                    .append(',').append(row.latitude() == null ? "" : row.latitude().toString())
+                    .append(',').append(row.longitude() == null ? "" : row.longitude().toString())
+                    .append(',').append(row.gridCell() == null ? "" : row.gridCell().toString())
+                    .append('\n');
+        }
+        jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return connection.unwrap(PGConnection.class).getCopyAPI()
+                        .copyIn(COPY_SQL, new StringReader(csv.toString()));
+            } catch (IOException e) {
+                throw new SQLException("COPY of " + rows.size() + " sightings failed", e);
+            }
+        });
+    }
+
+    // A row of the CSV that is skipped, the message is reported to the client
+    private static final class RejectedRowException extends Exception {
+
+        private static final long serialVersionUID = 1L;
+
+        RejectedRowException(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    private record ParsedSighting(long birdId, String location, LocalDateTime dateTime,
+                                  Double latitude, Double longitude) {
+
+        SightingRow toRow(long id) {
+            return new SightingRow(id, birdId, location, dateTime, latitude, longitude);
+        }
+    }
+
+    // The positions of the known columns in the header, -1 for an optional column that is missing
+    private static final class Columns {
+
+        private final int bird;
+        private final int location;
+        private final int dateTime;
+        private final int latitude;
+        private final int longitude;
+        private final int required;
+
+        Columns(List<String> header) {
+            Map<String, Integer> positions = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                positions.putIfAbsent(header.get(i).strip().toLowerCase(Locale.ROOT), i);
+            }
+            if (!positions.containsKey(BIRD_COLUMN) || !positions.containsKey(LOCATION_COLUMN)) {
+                throw new BadRequestException("The CSV header needs the columns " + BIRD_COLUMN + " and "
+                        + LOCATION_COLUMN + ", found " + header);
+            }
+            this.bird = positions.get(BIRD_COLUMN);
+            this.location = positions.get(LOCATION_COLUMN);
+            this.dateTime = positions.getOrDefault(DATE_TIME_COLUMN, -1);
+            this.latitude = positions.getOrDefault(LATITUDE_COLUMN, -1);
+            this.longitude = positions.getOrDefault(LONGITUDE_COLUMN, -1);
+            this.required = Math.max(Math.max(bird, location), Math.max(dateTime, Math.max(latitude, longitude))) + 1;
+        }
+
+        ParsedSighting parse(List<String> record, BirdIdCache birdIds) throws RejectedRowException {
+            if (record.size() < required) {
+                throw new RejectedRowException("Expected at least " + required + " fields, found " + record.size());
+            }
+            var birdName = record.get(bird).strip();
+            if (birdName.isEmpty()) {
+                throw new RejectedRowException("The bird is missing");
+            }
+            var birdId = birdIds.find(birdName);
+            var latitudeValue = parseDouble(record, latitude, LATITUDE_COLUMN);
+            var longitudeValue = parseDouble(record, longitude, LONGITUDE_COLUMN);
+            try {
+                SightingService.validateCoordinates(latitudeValue, longitudeValue);
+            } catch (BadRequestException e) {
+                throw new RejectedRowException(e.getMessage());
+            }
+            return new ParsedSighting(birdId, record.get(location), parseDateTime(record),
+                    latitudeValue, longitudeValue);
+        }
+
+        private LocalDateTime parseDateTime(List<String> record) throws RejectedRowException {
+            var value = dateTime < 0 ? "" : record.get(dateTime).strip();
+            if (value.isEmpty()) {
+                return null;
+            }
+            try {
+                return LocalDateTime.parse(value.replace(' ', 'T'));
+            } catch (DateTimeParseException e) {
+                throw new RejectedRowException("Invalid " + DATE_TIME_COLUMN + ": " + value);
+            }
+        }
+
+        private static Double parseDouble(List<String> record, int column, String name) throws RejectedRowException {
+            var value = column < 0 ? "" : record.get(column).strip();
+            if (value.isEmpty()) {
+                return null;
+            }
+            try {
+                return Double.valueOf(value);
+            } catch (NumberFormatException e) {
+                throw new RejectedRowException("Invalid " + name + ": " + value);
+            }
+        }
+    }
+
+    // Bird ids by name for one import, unknown names are cached too. Least recently used names are dropped
+    private final class BirdIdCache {
+
+        private final Map<String, Optional<Long>> ids = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Optional<Long>> eldest) {
+                return size() > MAX_CACHED_BIRDS;
+            }
+        };
+
+        long find(String name) throws RejectedRowException {
+            var id = ids.get(name);
+            if (id == null) {
+                var found = iBirdRepository.findIdsByName(name);
+                // Ambiguous names are rejected, like unknown ones
+                id = found.size() == 1 ? Optional.of(found.get(0)) : Optional.empty();
+                ids.put(name, id);
+            }
+            return id.orElseThrow(() -> new RejectedRowException("Unknown bird: " + name));
+        }
+    }
+
+    // Written by the importing thread only, read by findRunningImports
+    private static final class SightingImport {
+
+        private final String id;
+        private final LocalDateTime startedAt;
+        private final List<SightingImportRejectionDTO> rejectedRows = new ArrayList<>();
+        private volatile boolean finished;
+        private volatile long rowsRead;
+        private volatile long imported;
+        private volatile long rejected;
+
+        SightingImport(String id, LocalDateTime startedAt) {
+            this.id = id;
+            this.startedAt = startedAt;
+        }
+
+        void reject(long line, String reason) {
+            rejected++;
+            if (rejected <= MAX_REPORTED_REJECTIONS) {
+                synchronized (rejectedRows) {
+                    rejectedRows.add(new SightingImportRejectionDTO(line, reason));
+                }
+            }
+        }
+
+        SightingImportDTO toDTO() {
+            var sightingImportDTO = new SightingImportDTO();
+            sightingImportDTO.setId(id);
+            sightingImportDTO.setStartedAt(startedAt);
+            sightingImportDTO.setFinished(finished);
+            sightingImportDTO.setRowsRead(rowsRead);
+            sightingImportDTO.setImported(imported);
+            sightingImportDTO.setRejected(rejected);
+            synchronized (rejectedRows) {
+                sightingImportDTO.setRejectedRows(List.copyOf(rejectedRows));
+            }
+            return sightingImportDTO;
+        }
+    }
+}
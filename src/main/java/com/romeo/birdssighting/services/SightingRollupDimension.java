@@ -0,0 +1,10 @@
+package com.romeo.birdssighting.services;
+
+/**
+ * This enum represents the fields sighting statistics can be grouped by
+ */
+public enum SightingRollupDimension {
+    BIRD,
+    LOCATION,
+    DAY
+}
@@ -0,0 +1,131 @@
+package com.romeo.birdssighting.services;
+
+import com.romeo.birdssighting.dto.SightingStatsDTO;
+import com.romeo.birdssighting.events.SightingChangeEvent;
+import com.romeo.birdssighting.events.SightingSnapshot;
+import com.romeo.birdssighting.repositories.ISightingRepository;
+import com.romeo.birdssighting.repositories.SightingRollupRow;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * This class represents an in-memory store of the number of sightings per day, bird and location.
+ * It is loaded from the database at startup and then kept up to date by the sighting change events,
+ * so statistics are computed from the counters of the requested days and not from the sightings
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SightingRollupStore implements SmartInitializingSingleton {
+
+    private static final Comparator<SightingStatsDTO> STATS_ORDER = Comparator
+            .comparing(SightingStatsDTO::getDay, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(SightingStatsDTO::getBirdId, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(SightingStatsDTO::getLocation, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final ISightingRepository iSightingRepository;
+
+    // Day -> (bird, location) -> number of sightings, only counters above zero are kept
+    private final NavigableMap<LocalDate, Map<Cell, Long>> counters = new ConcurrentSkipListMap<>();
+
+    /**
+     * The counters are loaded before the web server starts, so no change can be missed
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    /**
+     * This method is used to reload all the counters from the database
+     */
+    public synchronized void rebuild() {
+        var start = System.nanoTime();
+        counters.clear();
+        var rows = iSightingRepository.countPerBirdLocationAndDay();
+        rows.forEach(this::add);
+        log.info("Loaded {} sighting rollups in {} ms", rows.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * This method is used to apply created, updated and deleted sightings once their transaction committed.
+     * Bird writes publish the sightings they changed as well, so the counters are only ever changed by deltas,
+     * applied in commit order, and never reloaded while other deltas are pending
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onSightingChange(SightingChangeEvent event) {
+        event.removed().forEach(snapshot -> add(snapshot, -1));
+        event.added().forEach(snapshot -> add(snapshot, 1));
+    }
+
+    /**
+     * This method is used to returns the number of sightings in [from, to] grouped by the given dimensions,
+     * a null bound leaves that side of the range open
+     */
+    public List<SightingStatsDTO> query(Set<SightingRollupDimension> groupBy, LocalDate from, LocalDate to) {
+        NavigableMap<LocalDate, Map<Cell, Long>> days = counters;
+        if (from != null) {
+            days = days.tailMap(from, true);
+        }
+        if (to != null) {
+            days = days.headMap(to, true);
+        }
+        var byBird = groupBy.contains(SightingRollupDimension.BIRD);
+        var byLocation = groupBy.contains(SightingRollupDimension.LOCATION);
+        var byDay = groupBy.contains(SightingRollupDimension.DAY);
+
+        Map<Group, long[]> groups = new HashMap<>();
+        days.forEach((day, cells) -> cells.forEach((cell, count) -> {
+            var group = new Group(byBird ? cell.birdId() : null, byLocation ? cell.location() : null,
+                    byDay ? day : null);
+            groups.computeIfAbsent(group, g -> new long[1])[0] += count;
+        }));
+
+        List<SightingStatsDTO> stats = new ArrayList<>(groups.size());
+        groups.forEach((group, count) ->
+                stats.add(new SightingStatsDTO(group.birdId(), group.location(), group.day(), count[0])));
+        stats.sort(STATS_ORDER);
+        return stats;
+    }
+
+    private void add(SightingRollupRow row) {
+        add(row.getSightingDate(), new Cell(row.getBirdId(), row.getLocation()), row.getSightingCount());
+    }
+
+    private void add(SightingSnapshot snapshot, long delta) {
+        // Sightings without a date cannot be placed on a day
+        if (snapshot.day() != null) {
+            add(snapshot.day(), new Cell(snapshot.birdId(), snapshot.location()), delta);
+        }
+    }
+
+    private void add(LocalDate day, Cell cell, long delta) {
+        counters.computeIfAbsent(day, d -> new ConcurrentHashMap<>())
+                .compute(cell, (key, count) -> {
+                    var total = (count == null ? 0 : count) + delta;
+                    return total > 0 ? total : null;
+                });
+    }
+
+    private record Cell(Long birdId, String location) {
+    }
+
+    // The fields a query does not group by are null
+    private record Group(Long birdId, String location, LocalDate day) {
+    }
+}
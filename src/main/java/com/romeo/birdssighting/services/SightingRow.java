@@ -0,0 +1,47 @@
+package com.romeo.birdssighting.services;
+
+import com.romeo.birdssighting.domain.GeoGrid;
+import com.romeo.birdssighting.events.SightingSnapshot;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+
+/**
+ * This class represents a sighting with an allocated id, written to the sighting table with plain JDBC
+ * instead of through Hibernate. The grid cell is derived the same way the Sighting entity derives it
+ */
+record SightingRow(long id, long birdId, String location, LocalDateTime dateTime, Double latitude, Double longitude) {
+
+    static final String INSERT_SQL = "INSERT INTO sighting "
+            + "(id, bird_id, location, date_time, latitude, longitude, grid_cell) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * This method is used to bind the row to the parameters of INSERT_SQL
+     */
+    void bind(PreparedStatement statement) throws SQLException {
+        statement.setLong(1, id);
+        statement.setLong(2, birdId);
+        statement.setString(3, location);
+        statement.setObject(4, dateTime == null ? null : Timestamp.valueOf(dateTime), Types.TIMESTAMP);
+        statement.setObject(5, latitude, Types.DOUBLE);
+        statement.setObject(6, longitude, Types.DOUBLE);
+        statement.setObject(7, gridCell(), Types.BIGINT);
+    }
+
+    /**
+     * This method is used to returns the grid cell of the coordinates, null without coordinates
+     */
+    Long gridCell() {
+        return GeoGrid.cellOf(latitude, longitude);
+    }
+
+    /**
+     * This method is used to returns what the sighting rollups need to know about the row
+     */
+    SightingSnapshot snapshot() {
+        return new SightingSnapshot(birdId, location, dateTime == null ? null : dateTime.toLocalDate());
+    }
+}
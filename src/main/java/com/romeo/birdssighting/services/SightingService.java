@@ -1,22 +1,37 @@
 package com.romeo.birdssighting.services;
 
 
+import com.romeo.birdssighting.config.MetricsConfig;
+import com.romeo.birdssighting.domain.Bird;
+import com.romeo.birdssighting.domain.GeoGrid;
 import com.romeo.birdssighting.domain.Sighting;
+import com.romeo.birdssighting.dto.SightingBatchResultDTO;
 import com.romeo.birdssighting.dto.SightingDTO;
+import com.romeo.birdssighting.dto.SightingPageDTO;
+import com.romeo.birdssighting.events.SightingChangeEvent;
+import com.romeo.birdssighting.events.SightingSnapshot;
+import com.romeo.birdssighting.exception.BadRequestException;
 import com.romeo.birdssighting.exception.ResourceNotFoundException;
 import com.romeo.birdssighting.mapper.BirdMapper;
 import com.romeo.birdssighting.mapper.SightingMapper;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
 import com.romeo.birdssighting.repositories.IBirdRepository;
 import com.romeo.birdssighting.repositories.ISightingRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 
 /**
@@ -25,12 +40,29 @@ import java.util.List;
  * for managing business logic related to sightings
  */
 
+@Timed(value = MetricsConfig.SERVICE_METRIC, histogram = true)
 @Transactional
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class SightingService {
 
+    // Page size used when the client does not send a limit
+    static final int DEFAULT_PAGE_SIZE = 50;
+    // Hard cap on the page size, larger limits are clamped to it
+    static final int MAX_PAGE_SIZE = 500;
+    // Number of exported sightings after which the persistence context is cleared
+    static final int EXPORT_CLEAR_INTERVAL = 500;
+    // Largest number of sightings accepted by one batch insert
+    static final int MAX_BATCH_SIZE = 10_000;
+    // Sightings flushed per chunk of a batch insert, matches hibernate.jdbc.batch_size
+    static final int BATCH_FLUSH_SIZE = 500;
+    // Largest number of grid cells an area search may cover, about 5 x 5 degrees
+    static final int MAX_SEARCH_CELLS = 2_500;
+    // Bounds of a time range missing from or to, within the timestamps of every supported database
+    static final LocalDateTime EARLIEST_DATE_TIME = LocalDateTime.of(1, 1, 1, 0, 0);
+    static final LocalDateTime LATEST_DATE_TIME = LocalDateTime.of(9999, 12, 31, 0, 0);
+
     // Dependency on ISightingRepository for database operations
     private final ISightingRepository iSightingRepository;
     // Dependency on SightingMapper for entity-DTO mapping
@@ -38,42 +70,162 @@ public class SightingService {
     // Dependency on IBirdRepository for database operations
     private final IBirdRepository iBirdRepository;
     private final BirdMapper birdMapper;
+    private final EntityManager entityManager;
+    // Publishes the sighting changes to the rollups once the transaction committed
+    private final ApplicationEventPublisher eventPublisher;
+    // Versions behind the ETags of the birds and of their sightings
+    private final ResourceVersions resourceVersions;
+    // Cached fields of the birds, a new sighting answers with its bird from there
+    private final BirdLookup birdLookup;
 
     /**
      * This method is used to save a sighting
      */
     public SightingDTO createSighting(Long birdId, SightingDTO sightingDTO) {
         log.info("Save a SightingDTO: {}", sightingDTO);
-        // Retrieve the Bird entity from the database
-        var bird = iBirdRepository.findById(birdId)
-                .orElseThrow(() -> new EntityNotFoundException("Bird with birdId not found" + birdId));
+        // The fields of the bird come from the bird cache, the sighting only needs a reference to it
+        var birdDTO = birdLookup.findById(birdId);
+        validateCoordinates(sightingDTO);
         // Convert SightingDTO to Sighting entity
         var sighting = sightingMapper.convertToEntity(sightingDTO);
         // Set the associated Bird for the Sighting
-        sighting.setBird(bird);
+        sighting.setBird(iBirdRepository.getReferenceById(birdId));
         // Save the Sighting entity
         sighting = iSightingRepository.save(sighting);
+        resourceVersions.birdChanged(birdId);
+        eventPublisher.publishEvent(SightingChangeEvent.added(List.of(SightingSnapshot.of(sighting))));
         // Convert the saved Sighting entity back to SightingDTO
         var savedSightingDTO = sightingMapper.convertToDTO(sighting);
-        // Set the BirdDTO in the SightingDTO
-        savedSightingDTO.setBird(birdMapper.convertToDTO(bird));
+        // Set the BirdDTO in the SightingDTO, without the sightings of the bird, which are not read
+        savedSightingDTO.setBird(birdDTO);
 
         return savedSightingDTO;
     }
 
+    /**
+     * This method is used to save many sightings of one bird in a single transaction
+     */
+    public SightingBatchResultDTO createSightings(Long birdId, List<SightingDTO> sightingDTOs) {
+        validateBatchSize(sightingDTOs);
+        if (!iBirdRepository.existsById(birdId)) {
+            throw new EntityNotFoundException("Bird with birdId not found" + birdId);
+        }
+
+        return insertSightings(sightingDTOs, sightingDTO -> iBirdRepository.getReferenceById(birdId));
+    }
+
+    /**
+     * This method is used to save many sightings of different birds in a single transaction.
+     * Every sighting has to reference its bird by bird.id
+     */
+    public SightingBatchResultDTO createSightings(List<SightingDTO> sightingDTOs) {
+        validateBatchSize(sightingDTOs);
+        var birdIds = new HashSet<Long>();
+        for (SightingDTO sightingDTO : sightingDTOs) {
+            if (sightingDTO.getBird() == null || sightingDTO.getBird().getId() == null) {
+                throw new BadRequestException("Every sighting of the batch needs a bird id");
+            }
+            birdIds.add(sightingDTO.getBird().getId());
+        }
+        // One query checks all the birds of the batch
+        birdIds.removeAll(iBirdRepository.findExistingIds(birdIds));
+        if (!birdIds.isEmpty()) {
+            throw new EntityNotFoundException("Birds with birdIds not found" + birdIds);
+        }
+
+        return insertSightings(sightingDTOs,
+                sightingDTO -> iBirdRepository.getReferenceById(sightingDTO.getBird().getId()));
+    }
+
+    private void validateBatchSize(List<SightingDTO> sightingDTOs) {
+        if (sightingDTOs.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException("A batch can contain at most " + MAX_BATCH_SIZE + " sightings");
+        }
+        sightingDTOs.forEach(SightingService::validateCoordinates);
+    }
+
+    // Coordinates are optional, but a sighting has either both of them or none
+    static void validateCoordinates(SightingDTO sightingDTO) {
+        validateCoordinates(sightingDTO.getLatitude(), sightingDTO.getLongitude());
+    }
+
+    static void validateCoordinates(Double latitude, Double longitude) {
+        if ((latitude == null) != (longitude == null)) {
+            throw new BadRequestException("A sighting needs both latitude and longitude or none of them");
+        }
+        if (latitude != null) {
+            validatePoint(latitude, longitude);
+        }
+    }
+
+    private static void validatePoint(double latitude, double longitude) {
+        if (!(latitude >= -90 && latitude <= 90 && longitude >= -180 && longitude <= 180)) {
+            throw new BadRequestException("Invalid coordinates: " + latitude + ", " + longitude);
+        }
+    }
+
+    // The ids come from the pooled sequence, so Hibernate sends each chunk as JDBC insert batches
+    private SightingBatchResultDTO insertSightings(List<SightingDTO> sightingDTOs,
+                                                   Function<SightingDTO, Bird> birdReference) {
+        var start = System.nanoTime();
+        List<Long> ids = new ArrayList<>(sightingDTOs.size());
+        List<SightingSnapshot> snapshots = new ArrayList<>(sightingDTOs.size());
+
+        for (int from = 0; from < sightingDTOs.size(); from += BATCH_FLUSH_SIZE) {
+            var chunk = sightingDTOs.subList(from, Math.min(from + BATCH_FLUSH_SIZE, sightingDTOs.size()));
+            List<Sighting> sightings = new ArrayList<>(chunk.size());
+            for (SightingDTO sightingDTO : chunk) {
+                var sighting = sightingMapper.convertToEntity(sightingDTO);
+                // A batch only inserts, ids sent by the client are ignored
+                sighting.setId(null);
+                // References are taken again for each chunk, the previous ones are detached by clear
+                sighting.setBird(birdReference.apply(sightingDTO));
+                sightings.add(sighting);
+            }
+            iSightingRepository.saveAll(sightings);
+            iSightingRepository.flush();
+            sightings.forEach(sighting -> {
+                ids.add(sighting.getId());
+                snapshots.add(SightingSnapshot.of(sighting));
+            });
+            // Keep the persistence context small, the chunk is already written
+            entityManager.clear();
+        }
+
+        var elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        log.info("Inserted {} sightings in {} ms ({} rows/s)",
+                ids.size(), elapsedMillis, ids.size() * 1000L / elapsedMillis);
+
+        resourceVersions.birdsChanged(snapshots.stream().map(SightingSnapshot::birdId).distinct().toList());
+        eventPublisher.publishEvent(SightingChangeEvent.added(snapshots));
+
+        var result = new SightingBatchResultDTO();
+        result.setInserted(ids.size());
+        result.setIds(ids);
+        return result;
+    }
+
     /**
      * This method is used to update sighting.
      */
     public SightingDTO updateSighting(Long id, SightingDTO sightingDTO) {
         log.info("Update a SightingDTO: {}", sightingDTO);
-        var sighting = iSightingRepository.findById(id)
+        // The bird is returned with the sighting and evicted after the commit, so it is fetched with it
+        var sighting = iSightingRepository.findWithBirdById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Sighting does not exist with id :" + id));
+        validateCoordinates(sightingDTO);
+        var before = SightingSnapshot.of(sighting);
 
         sighting.setLocation(sightingDTO.getLocation());
         sighting.setDateTime(sightingDTO.getDateTime());
+        sighting.setLatitude(sightingDTO.getLatitude());
+        sighting.setLongitude(sightingDTO.getLongitude());
         iSightingRepository.save(sighting);
+        resourceVersions.birdChanged(before.birdId());
+        eventPublisher.publishEvent(SightingChangeEvent.updated(before, SightingSnapshot.of(sighting)));
         sightingDTO = sightingMapper.convertToDTO(sighting);
-        var birdDTO = birdMapper.convertToDTO(sighting.getBird());
+        // Like createSighting, the bird is returned without its sightings
+        var birdDTO = birdMapper.convertToDTO(sighting.getBird(), BirdMapper.WITHOUT_SIGHTINGS);
         sightingDTO.setBird(birdDTO);
 
         return sightingDTO;
@@ -81,58 +233,215 @@ public class SightingService {
 
     /**
      * This method is used to returns all sightings by location.
+     * The rows are read straight into DTOs in a read-only transaction, which Hibernate runs with
+     * flush mode MANUAL: no entity, no dirty-checking snapshot and no persistence context entry per row
      */
+    @Transactional(readOnly = true)
     public List<SightingDTO> findByLocation(String location) {
         log.info("Get all sightings by location: {}", location);
-        var birds = iSightingRepository.findByLocation(location);
-        return new ArrayList<>(sightingMapper.convertToDTO(birds));
+        return iSightingRepository.findSightingDTOsByLocation(location);
     }
 
     /**
-     * This method is used to returns all sightings by date time.
+     * This method is used to returns all sightings by date time, read like findByLocation.
      */
+    @Transactional(readOnly = true)
     public List<SightingDTO> findByDateTime(LocalDateTime dateTime) {
         log.info("Get all sightings by dateTime: {}", dateTime);
-        var birds = iSightingRepository.findByDateTime(dateTime);
-        return new ArrayList<>(sightingMapper.convertToDTO(birds));
+        return iSightingRepository.findSightingDTOsByDateTime(dateTime);
     }
 
     /**
-     * This method is used to returns all sightings allocated to id of bird.
+     * This method is used to returns all sightings allocated to id of bird, read like findByLocation.
      */
+    @Transactional(readOnly = true)
     public List<SightingDTO> findAllSightingsByBirdId(Long birdId) {
         if (!iBirdRepository.existsById(birdId)) {
            throw new ResourceNotFoundException("Bird does not exist with id: " + birdId);
         }
 
-        var sightings = iSightingRepository.findByBirdId(birdId);
-        return new ArrayList<>(sightingMapper.convertToDTO(sightings));
+        return iSightingRepository.findSightingDTOsByBirdId(birdId);
     }
 
     /**
-     * This method is used to returns all sightings.
+     * This method is used to returns one keyset page of sightings ordered by id.
+     * The after token is the nextCursor of the previous page, null for the first page
      */
-    public List<SightingDTO> findAllSightings() {
-       var sightings = iSightingRepository.findAll();
+    public SightingPageDTO findSightingsPage(String after, Integer limit) {
+        var pageSize = resolvePageSize(limit);
+        // Fetch one extra row to know if there is a next page without a count query
+        var sightings = iSightingRepository.findPageAfterId(afterId(after), PageRequest.of(0, pageSize + 1));
 
-        return getAllSightings(sightings);
+        return toPage(sightings, pageSize, sighting -> new SightingCursor(sighting.getId()));
     }
 
-    private List<SightingDTO> getAllSightings(List<Sighting> sightings) {
-        List<SightingDTO> sightingDTOs = new ArrayList<>();
+    /**
+     * This method is used to returns one keyset page of the sightings of a bird and/or a location, ordered by id.
+     * The after token is the nextCursor of the previous page, null for the first page
+     */
+    public SightingPageDTO findSightingsPage(Long birdId, String location, String after, Integer limit) {
+        var pageSize = resolvePageSize(limit);
+        var pageable = PageRequest.of(0, pageSize + 1);
+        var sightings = birdId == null
+                ? iSightingRepository.findPageAfterIdByLocation(location, afterId(after), pageable)
+                : iSightingRepository.findPageAfterIdByBirdId(birdId, afterId(after), location, pageable);
+
+        return toPage(sightings, pageSize, sighting -> new SightingCursor(sighting.getId()));
+    }
 
-        for (Sighting sighting : sightings) {
-            var sightingDTO = sightingMapper.convertToDTO(sighting);
-            var birdDTO = birdMapper.convertToDTO(sighting.getBird());
-            sightingDTO.setBird(birdDTO);
-            sightingDTOs.add(sightingDTO);
+    // Id ordered pages start after the id of the cursor
+    private long afterId(String after) {
+        if (after == null) {
+            return 0L;
         }
+        var cursor = SightingCursor.decode(after);
+        if (cursor.dateTime() != null) {
+            throw new BadRequestException("The cursor belongs to a time range query: " + after);
+        }
+        return cursor.id();
+    }
+
+    /**
+     * This method is used to returns one keyset page of the sightings seen in [from, to),
+     * ordered by dateTime and id, optionally only for one bird and/or one location.
+     * Either bound may be null, the range is then open on that side.
+     * The after token is the nextCursor of the previous page, null for the first page
+     */
+    public SightingPageDTO findSightingsInRange(LocalDateTime from, LocalDateTime to, Long birdId,
+                                                String location, String after, Integer limit) {
+        // A missing bound leaves the range open on that side
+        from = from == null ? EARLIEST_DATE_TIME : from;
+        to = to == null ? LATEST_DATE_TIME : to;
+        if (!from.isBefore(to)) {
+            throw new BadRequestException("from must be before to");
+        }
+        var pageSize = resolvePageSize(limit);
+        // The first page starts at from, sighting ids are always positive
+        var cursor = new SightingCursor(from, 0L);
+        if (after != null) {
+            cursor = SightingCursor.decode(after);
+            if (cursor.dateTime() == null) {
+                throw new BadRequestException("The cursor does not belong to a time range query: " + after);
+            }
+        }
+        var pageable = PageRequest.of(0, pageSize + 1);
+        var sightings = birdId == null
+                ? iSightingRepository.findPageInRange(from, to, cursor.dateTime(), cursor.id(), location, pageable)
+                : iSightingRepository.findPageInRangeByBirdId(birdId, from, to, cursor.dateTime(), cursor.id(),
+                location, pageable);
+
+        return toPage(sightings, pageSize, sighting -> new SightingCursor(sighting.getDateTime(), sighting.getId()));
+    }
+
+    /**
+     * This method is used to returns one page of the sightings inside a box, ordered by id.
+     * Boxes crossing the antimeridian are not supported
+     */
+    public SightingPageDTO findSightingsInBox(double minLatitude, double minLongitude,
+                                              double maxLatitude, double maxLongitude,
+                                              String after, Integer limit) {
+        validatePoint(minLatitude, minLongitude);
+        validatePoint(maxLatitude, maxLongitude);
+        if (minLatitude > maxLatitude || minLongitude > maxLongitude) {
+            throw new BadRequestException("The minimum coordinates must not be above the maximum ones");
+        }
+        var cells = searchCells(minLatitude, minLongitude, maxLatitude, maxLongitude);
+        var pageSize = resolvePageSize(limit);
+        var sightings = iSightingRepository.findPageInBox(cells, minLatitude, minLongitude, maxLatitude,
+                maxLongitude, afterId(after), PageRequest.of(0, pageSize + 1));
+
+        return toPage(sightings, pageSize, sighting -> new SightingCursor(sighting.getId()));
+    }
+
+    /**
+     * This method is used to returns one page of the sightings at most radiusKm away from a point, ordered by id
+     */
+    public SightingPageDTO findSightingsNear(double latitude, double longitude, double radiusKm,
+                                             String after, Integer limit) {
+        validatePoint(latitude, longitude);
+        if (!(radiusKm > 0)) {
+            throw new BadRequestException("The radius must be positive");
+        }
+        var box = GeoGrid.boxAround(latitude, longitude, radiusKm);
+        var cells = searchCells(box[0], box[1], box[2], box[3]);
+        var angularRadius = radiusKm / GeoGrid.EARTH_RADIUS_KM;
+        var latitudeRadians = Math.toRadians(latitude);
+        var longitudeRadians = Math.toRadians(longitude);
+        var pageSize = resolvePageSize(limit);
+        var sightings = iSightingRepository.findPageNear(cells,
+                Math.cos(latitudeRadians) * Math.cos(longitudeRadians),
+                Math.cos(latitudeRadians) * Math.sin(longitudeRadians),
+                Math.sin(latitudeRadians),
+                Math.cos(Math.min(angularRadius, Math.PI)),
+                afterId(after), PageRequest.of(0, pageSize + 1));
 
-        return sightingDTOs;
+        return toPage(sightings, pageSize, sighting -> new SightingCursor(sighting.getId()));
+    }
+
+    private List<Long> searchCells(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude) {
+        if (GeoGrid.cellCount(minLatitude, minLongitude, maxLatitude, maxLongitude) > MAX_SEARCH_CELLS) {
+            throw new BadRequestException("The search area is too large");
+        }
+        return GeoGrid.cellsCovering(minLatitude, minLongitude, maxLatitude, maxLongitude);
+    }
+
+    // The repository returns up to pageSize + 1 sightings, the extra one only tells that a next page exists
+    private SightingPageDTO toPage(List<Sighting> sightings, int pageSize,
+                                   Function<Sighting, SightingCursor> cursorOf) {
+        var hasNext = sightings.size() > pageSize;
+        var page = hasNext ? sightings.subList(0, pageSize) : sightings;
+
+        var sightingPageDTO = new SightingPageDTO();
+        List<SightingDTO> sightingDTOs = new ArrayList<>(page.size());
+        // The birds are embedded without their sightings, so a page reads the same rows whatever the table size
+        page.forEach(sighting -> sightingDTOs.add(convertToDTOWithBirdFields(sighting)));
+        sightingPageDTO.setSightings(sightingDTOs);
+        if (hasNext) {
+            sightingPageDTO.setNextCursor(cursorOf.apply(page.get(page.size() - 1)).encode());
+        }
+        return sightingPageDTO;
+    }
+
+    private int resolvePageSize(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (limit < 1) {
+            throw new BadRequestException("Page limit must be positive: " + limit);
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    /**
+     * This method is used to pass every sighting, with the fields of its bird, to the consumer in id order.
+     * Rows are streamed from the database and the persistence context is cleared
+     * every EXPORT_CLEAR_INTERVAL rows, so memory use does not grow with the table.
+     * The sightings of the bird are not embedded, they would be read again after every clear
+     */
+    @Transactional(readOnly = true)
+    public long exportSightings(Consumer<SightingDTO> consumer) {
+        long count = 0;
+        try (var sightings = iSightingRepository.streamAllWithBird()) {
+            var iterator = sightings.iterator();
+            while (iterator.hasNext()) {
+                consumer.accept(convertToDTOWithBirdFields(iterator.next()));
+                if (++count % EXPORT_CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        log.info("Exported {} sightings", count);
+        return count;
+    }
+
+    private SightingDTO convertToDTOWithBirdFields(Sighting sighting) {
+        var sightingDTO = sightingMapper.convertToDTO(sighting);
+        sightingDTO.setBird(birdMapper.convertToDTO(sighting.getBird(), BirdMapper.WITHOUT_SIGHTINGS));
+        return sightingDTO;
     }
 
     /**
-     * This method is used to returns a SightingDTO object by id.
+     * This method is used to returns a SightingDTO object by id, without its bird, which is not read.
      */
     public SightingDTO findSighting(Long id) {
         var sighting = iSightingRepository.findById(id)
@@ -145,10 +454,16 @@ public class SightingService {
      * This method is used to delete sighting by id
      */
     public void deleteSighting(Long id) {
-        if (iSightingRepository.existsById(id)) {
-            iSightingRepository.deleteById(id);
-        } else  {
+        // The rollups and the location index need the bird, location and day of the deleted sighting,
+        // they are read as a projection, the sighting is not loaded
+        var snapshot = iSightingRepository.findRemovalRowById(id)
+                .map(SightingSnapshot::of)
+                .orElseThrow(() -> new ResourceNotFoundException("Sighting not exist with id :" + id));
+        // 0 when a concurrent request deleted it in between, that request published the removal
+        if (iSightingRepository.deleteSightingById(id) == 0) {
             throw new ResourceNotFoundException("Sighting not exist with id :" + id);
         }
+        resourceVersions.birdChanged(snapshot.birdId());
+        eventPublisher.publishEvent(SightingChangeEvent.removed(snapshot));
     }
 }
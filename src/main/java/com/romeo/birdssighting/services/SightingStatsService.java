@@ -0,0 +1,49 @@
+package com.romeo.birdssighting.services;
+
+import com.romeo.birdssighting.dto.SightingStatsDTO;
+import com.romeo.birdssighting.exception.BadRequestException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * This class represents a service component responsible
+ * for the sighting statistics, served from the in-memory rollups
+ */
+@Service
+@RequiredArgsConstructor
+public class SightingStatsService {
+
+    private final SightingRollupStore sightingRollupStore;
+
+    /**
+     * This method is used to returns the number of sightings between from and to (both days included),
+     * grouped by a comma separated list of bird, location and day
+     */
+    public List<SightingStatsDTO> getSightingStats(String groupBy, LocalDate from, LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new BadRequestException("from must not be after to");
+        }
+        return sightingRollupStore.query(parseGroupBy(groupBy), from, to);
+    }
+
+    private Set<SightingRollupDimension> parseGroupBy(String groupBy) {
+        Set<SightingRollupDimension> dimensions = EnumSet.noneOf(SightingRollupDimension.class);
+        for (String dimension : groupBy.split(",")) {
+            if (dimension.isBlank()) {
+                continue;
+            }
+            try {
+                dimensions.add(SightingRollupDimension.valueOf(dimension.trim().toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Cannot group sightings by: " + dimension);
+            }
+        }
+        return dimensions;
+    }
+}
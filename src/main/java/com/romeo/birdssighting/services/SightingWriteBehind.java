@@ -0,0 +1,236 @@
+package com.romeo.birdssighting.services;
+
+import com.romeo.birdssighting.dto.SightingDTO;
+import com.romeo.birdssighting.events.SightingChangeEvent;
+import com.romeo.birdssighting.exception.TooManyRequestsException;
+import com.romeo.birdssighting.repositories.IBirdRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class represents the optional write-behind ingestion of single sightings.
+ * A sighting gets its id from the sighting sequence, is validated and queued, and the request returns at once.
+ * One writer thread drains the queue in batches bounded by size and delay, each batch is inserted
+ * with JDBC batching and committed once. A full queue rejects sightings with 429.
+ * On shutdown the queue stops accepting sightings and is drained before the database goes away
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "birds.ingestion.write-behind.enabled", havingValue = "true")
+public class SightingWriteBehind implements SmartLifecycle {
+
+    // Stopped after the web server (phase DEFAULT_PHASE - 2048), so nothing is queued once the queue is drained
+    static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+    // How often an idle writer checks whether it has to stop
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final IBirdRepository iBirdRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ResourceVersions resourceVersions;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SightingIdAllocator sightingIdAllocator;
+
+    private final BlockingQueue<SightingRow> queue;
+    private final int batchSize;
+    private final long maxDelayNanos;
+    private final Duration drainTimeout;
+
+    private final Timer commitTimer;
+    private final DistributionSummary batchSizes;
+    private final Counter rejected;
+    private final Counter failed;
+
+    private volatile boolean accepting;
+    private volatile Thread writer;
+
+    public SightingWriteBehind(IBirdRepository iBirdRepository,
+                               JdbcTemplate jdbcTemplate,
+                               TransactionTemplate transactionTemplate,
+                               ResourceVersions resourceVersions,
+                               ApplicationEventPublisher eventPublisher,
+                               SightingIdAllocator sightingIdAllocator,
+                               MeterRegistry meterRegistry,
+                               @Value("${birds.ingestion.write-behind.capacity}") int capacity,
+                               @Value("${birds.ingestion.write-behind.batch-size}") int batchSize,
+                               @Value("${birds.ingestion.write-behind.max-delay}") Duration maxDelay,
+                               @Value("${birds.ingestion.write-behind.drain-timeout}") Duration drainTimeout) {
+        this.iBirdRepository = iBirdRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.resourceVersions = resourceVersions;
+        this.eventPublisher = eventPublisher;
+        this.sightingIdAllocator = sightingIdAllocator;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.drainTimeout = drainTimeout;
+
+        Gauge.builder("birds.ingestion.queue.depth", queue, BlockingQueue::size)
+                .description("Sightings accepted and not yet committed")
+                .register(meterRegistry);
+        this.commitTimer = Timer.builder("birds.ingestion.commit")
+                .description("Time to insert and commit one batch of queued sightings")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("birds.ingestion.batch.size")
+                .description("Sightings per committed batch")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("birds.ingestion.rejected")
+                .description("Sightings rejected because the queue was full")
+                .register(meterRegistry);
+        this.failed = Counter.builder("birds.ingestion.failed")
+                .description("Queued sightings that could not be written")
+                .register(meterRegistry);
+    }
+
+    /**
+     * This method is used to validate a sighting, give it an id and queue it for the writer
+     */
+    public SightingDTO enqueueSighting(Long birdId, SightingDTO sightingDTO) {
+        SightingService.validateCoordinates(sightingDTO);
+        if (!iBirdRepository.existsById(birdId)) {
+            throw new EntityNotFoundException("Bird with birdId not found" + birdId);
+        }
+        if (!accepting) {
+            rejected.increment();
+            throw new TooManyRequestsException("Sighting ingestion is stopping", 1);
+        }
+
+        // Ids are allocated up front, the client gets the id before the row is written
+        var id = sightingIdAllocator.nextId();
+        var pending = new SightingRow(id, birdId, sightingDTO.getLocation(), sightingDTO.getDateTime(),
+                sightingDTO.getLatitude(), sightingDTO.getLongitude());
+        if (!queue.offer(pending)) {
+            rejected.increment();
+            throw new TooManyRequestsException("Sighting ingestion queue is full", 1);
+        }
+
+        return new SightingDTO(id, pending.location(), pending.dateTime(), pending.latitude(), pending.longitude());
+    }
+
+    /**
+     * This method is used to returns the number of sightings waiting to be written
+     */
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    @Override
+    public void start() {
+        accepting = true;
+        writer = Thread.ofPlatform().name("sighting-writer").start(this::drain);
+    }
+
+    @Override
+    public void stop() {
+        accepting = false;
+        var current = writer;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.join(drainTimeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (current.isAlive()) {
+            log.warn("Stopping the sighting writer with {} sightings still queued", queue.size());
+            current.interrupt();
+        }
+        writer = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return writer != null;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    // The writer loop, it ends once ingestion stopped and the queue is empty
+    private void drain() {
+        try {
+            while (accepting || !queue.isEmpty()) {
+                var first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<SightingRow> batch = new ArrayList<>(batchSize);
+                batch.add(first);
+                var deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    var remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    var next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                try {
+                    write(batch);
+                } catch (RuntimeException e) {
+                    // The batch may be committed already, it is not retried and counted as lost
+                    log.error("Writing {} queued sightings failed", batch.size(), e);
+                    failed.increment(batch.size());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(List<SightingRow> batch) {
+        var start = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(SightingRow.INSERT_SQL, batch, batch.size(),
+                        (statement, pending) -> pending.bind(statement));
+                // The same after-commit notifications as SightingService.createSightings
+                resourceVersions.birdsChanged(batch.stream().map(SightingRow::birdId).distinct().toList());
+                eventPublisher.publishEvent(SightingChangeEvent.added(
+                        batch.stream().map(SightingRow::snapshot).toList()));
+            });
+            commitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            batchSizes.record(batch.size());
+        } catch (DataAccessException | TransactionException e) {
+            if (batch.size() > 1) {
+                // One bad row, such as a sighting of a bird deleted meanwhile, fails the whole batch,
+                // and so does a failed commit: write the rows one by one so only that row is lost
+                log.warn("Batch of {} queued sightings failed, retrying them one by one", batch.size(), e);
+                batch.forEach(pending -> write(List.of(pending)));
+            } else {
+                log.error("Dropping queued sighting {}", batch.get(0), e);
+                failed.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+-- Schema of the birds and their sightings.
+-- IF NOT EXISTS lets the script run on a database created by Hibernate before the migrations,
+-- such a database is baselined at version 0 and only gets the missing indexes
+
+CREATE TABLE IF NOT EXISTS bird (
+    id     BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name   VARCHAR(255),
+    color  VARCHAR(255),
+    weight INTEGER NOT NULL,
+    height INTEGER NOT NULL
+);
+
+-- Sighting ids are allocated by Hibernate in blocks of 50, the increment must match the allocation size
+CREATE SEQUENCE IF NOT EXISTS sighting_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS sighting (
+    id        BIGINT PRIMARY KEY,
+    bird_id   BIGINT NOT NULL,
+    location  VARCHAR(255),
+    date_time TIMESTAMP(6),
+    latitude  DOUBLE PRECISION,
+    longitude DOUBLE PRECISION,
+    grid_cell BIGINT,
+    CONSTRAINT fk_sighting_bird FOREIGN KEY (bird_id) REFERENCES bird (id)
+);
+
+-- findByName, findIdsByName and the CSV import bird lookup
+CREATE INDEX IF NOT EXISTS idx_bird_name ON bird (name);
+-- findByColor
+CREATE INDEX IF NOT EXISTS idx_bird_color ON bird (color);
+
+-- findByDateTime and the time range pages
+CREATE INDEX IF NOT EXISTS idx_sighting_date_time ON sighting (date_time);
+-- The sightings of a bird, also the index of the foreign key, deleting a bird does not scan the sightings
+CREATE INDEX IF NOT EXISTS idx_sighting_bird_id_date_time ON sighting (bird_id, date_time);
+-- The sightings inside a box or near a point, by GeoGrid cell
+CREATE INDEX IF NOT EXISTS idx_sighting_grid_cell_id ON sighting (grid_cell, id);
+-- The sightings of a location, in id order
+CREATE INDEX IF NOT EXISTS idx_sighting_location_id ON sighting (location, id);
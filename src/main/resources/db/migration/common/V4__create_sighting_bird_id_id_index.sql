@@ -0,0 +1,3 @@
+-- The sightings of a bird in id order: the chunks a bird is deleted in and the pages of its sightings.
+-- The (bird_id, date_time) index would sort all the sightings of the bird for every chunk or page
+CREATE INDEX IF NOT EXISTS idx_sighting_bird_id_id ON sighting (bird_id, id);
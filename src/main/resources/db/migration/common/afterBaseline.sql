@@ -0,0 +1,6 @@
+-- Runs once, when a database created by Hibernate before the migrations is baselined, before V1.
+-- The sighting table of the first release has neither the coordinates nor the grid cell,
+-- V1 skips the existing table and indexes the grid cell
+ALTER TABLE sighting ADD COLUMN IF NOT EXISTS latitude DOUBLE PRECISION;
+ALTER TABLE sighting ADD COLUMN IF NOT EXISTS longitude DOUBLE PRECISION;
+ALTER TABLE sighting ADD COLUMN IF NOT EXISTS grid_cell BIGINT;
@@ -0,0 +1,4 @@
+-- Case-insensitive lookups of a bird by name. Spring Data derives IgnoreCase finders
+-- as upper(name) = upper(?), so the index is on upper(name).
+-- H2 has no expression indexes, the script is only run on PostgreSQL
+CREATE INDEX IF NOT EXISTS idx_bird_name_ci ON bird (upper(name));
@@ -0,0 +1,4 @@
+-- A baselined database numbered its sightings with an identity column, sighting_seq is new and would
+-- hand out their ids again. The sequence is moved past the highest id, a whole allocation block above it.
+-- On a new database this only skips the first block
+SELECT setval('sighting_seq', coalesce(max(id), 0) + 50) FROM sighting;
@@ -0,0 +1,134 @@
+package com.romeo.birdssighting.integration.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.romeo.birdssighting.domain.Bird;
+import com.romeo.birdssighting.dto.SightingDTO;
+import com.romeo.birdssighting.repositories.IBirdRepository;
+import com.romeo.birdssighting.services.SightingService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureTestDatabase
+@ActiveProfiles("h2")
+public class ContentNegotiationTest {
+
+    // Plain JDK client, it neither asks for nor undoes compression by itself
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private IBirdRepository iBirdRepository;
+
+    @Autowired
+    private SightingService sightingService;
+
+    private Long birdId;
+    private Long rareBirdId;
+
+    @Before
+    public void setUp() {
+        var bird = new Bird();
+        bird.setName("Heron");
+        birdId = iBirdRepository.save(bird).getId();
+        List<SightingDTO> sightingDTOs = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            var sightingDTO = new SightingDTO();
+            sightingDTO.setLocation("Danube Delta " + (i % 10));
+            sightingDTO.setDateTime(LocalDateTime.of(2024, 5, 1, 6, 30).plusMinutes(i));
+            sightingDTO.setLatitude(45.1);
+            sightingDTO.setLongitude(29.5);
+            sightingDTOs.add(sightingDTO);
+        }
+        sightingService.createSightings(birdId, sightingDTOs);
+
+        var rareBird = new Bird();
+        rareBird.setName("Bittern");
+        rareBirdId = iBirdRepository.save(rareBird).getId();
+        sightingService.createSightings(rareBirdId, List.of(sightingDTOs.get(0)));
+    }
+
+    /**
+     * This method is used for testing that CBOR and Smile responses carry the same content as JSON
+     */
+    @Test
+    public void testGetSightings_BinaryFormats() throws Exception {
+        var json = get("/api/birds/" + birdId + "/sightings", "application/json", null);
+        var cbor = get("/api/birds/" + birdId + "/sightings", "application/cbor", null);
+        var smile = get("/api/birds/" + birdId + "/sightings", "application/x-jackson-smile", null);
+
+        assertEquals("application/cbor", cbor.headers().firstValue("Content-Type").orElseThrow());
+        assertEquals("application/x-jackson-smile", smile.headers().firstValue("Content-Type").orElseThrow());
+        JsonNode expected = objectMapper.readTree(json.body());
+        assertEquals(200, expected.size());
+        assertEquals("2024-05-01T06:30:00", expected.get(0).get("dateTime").asText());
+        assertEquals(expected, new CBORMapper().readTree(cbor.body()));
+        assertEquals(expected, new SmileMapper().readTree(smile.body()));
+        assertTrue(cbor.body().length < json.body().length);
+        assertTrue(smile.body().length < json.body().length);
+    }
+
+    /**
+     * This method is used for testing that large responses are gzip compressed when the client accepts it
+     */
+    @Test
+    public void testGetSightings_Compressed() throws Exception {
+        var plain = get("/api/birds/" + birdId + "/sightings", "application/json", null);
+        var compressed = get("/api/birds/" + birdId + "/sightings", "application/json", "gzip");
+        var small = get("/api/birds/" + rareBirdId + "/sightings", "application/json", "gzip");
+
+        assertFalse(plain.headers().firstValue("Content-Encoding").isPresent());
+        assertEquals("gzip", compressed.headers().firstValue("Content-Encoding").orElseThrow());
+        // Tomcat merges its accept-encoding into the Vary header of VaryAcceptFilter
+        assertEquals(List.of("accept", "accept-encoding"),
+                List.of(compressed.headers().firstValue("Vary").orElseThrow().toLowerCase(Locale.ROOT).split(",")));
+        assertTrue(compressed.headers().firstValue("ETag").orElseThrow().startsWith("W/"));
+        assertTrue(compressed.body().length < plain.body().length / 4);
+        try (var gzip = new GZIPInputStream(new ByteArrayInputStream(compressed.body()))) {
+            assertEquals(objectMapper.readTree(plain.body()), objectMapper.readTree(gzip.readAllBytes()));
+        }
+        // Below min-response-size compression costs more than it saves
+        assertFalse(small.headers().firstValue("Content-Encoding").isPresent());
+    }
+
+    private HttpResponse<byte[]> get(String path, String accept, String acceptEncoding) throws Exception {
+        var request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).header("Accept", accept);
+        if (acceptEncoding != null) {
+            request.header("Accept-Encoding", acceptEncoding);
+        }
+        var response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(200, response.statusCode());
+        return response;
+    }
+}
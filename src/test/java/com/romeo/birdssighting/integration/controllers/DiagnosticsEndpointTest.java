@@ -0,0 +1,55 @@
+package com.romeo.birdssighting.integration.controllers;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpMethod;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assert.assertEquals;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureTestDatabase
+@ActiveProfiles("h2")
+// The diagnostic endpoints are exposed the way an operator would, they are off by default
+@TestPropertySource(properties = "management.endpoints.web.exposure.include=queries,slowqueries,cachestats")
+public class DiagnosticsEndpointTest {
+
+    @Autowired
+    private TestRestTemplate testRestTemplate;
+
+    /**
+     * This method is used for testing that the query diagnostics are served and reset by the actuator
+     */
+    @Test
+    public void testQueriesEndpoint_ServesAndResetsTheDiagnostics() {
+        testRestTemplate.getForEntity("/api/birds", String.class);
+
+        var queries = testRestTemplate.getForObject("/actuator/queries?limit=5", String.class);
+        var reset = testRestTemplate.exchange("/actuator/queries", HttpMethod.DELETE, null, Void.class);
+        var slowQueries = testRestTemplate.getForEntity("/actuator/slowqueries", String.class);
+
+        assertThat(queries, containsString("\"fingerprint\":\"SELECT b FROM Bird b\""));
+        assertEquals(204, reset.getStatusCode().value());
+        assertEquals("[]", testRestTemplate.getForObject("/actuator/queries", String.class));
+        assertEquals(200, slowQueries.getStatusCode().value());
+    }
+
+    /**
+     * This method is used for testing that the usage of the bird caches is served by the actuator
+     */
+    @Test
+    public void testCacheStatsEndpoint_ServesTheBirdCaches() {
+        var cacheStats = testRestTemplate.getForObject("/actuator/cachestats", String.class);
+
+        assertThat(cacheStats, containsString("\"birdsById\""));
+    }
+}
@@ -0,0 +1,62 @@
+package com.romeo.birdssighting.integration.controllers;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assert.assertEquals;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureTestDatabase
+@AutoConfigureObservability
+@ActiveProfiles("h2")
+public class MetricsEndpointTest {
+
+    @Autowired
+    private TestRestTemplate testRestTemplate;
+
+    /**
+     * This method is used for testing that controller, service, repository, mapper, Hibernate cache
+     * and per request statement metrics are exposed on the prometheus endpoint
+     */
+    @Test
+    public void testPrometheusEndpoint_ExposesOperationMetrics() {
+        testRestTemplate.getForEntity("/api/birds", String.class);
+        testRestTemplate.getForEntity("/api/sightings", String.class);
+
+        var metrics = testRestTemplate.getForObject("/actuator/prometheus", String.class);
+
+        assertThat(metrics, containsString("http_server_requests_seconds_bucket{"));
+        assertThat(metrics, containsString("uri=\"/api/birds\""));
+        assertThat(metrics, containsString("birds_service_seconds_bucket{"));
+        assertThat(metrics, containsString("method=\"getAllBirds\""));
+        assertThat(metrics, containsString("spring_data_repository_invocations_seconds_bucket{"));
+        assertThat(metrics, containsString("repository=\"IBirdRepository\""));
+        assertThat(metrics, containsString("mapper_conversions_total{"));
+        assertThat(metrics, containsString("hibernate_second_level_cache_requests_total{"));
+        assertThat(metrics, containsString("region=\"bird\""));
+        assertThat(metrics, containsString("hibernate_cache_query_requests_total{"));
+        assertThat(metrics, containsString("birds_request_statements_count{uri=\"/api/birds\"}"));
+        assertThat(metrics, containsString("birds_request_query_time_seconds_count{uri=\"/api/birds\"}"));
+    }
+
+    /**
+     * This method is used for testing that the diagnostic endpoints are neither on the API nor exposed by default
+     */
+    @Test
+    public void testDiagnosticEndpoints_AreNotExposedByDefault() {
+        assertEquals(404, testRestTemplate.getForEntity("/api/internal/queries", String.class).getStatusCode().value());
+        assertEquals(404, testRestTemplate.getForEntity("/actuator/queries", String.class).getStatusCode().value());
+        assertEquals(404, testRestTemplate.getForEntity("/actuator/slowqueries", String.class).getStatusCode().value());
+        assertEquals(404, testRestTemplate.getForEntity("/actuator/cachestats", String.class).getStatusCode().value());
+    }
+}
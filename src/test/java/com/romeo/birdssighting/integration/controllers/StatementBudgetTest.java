@@ -0,0 +1,130 @@
+package com.romeo.birdssighting.integration.controllers;
+
+import com.romeo.birdssighting.domain.Bird;
+import com.romeo.birdssighting.dto.SightingDTO;
+import com.romeo.birdssighting.filter.QueryStatisticsFilter;
+import com.romeo.birdssighting.repositories.IBirdRepository;
+import com.romeo.birdssighting.services.SightingService;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+// The h2 profile enforces the statement budgets, a request over the budget of its endpoint fails the test
+@ActiveProfiles("h2")
+public class StatementBudgetTest {
+
+    private static final String SIGHTING = "{\"location\":\"London\",\"dateTime\":\"2024-05-01T06:30:00\"}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private IBirdRepository iBirdRepository;
+
+    @Autowired
+    private SightingService sightingService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Long birdId;
+    private List<Long> sightingIds;
+
+    @Before
+    public void setUp() {
+        var bird = new Bird();
+        bird.setName("Kingfisher");
+        bird.setColor("Blue");
+        birdId = iBirdRepository.save(bird).getId();
+        var sightingDTOs = List.of(sighting(0), sighting(1), sighting(2));
+        sightingIds = sightingService.createSightings(birdId, sightingDTOs).getIds();
+    }
+
+    /**
+     * This method is used for testing that the sighting reads stay within their budgets
+     */
+    @Test
+    public void testSightingReads_StayWithinBudget() throws Exception {
+        assertStatements(get("/api/sightings/" + sightingIds.get(0)), 1);
+        assertStatements(get("/api/birds/" + birdId + "/sightings"), 2);
+        assertStatements(get("/api/sightings").param("limit", "2"), 1);
+    }
+
+    /**
+     * This method is used for testing that the sighting writes stay within their budgets:
+     * one read and one write to update or delete a sighting
+     */
+    @Test
+    public void testSightingWrites_StayWithinBudget() throws Exception {
+        // The bird read and the insert, plus the sequence when the pooled ids run out, so only the budget is checked
+        clearCaches();
+        mockMvc.perform(post("/api/birds/" + birdId + "/sightings")
+                        .contentType(MediaType.APPLICATION_JSON).content(SIGHTING))
+                .andExpect(status().isOk());
+        assertStatements(put("/api/sighting/" + sightingIds.get(0))
+                .contentType(MediaType.APPLICATION_JSON).content(SIGHTING), 2);
+        assertStatements(delete("/api/sightings/" + sightingIds.get(1)), 2);
+    }
+
+    /**
+     * This method is used for testing that the bird endpoints stay within their budgets
+     */
+    @Test
+    public void testBirdEndpoints_StayWithinBudget() throws Exception {
+        assertStatements(get("/api/birds"), 1);
+        assertStatements(get("/api/birds/" + birdId), 2);
+        assertStatements(patch("/api/birds/" + birdId)
+                .contentType(MediaType.APPLICATION_JSON).content("{\"color\":\"Green\"}"), 2);
+        // No budget, it grows with the sightings: one chunk read and delete, and the bird delete
+        assertStatements(delete("/api/birds/" + birdId), 3);
+    }
+
+    private void assertStatements(RequestBuilder request, int statements) throws Exception {
+        clearCaches();
+        mockMvc.perform(request)
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(header().string(QueryStatisticsFilter.STATEMENT_COUNT_HEADER, String.valueOf(statements)));
+    }
+
+    // Budgets hold with cold caches, so the bird caches and the Hibernate second-level cache are emptied first
+    private void clearCaches() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    private static SightingDTO sighting(int minutes) {
+        var sightingDTO = new SightingDTO();
+        sightingDTO.setLocation("River Thames");
+        sightingDTO.setDateTime(LocalDateTime.of(2024, 5, 1, 6, 30).plusMinutes(minutes));
+        return sightingDTO;
+    }
+}
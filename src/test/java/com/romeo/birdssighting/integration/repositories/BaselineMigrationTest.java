@@ -0,0 +1,90 @@
+package com.romeo.birdssighting.integration.repositories;
+
+import com.romeo.birdssighting.repositories.ISightingRepository;
+import org.flywaydb.core.Flyway;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@ActiveProfiles("h2")
+// The schema of the first release is created before the migrations run, Hibernate validates the result on startup
+public class BaselineMigrationTest {
+
+    // The schema Hibernate generated for the first release, with one bird and one sighting
+    private static final String[] BASELINE = {
+            "CREATE TABLE bird (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, name VARCHAR(255), "
+                    + "color VARCHAR(255), weight INTEGER NOT NULL, height INTEGER NOT NULL)",
+            "CREATE TABLE sighting (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, bird_id BIGINT NOT NULL, "
+                    + "location VARCHAR(255), date_time TIMESTAMP(6), "
+                    + "CONSTRAINT fk_baseline_sighting_bird FOREIGN KEY (bird_id) REFERENCES bird (id))",
+            "INSERT INTO bird (name, color, weight, height) VALUES ('Robin', 'Red', 20, 14)",
+            "INSERT INTO sighting (bird_id, location, date_time) VALUES (1, 'London', TIMESTAMP '2024-05-01 06:30:00')"
+    };
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private ISightingRepository iSightingRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * This method is used for testing that a baselined database is migrated to a schema the entities validate against
+     */
+    @Test
+    public void testMigrate_BaselinedDatabase() {
+        var versions = Arrays.stream(flyway.info().applied())
+                .map(migration -> migration.getVersion().getVersion())
+                .toList();
+        var columns = jdbcTemplate.queryForList("SELECT column_name FROM information_schema.columns "
+                + "WHERE table_name = 'SIGHTING' AND column_name IN ('LATITUDE', 'LONGITUDE', 'GRID_CELL')");
+
+        assertEquals("0", versions.get(0));
+        assertEquals("4", versions.get(versions.size() - 1));
+        assertEquals(3, columns.size());
+    }
+
+    /**
+     * This method is used for testing that the sightings of a baselined database are kept, without coordinates
+     */
+    @Test
+    public void testMigrate_KeepsTheExistingSightings() {
+        var sighting = iSightingRepository.findById(1L).orElseThrow();
+
+        assertEquals("London", sighting.getLocation());
+        assertEquals(LocalDateTime.of(2024, 5, 1, 6, 30), sighting.getDateTime());
+        assertEquals(1L, sighting.getBird().getId().longValue());
+        assertNull(sighting.getLatitude());
+        assertNull(sighting.getGridCell());
+    }
+
+    @TestConfiguration
+    static class BaselineConfig {
+
+        @Bean
+        FlywayMigrationStrategy baselineThenMigrate() {
+            return flyway -> {
+                var jdbcTemplate = new JdbcTemplate(flyway.getConfiguration().getDataSource());
+                Arrays.stream(BASELINE).forEach(jdbcTemplate::execute);
+                flyway.migrate();
+            };
+        }
+    }
+}
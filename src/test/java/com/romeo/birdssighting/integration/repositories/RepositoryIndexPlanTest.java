@@ -0,0 +1,151 @@
+package com.romeo.birdssighting.integration.repositories;
+
+import com.romeo.birdssighting.domain.Bird;
+import com.romeo.birdssighting.domain.GeoGrid;
+import com.romeo.birdssighting.domain.Sighting;
+import com.romeo.birdssighting.repositories.IBirdRepository;
+import com.romeo.birdssighting.repositories.ISightingRepository;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertFalse;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@ActiveProfiles("h2")
+// Records the statements the finders run, their plans are read with EXPLAIN,
+// H2 reports a table read without an index as tableScan
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.romeo.birdssighting.integration.repositories.RepositoryIndexPlanTest$RecordingStatementInspector")
+public class RepositoryIndexPlanTest {
+
+    private static final LocalDateTime DATE_TIME = LocalDateTime.of(2024, 5, 1, 6, 30);
+
+    @Autowired
+    private IBirdRepository iBirdRepository;
+
+    @Autowired
+    private ISightingRepository iSightingRepository;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long birdId;
+
+    @Before
+    public void setUp() {
+        for (int i = 0; i < 20; i++) {
+            var bird = new Bird();
+            bird.setName("Bird " + i);
+            bird.setColor("Color " + i);
+            testEntityManager.persist(bird);
+            for (int j = 0; j < 5; j++) {
+                var sighting = new Sighting();
+                sighting.setBird(bird);
+                sighting.setLocation("Location " + j);
+                sighting.setDateTime(DATE_TIME.plusHours(i * 5L + j));
+                sighting.setLatitude(40.0 + i);
+                sighting.setLongitude(10.0 + j);
+                testEntityManager.persist(sighting);
+            }
+            birdId = bird.getId();
+        }
+        testEntityManager.flush();
+        testEntityManager.clear();
+        jdbcTemplate.execute("ANALYZE");
+        RecordingStatementInspector.STATEMENTS.clear();
+    }
+
+    /**
+     * This method is used for testing that the bird finders use the name and color indexes
+     */
+    @Test
+    public void testBirdFinders_UseIndexes() {
+        assertIndexBacked(() -> iBirdRepository.findByName("Bird 1"));
+        assertIndexBacked(() -> iBirdRepository.findByColor("Color 1"));
+        assertIndexBacked(() -> iBirdRepository.findIdsByName("Bird 1"));
+        assertIndexBacked(() -> iBirdRepository.findExistingIds(Set.of(birdId, birdId + 1)));
+    }
+
+    /**
+     * This method is used for testing that the sighting finders by bird, location and date time use indexes
+     */
+    @Test
+    public void testSightingFinders_UseIndexes() {
+        assertIndexBacked(() -> iSightingRepository.findByBirdId(birdId));
+        assertIndexBacked(() -> iSightingRepository.findByLocation("Location 1"));
+        assertIndexBacked(() -> iSightingRepository.findByDateTime(DATE_TIME));
+        assertIndexBacked(() -> iSightingRepository.findSightingDTOsByBirdId(birdId));
+        assertIndexBacked(() -> iSightingRepository.findSightingDTOsByLocation("Location 1"));
+        assertIndexBacked(() -> iSightingRepository.findSightingDTOsByDateTime(DATE_TIME));
+        assertIndexBacked(() -> iSightingRepository.findIdsByLocation("Location 1", 0L, PageRequest.of(0, 10)));
+        assertIndexBacked(() -> iSightingRepository.findRemovalRowsByBirdId(birdId, PageRequest.of(0, 2)));
+        assertIndexBacked(() -> iSightingRepository.deleteByBirdIdUpTo(birdId, 0L));
+        assertIndexBacked(() -> iSightingRepository.findRemovalRowById(1L));
+        assertIndexBacked(() -> iSightingRepository.deleteSightingById(0L));
+    }
+
+    /**
+     * This method is used for testing that the sighting pages use indexes
+     */
+    @Test
+    public void testSightingPages_UseIndexes() {
+        var page = PageRequest.of(0, 10);
+        var from = DATE_TIME.plusDays(1);
+        var to = DATE_TIME.plusDays(2);
+        var cells = GeoGrid.cellsCovering(45.0, 10.0, 46.0, 12.0);
+        assertIndexBacked(() -> iSightingRepository.findPageAfterId(0L, page));
+        assertIndexBacked(() -> iSightingRepository.findPageAfterIdByBirdId(birdId, 0L, null, page));
+        assertIndexBacked(() -> iSightingRepository.findPageAfterIdByLocation("Location 1", 0L, page));
+        assertIndexBacked(() -> iSightingRepository.findPageInRange(from, to, from, 0L, null, page));
+        assertIndexBacked(() -> iSightingRepository.findPageInRangeByBirdId(birdId, from, to, from, 0L, null, page));
+        assertIndexBacked(() -> iSightingRepository.findPageInBox(cells, 45.0, 10.0, 46.0, 12.0, 0L, page));
+        assertIndexBacked(() -> iSightingRepository.findPageNear(cells, 0.5, 0.5, 0.5, 0.9, 0L, page));
+    }
+
+    private void assertIndexBacked(Runnable finder) {
+        RecordingStatementInspector.STATEMENTS.clear();
+        finder.run();
+        testEntityManager.clear();
+        List<String> statements = List.copyOf(RecordingStatementInspector.STATEMENTS);
+        assertFalse(statements.isEmpty());
+        for (var statement : statements) {
+            var plan = jdbcTemplate.queryForObject("EXPLAIN " + statement, String.class);
+            assertThat(statement, plan, not(containsString("tableScan")));
+        }
+    }
+
+    public static class RecordingStatementInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.startsWith("select") || sql.startsWith("delete")) {
+                STATEMENTS.add(sql);
+            }
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.romeo.birdssighting.integration.repositories;
+
+import com.romeo.birdssighting.domain.Bird;
+import com.romeo.birdssighting.domain.Sighting;
+import com.romeo.birdssighting.repositories.ISightingRepository;
+import com.romeo.birdssighting.repositories.LocationCountRow;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@ActiveProfiles("h2")
+public class SightingRepositoryLocationQueryTest {
+
+    @Autowired
+    private ISightingRepository iSightingRepository;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    /**
+     * This method is used for testing that the distinct locations are counted and their sighting ids paged
+     */
+    @Test
+    public void testLocationQueries() {
+        var robin = new Bird();
+        robin.setName("Robin");
+        testEntityManager.persist(robin);
+        var first = persistSighting(robin, "London");
+        persistSighting(robin, "Paris");
+        var second = persistSighting(robin, "London");
+        var third = persistSighting(robin, "London");
+        persistSighting(robin, null);
+        testEntityManager.flush();
+
+        var rows = iSightingRepository.countPerLocation().stream()
+                .sorted(Comparator.comparing(LocationCountRow::getLocation))
+                .toList();
+        assertEquals(2, rows.size());
+        assertEquals("London", rows.get(0).getLocation());
+        assertEquals(3, rows.get(0).getSightingCount());
+        assertEquals(1, rows.get(1).getSightingCount());
+
+        assertEquals(List.of(first.getId(), second.getId()),
+                iSightingRepository.findIdsByLocation("London", 0L, PageRequest.of(0, 2)));
+        assertEquals(List.of(third.getId()),
+                iSightingRepository.findIdsByLocation("London", second.getId(), PageRequest.of(0, 2)));
+        // The match is exact, not a LIKE
+        assertEquals(List.of(), iSightingRepository.findIdsByLocation("Lond", 0L, PageRequest.of(0, 2)));
+    }
+
+    private Sighting persistSighting(Bird bird, String location) {
+        var sighting = new Sighting();
+        sighting.setBird(bird);
+        sighting.setLocation(location);
+        return testEntityManager.persist(sighting);
+    }
+}
@@ -0,0 +1,101 @@
+package com.romeo.birdssighting.integration.repositories;
+
+import com.romeo.birdssighting.domain.Bird;
+import com.romeo.birdssighting.domain.Sighting;
+import com.romeo.birdssighting.repositories.ISightingRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@ActiveProfiles("h2")
+public class SightingRepositoryRangeQueryTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2024, 5, 1, 0, 0);
+
+    private static final LocalDateTime TO = LocalDateTime.of(2024, 5, 2, 0, 0);
+
+    @Autowired
+    private ISightingRepository iSightingRepository;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    private Bird robin;
+
+    private Bird sparrow;
+
+    @Before
+    public void setUp() {
+        robin = persistBird("Robin");
+        sparrow = persistBird("Sparrow");
+        // Two sightings share the same dateTime so the id has to break the tie
+        persistSighting(robin, "London", FROM);
+        persistSighting(sparrow, "London", FROM.plusHours(1));
+        persistSighting(robin, "Paris", FROM.plusHours(1));
+        persistSighting(robin, "London", FROM.plusHours(2));
+        persistSighting(robin, "London", TO);
+        persistSighting(robin, "London", FROM.minusMinutes(1));
+        testEntityManager.flush();
+        testEntityManager.clear();
+    }
+
+    /**
+     * This method is used for testing that keyset pages walk the range in (dateTime, id) order without gaps
+     */
+    @Test
+    public void testFindPageInRange_WalksTheRangeInOrder() {
+        var firstPage = iSightingRepository.findPageInRange(FROM, TO, FROM, 0L, null, PageRequest.of(0, 2));
+        var last = firstPage.get(1);
+        var secondPage = iSightingRepository.findPageInRange(FROM, TO, last.getDateTime(), last.getId(), null,
+                PageRequest.of(0, 2));
+
+        assertEquals(List.of(FROM, FROM.plusHours(1)), firstPage.stream().map(Sighting::getDateTime).toList());
+        assertEquals(List.of(FROM.plusHours(1), FROM.plusHours(2)),
+                secondPage.stream().map(Sighting::getDateTime).toList());
+        assertEquals(4, firstPage.size() + secondPage.size());
+    }
+
+    /**
+     * This method is used for testing that the bird and location filters narrow the range
+     */
+    @Test
+    public void testFindPageInRangeByBirdId_FiltersByBirdAndLocation() {
+        var robinSightings = iSightingRepository.findPageInRangeByBirdId(robin.getId(), FROM, TO, FROM, 0L, null,
+                PageRequest.of(0, 10));
+        var robinInLondon = iSightingRepository.findPageInRangeByBirdId(robin.getId(), FROM, TO, FROM, 0L, "London",
+                PageRequest.of(0, 10));
+        var londonSightings = iSightingRepository.findPageInRange(FROM, TO, FROM, 0L, "London",
+                PageRequest.of(0, 10));
+
+        assertEquals(3, robinSightings.size());
+        assertEquals(2, robinInLondon.size());
+        assertEquals(3, londonSightings.size());
+    }
+
+    private Bird persistBird(String name) {
+        var bird = new Bird();
+        bird.setName(name);
+        return testEntityManager.persist(bird);
+    }
+
+    private void persistSighting(Bird bird, String location, LocalDateTime dateTime) {
+        var sighting = new Sighting();
+        sighting.setBird(bird);
+        sighting.setLocation(location);
+        sighting.setDateTime(dateTime);
+        testEntityManager.persist(sighting);
+    }
+}
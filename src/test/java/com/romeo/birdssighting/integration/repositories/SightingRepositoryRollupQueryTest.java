@@ -0,0 +1,68 @@
+package com.romeo.birdssighting.integration.repositories;
+
+import com.romeo.birdssighting.domain.Bird;
+import com.romeo.birdssighting.domain.Sighting;
+import com.romeo.birdssighting.repositories.ISightingRepository;
+import com.romeo.birdssighting.repositories.SightingRollupRow;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@ActiveProfiles("h2")
+public class SightingRepositoryRollupQueryTest {
+
+    @Autowired
+    private ISightingRepository iSightingRepository;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    /**
+     * This method is used for testing that sightings are counted per bird, location and calendar day
+     */
+    @Test
+    public void testCountPerBirdLocationAndDay() {
+        var robin = new Bird();
+        robin.setName("Robin");
+        testEntityManager.persist(robin);
+        var day = LocalDateTime.of(2024, 5, 1, 0, 0);
+        persistSighting(robin, "London", day.plusHours(6));
+        persistSighting(robin, "London", day.plusHours(23).plusMinutes(59));
+        persistSighting(robin, "London", day.plusDays(1));
+        persistSighting(robin, "Paris", day.plusHours(6));
+        persistSighting(robin, "Paris", null);
+        testEntityManager.flush();
+
+        var rows = iSightingRepository.countPerBirdLocationAndDay().stream()
+                .sorted(Comparator.comparing(SightingRollupRow::getLocation)
+                        .thenComparing(SightingRollupRow::getSightingDate))
+                .toList();
+
+        assertEquals(3, rows.size());
+        assertEquals(robin.getId(), rows.get(0).getBirdId());
+        assertEquals(LocalDate.of(2024, 5, 1), rows.get(0).getSightingDate());
+        assertEquals(2, rows.get(0).getSightingCount());
+        assertEquals(LocalDate.of(2024, 5, 2), rows.get(1).getSightingDate());
+        assertEquals("Paris", rows.get(2).getLocation());
+    }
+
+    private void persistSighting(Bird bird, String location, LocalDateTime dateTime) {
+        var sighting = new Sighting();
+        sighting.setBird(bird);
+        sighting.setLocation(location);
+        sighting.setDateTime(dateTime);
+        testEntityManager.persist(sighting);
+    }
+}
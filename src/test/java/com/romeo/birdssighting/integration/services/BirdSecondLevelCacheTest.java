@@ -0,0 +1,137 @@
+package com.romeo.birdssighting.integration.services;
+
+import com.romeo.birdssighting.config.CacheConfig;
+import com.romeo.birdssighting.config.HibernateCacheConfig;
+import com.romeo.birdssighting.config.HibernateStatisticsConfig;
+import com.romeo.birdssighting.domain.Bird;
+import com.romeo.birdssighting.dto.SightingDTO;
+import com.romeo.birdssighting.mapper.BirdMapper;
+import com.romeo.birdssighting.mapper.SightingMapper;
+import com.romeo.birdssighting.repositories.IBirdRepository;
+import com.romeo.birdssighting.repositories.ISightingRepository;
+import com.romeo.birdssighting.services.BirdLookup;
+import com.romeo.birdssighting.services.QueryDiagnostics;
+import com.romeo.birdssighting.services.ResourceVersions;
+import com.romeo.birdssighting.services.SightingService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@ActiveProfiles("h2")
+@Import({HibernateCacheConfig.class, SightingService.class, SightingMapper.class, BirdMapper.class,
+        CacheConfig.class, BirdLookup.class, ResourceVersions.class,
+        HibernateStatisticsConfig.class, QueryDiagnostics.class, SimpleMeterRegistry.class})
+// Every call runs in its own transaction and persistence context, only the second-level cache outlives them
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class BirdSecondLevelCacheTest {
+
+    @Autowired
+    private SightingService sightingService;
+
+    @Autowired
+    private IBirdRepository iBirdRepository;
+
+    @Autowired
+    private ISightingRepository iSightingRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Statistics statistics;
+    private Long birdId;
+
+    @Before
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        var bird = new Bird();
+        bird.setName("Robin");
+        bird.setColor("Red");
+        birdId = iBirdRepository.save(bird).getId();
+    }
+
+    @After
+    public void tearDown() {
+        iSightingRepository.deleteAllInBatch();
+        iBirdRepository.deleteAllInBatch();
+    }
+
+    /**
+     * This method is used for testing that saving a sighting takes its bird from the bird cache,
+     * and from the second-level cache when the bird cache misses
+     */
+    @Test
+    public void testCreateSighting_BirdFromTheCaches() {
+        // The pooled optimizer reads the sequence twice on first use, afterwards the measured calls
+        // take their ids from the allocated block and run the same statements
+        sightingService.createSighting(birdId, sighting());
+        sightingService.createSighting(birdId, sighting());
+        cacheManager.getCache(CacheConfig.BIRDS_BY_ID).clear();
+        entityManagerFactory.getCache().evictAll();
+
+        var coldStatements = countStatements(() -> sightingService.createSighting(birdId, sighting()));
+        cacheManager.getCache(CacheConfig.BIRDS_BY_ID).clear();
+        statistics.clear();
+        var secondLevelStatements = countStatements(() -> sightingService.createSighting(birdId, sighting()));
+
+        assertEquals(1, statistics.getDomainDataRegionStatistics(Bird.CACHE_REGION).getHitCount());
+        assertEquals(coldStatements - 1, secondLevelStatements);
+
+        var cachedStatements = countStatements(() -> sightingService.createSighting(birdId, sighting()));
+
+        // The bird is only referenced by the sighting, no statement reads it
+        assertEquals(secondLevelStatements, cachedStatements);
+    }
+
+    /**
+     * This method is used for testing that the bird queries are cached until a bird changes
+     */
+    @Test
+    public void testFindByName_QueryCache() {
+        iBirdRepository.findByName("Robin");
+
+        var cachedStatements = countStatements(() -> iBirdRepository.findByName("Robin"));
+
+        assertEquals(0, cachedStatements);
+        var bird = iBirdRepository.findById(birdId).orElseThrow();
+        bird.setName("European robin");
+        iBirdRepository.save(bird);
+        assertNull(iBirdRepository.findByName("Robin"));
+        assertEquals(birdId, iBirdRepository.findByName("European robin").getId());
+    }
+
+    private long countStatements(Runnable action) {
+        var before = statistics.getPrepareStatementCount();
+        action.run();
+        return statistics.getPrepareStatementCount() - before;
+    }
+
+    private static SightingDTO sighting() {
+        var sightingDTO = new SightingDTO();
+        sightingDTO.setLocation("Danube Delta");
+        sightingDTO.setDateTime(LocalDateTime.of(2024, 5, 1, 6, 30));
+        return sightingDTO;
+    }
+}
@@ -0,0 +1,153 @@
+package com.romeo.birdssighting.integration.services;
+
+import com.romeo.birdssighting.config.CacheConfig;
+import com.romeo.birdssighting.domain.Bird;
+import com.romeo.birdssighting.dto.BirdDTO;
+import com.romeo.birdssighting.dto.CacheStatsDTO;
+import com.romeo.birdssighting.dto.SightingDTO;
+import com.romeo.birdssighting.mapper.BirdMapper;
+import com.romeo.birdssighting.mapper.SightingMapper;
+import com.romeo.birdssighting.repositories.IBirdRepository;
+import com.romeo.birdssighting.repositories.ISightingRepository;
+import com.romeo.birdssighting.services.BirdCacheEvictor;
+import com.romeo.birdssighting.services.BirdLookup;
+import com.romeo.birdssighting.services.BirdService;
+import com.romeo.birdssighting.services.CacheStatsService;
+import com.romeo.birdssighting.services.ResourceVersions;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = {CacheConfig.class, BirdService.class, BirdLookup.class, BirdCacheEvictor.class,
+        CacheStatsService.class, ResourceVersions.class})
+@ImportAutoConfiguration(CacheAutoConfiguration.class)
+public class BirdServiceCacheTest {
+
+    @Autowired
+    private BirdService birdService;
+
+    @Autowired
+    private CacheStatsService cacheStatsService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @MockBean
+    private IBirdRepository iBirdRepository;
+
+    @MockBean
+    private ISightingRepository iSightingRepository;
+
+    @MockBean
+    private BirdMapper birdMapper;
+
+    @MockBean
+    private SightingMapper sightingMapper;
+
+    @MockBean
+    private TransactionTemplate transactionTemplate;
+
+    private final Bird bird = new Bird();
+
+    @Before
+    public void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        reset(iBirdRepository);
+        bird.setId(1L);
+        bird.setName("Robin");
+        bird.setColor("Red");
+        when(iBirdRepository.findById(1L)).thenReturn(Optional.of(bird));
+        when(iBirdRepository.findByName("Robin")).thenReturn(bird);
+        when(birdMapper.convertToDTO(any(Bird.class), eq(BirdMapper.WITHOUT_SIGHTINGS))).thenAnswer(invocation -> {
+            var birdDTO = new BirdDTO();
+            birdDTO.setId(invocation.<Bird>getArgument(0).getId());
+            return birdDTO;
+        });
+    }
+
+    /**
+     * This method is used for testing that repeated lookups are served from the cache
+     */
+    @Test
+    public void testLookupsAreCached() {
+        // The counters are cumulative, the cache is shared by all the tests of the class
+        var before = birdsByIdStats();
+
+        birdService.findBirdById(1L);
+        birdService.findBirdById(1L);
+        birdService.findBirdByName("Robin");
+        birdService.findBirdByName("Robin");
+
+        verify(iBirdRepository, times(1)).findById(1L);
+        verify(iBirdRepository, times(1)).findByName("Robin");
+        var after = birdsByIdStats();
+        assertEquals(1, after.getHitCount() - before.getHitCount());
+        assertEquals(1, after.getMissCount() - before.getMissCount());
+    }
+
+    /**
+     * This method is used for testing that a bird write invalidates the cached lookups
+     */
+    @Test
+    public void testDeleteBird_EvictsCachedBirds() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(iBirdRepository.deleteBirdById(1L)).thenReturn(1);
+        birdService.findBirdById(1L);
+
+        birdService.deleteBird(1L);
+        birdService.findBirdById(1L);
+
+        verify(iBirdRepository, times(2)).findById(1L);
+    }
+
+    /**
+     * This method is used for testing that only the fields of a bird are cached, its sightings are read on every lookup
+     */
+    @Test
+    public void testCachedBirds_DoNotHoldTheSightings() {
+        List<SightingDTO> sightings = List.of(new SightingDTO());
+        when(iSightingRepository.findSightingDTOsByBirdId(1L)).thenReturn(sightings);
+        when(birdMapper.withSightings(any(BirdDTO.class), eq(sightings))).thenCallRealMethod();
+
+        var first = birdService.findBirdById(1L);
+        var second = birdService.findBirdById(1L);
+
+        verify(iBirdRepository, times(1)).findById(1L);
+        verify(iSightingRepository, times(2)).findSightingDTOsByBirdId(1L);
+        assertEquals(sightings, second.getSightings());
+        // The response is a copy, the cached bird is left without sightings
+        assertNotSame(first, second);
+        assertNull(cacheManager.getCache(CacheConfig.BIRDS_BY_ID).get(1L, BirdDTO.class).getSightings());
+    }
+
+    private CacheStatsDTO birdsByIdStats() {
+        return cacheStatsService.getCacheStats().stream()
+                .filter(stats -> stats.getName().equals(CacheConfig.BIRDS_BY_ID))
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,134 @@
+package com.romeo.birdssighting.integration.services;
+
+import com.romeo.birdssighting.config.CacheConfig;
+import com.romeo.birdssighting.config.HibernateStatisticsConfig;
+import com.romeo.birdssighting.domain.Bird;
+import com.romeo.birdssighting.events.SightingChangeEvent;
+import com.romeo.birdssighting.exception.ResourceNotFoundException;
+import com.romeo.birdssighting.mapper.BirdMapper;
+import com.romeo.birdssighting.mapper.SightingMapper;
+import com.romeo.birdssighting.repositories.IBirdRepository;
+import com.romeo.birdssighting.repositories.ISightingRepository;
+import com.romeo.birdssighting.services.BirdCacheEvictor;
+import com.romeo.birdssighting.services.BirdLookup;
+import com.romeo.birdssighting.services.BirdService;
+import com.romeo.birdssighting.services.QueryDiagnostics;
+import com.romeo.birdssighting.services.ResourceVersions;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.stream.LongStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@ActiveProfiles("h2")
+@Import({BirdService.class, BirdLookup.class, BirdCacheEvictor.class, CacheConfig.class, BirdMapper.class,
+        SightingMapper.class, ResourceVersions.class,
+        HibernateStatisticsConfig.class, QueryDiagnostics.class, SimpleMeterRegistry.class})
+// deleteBird commits its chunks itself
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@RecordApplicationEvents
+public class BirdServiceDeleteTest {
+
+    // One full chunk of 10 000 sightings and a last one
+    private static final int SIGHTING_COUNT = 10_050;
+
+    @Autowired
+    private BirdService birdService;
+
+    @Autowired
+    private IBirdRepository iBirdRepository;
+
+    @Autowired
+    private ISightingRepository iSightingRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ApplicationEvents applicationEvents;
+
+    private Statistics statistics;
+
+    @Before
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @After
+    public void tearDown() {
+        iSightingRepository.deleteAllInBatch();
+        iBirdRepository.deleteAllInBatch();
+    }
+
+    /**
+     * This method is used for testing that a bird and all its sightings are deleted with set-based statements,
+     * without loading them as entities, and that other birds keep their sightings
+     */
+    @Test
+    public void testDeleteBird_DeletesSightingsInChunks() {
+        var birdId = saveBird("Robin", 0, SIGHTING_COUNT);
+        var otherBirdId = saveBird("Blackbird", SIGHTING_COUNT, 3);
+        statistics.clear();
+
+        birdService.deleteBird(birdId);
+
+        // Two chunk reads and deletes, and the bird delete
+        assertEquals(5, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        // Every deleted sighting is published, so the location index and the rollups do not reload the bird
+        assertEquals(SIGHTING_COUNT, applicationEvents.stream(SightingChangeEvent.class)
+                .mapToInt(event -> event.removed().size())
+                .sum());
+        assertFalse(iBirdRepository.existsById(birdId));
+        assertEquals(0, iSightingRepository.findByBirdId(birdId).size());
+        assertEquals(3, iSightingRepository.findByBirdId(otherBirdId).size());
+    }
+
+    /**
+     * This method is used for testing that deleting an unknown bird is answered with not found
+     */
+    @Test
+    public void testDeleteBird_NotFound() {
+        var birdId = saveBird("Robin", 0, 1);
+
+        assertThrows(ResourceNotFoundException.class, () -> birdService.deleteBird(birdId + 1));
+
+        assertEquals(1, iSightingRepository.count());
+    }
+
+    private Long saveBird(String name, long firstSightingId, int sightingCount) {
+        var bird = new Bird();
+        bird.setName(name);
+        var birdId = iBirdRepository.save(bird).getId();
+        // Ids far above the ones of the sequence
+        jdbcTemplate.batchUpdate("INSERT INTO sighting (id, bird_id, location) VALUES (?, ?, ?)",
+                LongStream.range(firstSightingId, firstSightingId + sightingCount)
+                        .mapToObj(id -> new Object[]{1_000_000 + id, birdId, "Location " + id % 10})
+                        .toList());
+        return birdId;
+    }
+}
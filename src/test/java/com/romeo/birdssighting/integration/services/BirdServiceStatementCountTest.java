@@ -0,0 +1,95 @@
+package com.romeo.birdssighting.integration.services;
+
+import com.romeo.birdssighting.config.CacheConfig;
+import com.romeo.birdssighting.config.HibernateStatisticsConfig;
+import com.romeo.birdssighting.domain.Bird;
+import com.romeo.birdssighting.domain.Sighting;
+import com.romeo.birdssighting.mapper.BirdMapper;
+import com.romeo.birdssighting.mapper.SightingMapper;
+import com.romeo.birdssighting.services.BirdCacheEvictor;
+import com.romeo.birdssighting.services.BirdLookup;
+import com.romeo.birdssighting.services.BirdService;
+import com.romeo.birdssighting.services.QueryDiagnostics;
+import com.romeo.birdssighting.services.ResourceVersions;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDateTime;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@ActiveProfiles("h2")
+@Import({BirdService.class, BirdLookup.class, BirdCacheEvictor.class, CacheConfig.class, BirdMapper.class,
+        SightingMapper.class, ResourceVersions.class,
+        HibernateStatisticsConfig.class, QueryDiagnostics.class, SimpleMeterRegistry.class})
+public class BirdServiceStatementCountTest {
+
+    @Autowired
+    private BirdService birdService;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * This method is used for testing that get all birds issues the same number
+     * of statements for a small and a large catalogue
+     */
+    @Test
+    public void testGetAllBirds_StatementCountDoesNotDependOnCatalogueSize() {
+        var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        persistBirds(5, 3);
+        var smallCatalogueStatements = countGetAllBirdsStatements(statistics, 5);
+
+        persistBirds(95, 3);
+        var largeCatalogueStatements = countGetAllBirdsStatements(statistics, 100);
+
+        assertEquals(1, smallCatalogueStatements);
+        assertEquals(1, largeCatalogueStatements);
+    }
+
+    private long countGetAllBirdsStatements(Statistics statistics, int expectedBirds) {
+        // Start from an empty persistence context, so every entity has to be loaded
+        testEntityManager.flush();
+        testEntityManager.clear();
+        statistics.clear();
+
+        var birds = birdService.getAllBirds();
+
+        assertEquals(expectedBirds, birds.size());
+        birds.forEach(bird -> assertEquals(3, bird.getSightings().size()));
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void persistBirds(int birds, int sightingsPerBird) {
+        for (int i = 0; i < birds; i++) {
+            var bird = new Bird();
+            bird.setName("Bird " + i);
+            bird.setColor("Color " + i);
+            testEntityManager.persist(bird);
+
+            for (int j = 0; j < sightingsPerBird; j++) {
+                var sighting = new Sighting();
+                sighting.setBird(bird);
+                sighting.setLocation("Location " + j);
+                sighting.setDateTime(LocalDateTime.now());
+                testEntityManager.persist(sighting);
+            }
+        }
+    }
+}
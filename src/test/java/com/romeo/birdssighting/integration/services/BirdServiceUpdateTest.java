@@ -0,0 +1,158 @@
+package com.romeo.birdssighting.integration.services;
+
+import com.romeo.birdssighting.config.CacheConfig;
+import com.romeo.birdssighting.config.HibernateStatisticsConfig;
+import com.romeo.birdssighting.domain.Bird;
+import com.romeo.birdssighting.domain.Sighting;
+import com.romeo.birdssighting.dto.BirdDTO;
+import com.romeo.birdssighting.dto.BirdPatchDTO;
+import com.romeo.birdssighting.dto.SightingDTO;
+import com.romeo.birdssighting.mapper.BirdMapper;
+import com.romeo.birdssighting.mapper.SightingMapper;
+import com.romeo.birdssighting.repositories.ISightingRepository;
+import com.romeo.birdssighting.services.BirdCacheEvictor;
+import com.romeo.birdssighting.services.BirdLookup;
+import com.romeo.birdssighting.services.BirdService;
+import com.romeo.birdssighting.services.QueryDiagnostics;
+import com.romeo.birdssighting.services.ResourceVersions;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@ActiveProfiles("h2")
+@Import({BirdService.class, BirdLookup.class, BirdCacheEvictor.class, CacheConfig.class, BirdMapper.class,
+        SightingMapper.class, ResourceVersions.class,
+        HibernateStatisticsConfig.class, QueryDiagnostics.class, SimpleMeterRegistry.class})
+public class BirdServiceUpdateTest {
+
+    private static final int SIGHTING_COUNT = 100;
+    private static final LocalDateTime DATE_TIME = LocalDateTime.of(2024, 5, 1, 6, 30);
+
+    @Autowired
+    private BirdService birdService;
+
+    @Autowired
+    private ISightingRepository iSightingRepository;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Long birdId;
+
+    @Before
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        var bird = new Bird();
+        bird.setName("Robin");
+        bird.setColor("Red");
+        testEntityManager.persist(bird);
+        for (int i = 0; i < SIGHTING_COUNT; i++) {
+            var sighting = new Sighting();
+            sighting.setBird(bird);
+            sighting.setLocation("Location " + i);
+            sighting.setDateTime(DATE_TIME.plusHours(i));
+            testEntityManager.persist(sighting);
+        }
+        birdId = bird.getId();
+        testEntityManager.flush();
+        testEntityManager.clear();
+    }
+
+    /**
+     * This method is used for testing that renaming a bird sent with all its sightings writes none of them
+     */
+    @Test
+    public void testUpdateBird_UnchangedSightingsAreNotWritten() {
+        var birdDTO = birdDTO(new ArrayList<>(iSightingRepository.findSightingDTOsByBirdId(birdId)));
+        birdDTO.setName("European robin");
+        statistics.clear();
+
+        var updated = birdService.updateBird(birdId, birdDTO);
+        testEntityManager.flush();
+
+        assertEquals(1, statistics.getEntityUpdateCount());
+        assertEquals(0, statistics.getEntityInsertCount());
+        assertEquals(0, statistics.getEntityDeleteCount());
+        assertEquals(SIGHTING_COUNT, updated.getSightings().size());
+        assertEquals(SIGHTING_COUNT, iSightingRepository.count());
+    }
+
+    /**
+     * This method is used for testing that only the changed, added and removed sightings are written
+     */
+    @Test
+    public void testUpdateBird_WritesTheDifference() {
+        var sightingDTOs = new ArrayList<>(iSightingRepository.findSightingDTOsByBirdId(birdId));
+        sightingDTOs.sort(Comparator.comparing(SightingDTO::getId));
+        var removedId = sightingDTOs.remove(0).getId();
+        var changed = sightingDTOs.get(0);
+        changed.setLocation("London");
+        sightingDTOs.add(new SightingDTO(null, "Paris", DATE_TIME, 48.85, 2.35));
+        statistics.clear();
+
+        var updated = birdService.updateBird(birdId, birdDTO(sightingDTOs));
+        testEntityManager.flush();
+
+        // The changed sighting only, the bird fields are the same
+        assertEquals(1, statistics.getEntityUpdateCount());
+        assertEquals(1, statistics.getEntityInsertCount());
+        assertEquals(SIGHTING_COUNT, updated.getSightings().size());
+        testEntityManager.clear();
+        assertNull(testEntityManager.find(Sighting.class, removedId));
+        assertEquals("London", testEntityManager.find(Sighting.class, changed.getId()).getLocation());
+        assertEquals(1, iSightingRepository.findSightingDTOsByLocation("Paris").size());
+    }
+
+    /**
+     * This method is used for testing that patching a bird neither reads nor writes its sightings
+     */
+    @Test
+    public void testPatchBird_LeavesSightingsAlone() {
+        var birdPatchDTO = new BirdPatchDTO();
+        birdPatchDTO.setColor("Orange");
+        statistics.clear();
+
+        var patched = birdService.patchBird(birdId, birdPatchDTO);
+        testEntityManager.flush();
+
+        assertEquals("Robin", patched.getName());
+        assertEquals("Orange", patched.getColor());
+        assertNull(patched.getSightings());
+        assertEquals(1, statistics.getEntityUpdateCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+        // The bird only
+        assertEquals(1, statistics.getEntityLoadCount());
+    }
+
+    private BirdDTO birdDTO(List<SightingDTO> sightingDTOs) {
+        var birdDTO = new BirdDTO();
+        birdDTO.setName("Robin");
+        birdDTO.setColor("Red");
+        birdDTO.setSightings(sightingDTOs);
+        return birdDTO;
+    }
+}
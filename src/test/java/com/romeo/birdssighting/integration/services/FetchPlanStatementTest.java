@@ -0,0 +1,210 @@
+package com.romeo.birdssighting.integration.services;
+
+import com.romeo.birdssighting.config.CacheConfig;
+import com.romeo.birdssighting.domain.Bird;
+import com.romeo.birdssighting.domain.Sighting;
+import com.romeo.birdssighting.dto.BirdPatchDTO;
+import com.romeo.birdssighting.dto.SightingDTO;
+import com.romeo.birdssighting.mapper.BirdMapper;
+import com.romeo.birdssighting.mapper.SightingMapper;
+import com.romeo.birdssighting.services.BirdCacheEvictor;
+import com.romeo.birdssighting.services.BirdLookup;
+import com.romeo.birdssighting.services.BirdService;
+import com.romeo.birdssighting.services.ResourceVersions;
+import com.romeo.birdssighting.services.SightingService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@ActiveProfiles("h2")
+@Import({SightingService.class, BirdService.class, BirdLookup.class, SightingMapper.class, BirdMapper.class,
+        BirdCacheEvictor.class, CacheConfig.class, ResourceVersions.class})
+// Pins the SQL of each use case, a changed fetch plan shows up as a changed statement list.
+// The statements are the ones Hibernate generates for H2
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.romeo.birdssighting.integration.services.FetchPlanStatementTest$RecordingStatementInspector")
+public class FetchPlanStatementTest {
+
+    private static final LocalDateTime DATE_TIME = LocalDateTime.of(2024, 5, 1, 6, 30);
+    private static final String SIGHTING_COLUMNS = "s1_0.id,s1_0.bird_id,s1_0.date_time,s1_0.grid_cell,"
+            + "s1_0.latitude,s1_0.location,s1_0.longitude";
+    private static final String SIGHTING_WITH_BIRD_COLUMNS = "s1_0.id,s1_0.bird_id,"
+            + "b1_0.id,b1_0.color,b1_0.height,b1_0.name,b1_0.weight,"
+            + "s1_0.date_time,s1_0.grid_cell,s1_0.latitude,s1_0.location,s1_0.longitude";
+    private static final String BIRD_COLUMNS = "b1_0.id,b1_0.color,b1_0.height,b1_0.name,b1_0.weight";
+
+    @Autowired
+    private SightingService sightingService;
+
+    @Autowired
+    private BirdService birdService;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Long birdId;
+    private Long sightingId;
+
+    @Before
+    public void setUp() {
+        for (int i = 0; i < 3; i++) {
+            var bird = new Bird();
+            bird.setName("Bird " + i);
+            bird.setColor("Color " + i);
+            testEntityManager.persist(bird);
+            for (int j = 0; j < 2; j++) {
+                var sighting = new Sighting();
+                sighting.setBird(bird);
+                sighting.setLocation("Location " + j);
+                sighting.setDateTime(DATE_TIME.plusHours(j));
+                testEntityManager.persist(sighting);
+                sightingId = sighting.getId();
+            }
+            birdId = bird.getId();
+        }
+        testEntityManager.flush();
+    }
+
+    /**
+     * This method is used for testing that the export reads the sightings with their birds in one query,
+     * and writes the birds without their sightings
+     */
+    @Test
+    public void testExportSightings_DoesNotReadTheSightingsOfTheBirds() {
+        List<SightingDTO> exported = new ArrayList<>();
+
+        assertStatements(() -> sightingService.exportSightings(exported::add),
+                "select " + SIGHTING_WITH_BIRD_COLUMNS + " from sighting s1_0 join bird b1_0 on b1_0.id=s1_0.bird_id "
+                        + "order by s1_0.id");
+
+        assertEquals(6, exported.size());
+        assertEquals("Bird 0", exported.get(0).getBird().getName());
+        assertNull(exported.get(0).getBird().getSightings());
+    }
+
+    /**
+     * This method is used for testing that a sighting read by id does not read its bird
+     */
+    @Test
+    public void testFindSighting_DoesNotReadTheBird() {
+        assertStatements(() -> sightingService.findSighting(sightingId),
+                "select " + SIGHTING_COLUMNS + " from sighting s1_0 where s1_0.id=?");
+    }
+
+    /**
+     * This method is used for testing that a sighting page reads the sightings with their birds in one query
+     */
+    @Test
+    public void testSightingPage_ReadsTheBirdsWithTheSightings() {
+        assertStatements(() -> sightingService.findSightingsPage(null, 10),
+                "select " + SIGHTING_WITH_BIRD_COLUMNS + " from sighting s1_0 join bird b1_0 on b1_0.id=s1_0.bird_id "
+                        + "where s1_0.id>? order by s1_0.id offset ? rows fetch first ? rows only");
+    }
+
+    /**
+     * This method is used for testing that the sightings by location are read without any entity
+     */
+    @Test
+    public void testFindByLocation_ReadsOnlyTheSightingColumns() {
+        assertStatements(() -> sightingService.findByLocation("Location 1"),
+                "select s1_0.id,s1_0.location,s1_0.date_time,s1_0.latitude,s1_0.longitude "
+                        + "from sighting s1_0 where s1_0.location=?");
+    }
+
+    /**
+     * This method is used for testing that a sighting update reads the sighting with its bird in one query,
+     * and not the other sightings of the bird
+     */
+    @Test
+    public void testUpdateSighting_ReadsTheSightingWithItsBird() {
+        var sightingDTO = new SightingDTO();
+        sightingDTO.setLocation("London");
+
+        assertStatements(() -> sightingService.updateSighting(sightingId, sightingDTO),
+                "select " + SIGHTING_WITH_BIRD_COLUMNS + " from sighting s1_0 join bird b1_0 on b1_0.id=s1_0.bird_id "
+                        + "where s1_0.id=?",
+                "update sighting set bird_id=?,date_time=?,grid_cell=?,latitude=?,location=?,longitude=? where id=?");
+    }
+
+    /**
+     * This method is used for testing that deleting a sighting reads only the values its removal needs, and not its bird
+     */
+    @Test
+    public void testDeleteSighting_LeavesTheBirdAlone() {
+        assertStatements(() -> sightingService.deleteSighting(sightingId),
+                "select s1_0.id,s1_0.bird_id,s1_0.location,cast(s1_0.date_time as date) from sighting s1_0 "
+                        + "where s1_0.id=?",
+                "delete from sighting s1_0 where s1_0.id=?");
+    }
+
+    /**
+     * This method is used for testing that all birds are read with their sightings in one query
+     */
+    @Test
+    public void testGetAllBirds_ReadsTheBirdsWithTheirSightings() {
+        assertStatements(() -> birdService.getAllBirds(),
+                "select b1_0.id,b1_0.color,b1_0.height,b1_0.name,s1_0.bird_id,s1_0.id,s1_0.date_time,s1_0.grid_cell,"
+                        + "s1_0.latitude,s1_0.location,s1_0.longitude,b1_0.weight "
+                        + "from bird b1_0 left join sighting s1_0 on b1_0.id=s1_0.bird_id");
+    }
+
+    /**
+     * This method is used for testing that a bird read by id reads its sightings as DTOs, and a patch does not read them
+     */
+    @Test
+    public void testBirdById_ReadsTheSightingsOnlyWhenReturned() {
+        assertStatements(() -> birdService.findBirdById(birdId),
+                "select " + BIRD_COLUMNS + " from bird b1_0 where b1_0.id=?",
+                "select s1_0.id,s1_0.location,s1_0.date_time,s1_0.latitude,s1_0.longitude "
+                        + "from sighting s1_0 where s1_0.bird_id=?");
+
+        var birdPatchDTO = new BirdPatchDTO();
+        birdPatchDTO.setColor("Orange");
+        assertStatements(() -> birdService.patchBird(birdId, birdPatchDTO),
+                "select " + BIRD_COLUMNS + " from bird b1_0 where b1_0.id=?",
+                "update bird set color=?,height=?,name=?,weight=? where id=?");
+    }
+
+    // Runs the use case on an empty persistence context and second-level cache, and flushes its writes
+    private void assertStatements(Runnable useCase, String... expected) {
+        testEntityManager.clear();
+        entityManagerFactory.getCache().evictAll();
+        RecordingStatementInspector.STATEMENTS.clear();
+        useCase.run();
+        testEntityManager.flush();
+        assertEquals(List.of(expected), List.copyOf(RecordingStatementInspector.STATEMENTS));
+    }
+
+    public static class RecordingStatementInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.romeo.birdssighting.integration.services;
+
+import com.romeo.birdssighting.config.HibernateStatisticsConfig;
+import com.romeo.birdssighting.domain.Bird;
+import com.romeo.birdssighting.repositories.IBirdRepository;
+import com.romeo.birdssighting.services.QueryDiagnostics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@ActiveProfiles("h2")
+@Import({HibernateStatisticsConfig.class, QueryDiagnostics.class, SimpleMeterRegistry.class})
+@TestPropertySource(properties = "birds.diagnostics.slow-query-threshold=20ms")
+public class QueryDiagnosticsTest {
+
+    @Autowired
+    private QueryDiagnostics queryDiagnostics;
+
+    @Autowired
+    private IBirdRepository iBirdRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Before
+    public void setUp() {
+        var bird = new Bird();
+        bird.setName("Robin");
+        bird.setColor("Red");
+        iBirdRepository.saveAndFlush(bird);
+        entityManager.createNativeQuery("CREATE ALIAS IF NOT EXISTS SLEEP_MS FOR \""
+                + QueryDiagnosticsTest.class.getName() + ".sleep\"").executeUpdate();
+        // The first statements of a context can be slower than the threshold
+        queryDiagnostics.clear();
+    }
+
+    @After
+    public void tearDown() {
+        queryDiagnostics.endRequest("/test");
+    }
+
+    /**
+     * This method is used for testing that executions of the same query with different parameters share a fingerprint
+     * and are counted for the request
+     */
+    @Test
+    public void testQueryExecuted_CountedByFingerprint() {
+        queryDiagnostics.startRequest("GET /test");
+
+        iBirdRepository.findByName("Robin");
+        iBirdRepository.findByName("Blackbird");
+        var statistics = queryDiagnostics.endRequest("/test");
+
+        assertEquals(2, statistics.getQueries());
+        assertThat(statistics.getStatements(), greaterThanOrEqualTo(2L));
+        var worstQueries = queryDiagnostics.getWorstQueries(null);
+        assertEquals(1, worstQueries.size());
+        assertEquals(2, worstQueries.get(0).getExecutionCount());
+        assertEquals(1, worstQueries.get(0).getRowCount());
+        assertEquals(1, meterRegistry.get(QueryDiagnostics.REQUEST_STATEMENTS_METRIC)
+                .tag("uri", "/test").summary().count());
+    }
+
+    /**
+     * This method is used for testing that a statement slower than the threshold is logged
+     * with its literals removed and the request it ran for
+     */
+    @Test
+    public void testSlowQuery_Logged() {
+        queryDiagnostics.startRequest("GET /test");
+
+        entityManager.createNativeQuery("SELECT SLEEP_MS(50)").getSingleResult();
+
+        var slowQueries = queryDiagnostics.getSlowQueries();
+        assertEquals(1, slowQueries.size());
+        assertEquals("SELECT SLEEP_MS(?)", slowQueries.get(0).getFingerprint());
+        assertThat(slowQueries.get(0).getFingerprint(), not(containsString("50")));
+        assertTrue(slowQueries.get(0).getTimeMillis() >= 50);
+        assertEquals("GET /test", slowQueries.get(0).getRequest());
+        assertEquals(1, queryDiagnostics.endRequest("/test").getSlowQueries());
+    }
+
+    public static int sleep(int millis) throws InterruptedException {
+        Thread.sleep(millis);
+        return millis;
+    }
+}
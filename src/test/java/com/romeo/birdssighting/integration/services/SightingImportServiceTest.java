@@ -0,0 +1,129 @@
+package com.romeo.birdssighting.integration.services;
+
+import com.romeo.birdssighting.domain.Bird;
+import com.romeo.birdssighting.domain.GeoGrid;
+import com.romeo.birdssighting.dto.SightingImportRejectionDTO;
+import com.romeo.birdssighting.exception.BadRequestException;
+import com.romeo.birdssighting.repositories.IBirdRepository;
+import com.romeo.birdssighting.repositories.ISightingRepository;
+import com.romeo.birdssighting.services.ResourceVersions;
+import com.romeo.birdssighting.services.SightingIdAllocator;
+import com.romeo.birdssighting.services.SightingImportService;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.StringReader;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@ActiveProfiles("h2")
+@Import({SightingImportService.class, SightingIdAllocator.class, ResourceVersions.class})
+@TestPropertySource(properties = "birds.ingestion.import.batch-size=2")
+// Every batch commits on its own, the test data cannot live in a rolled back test transaction
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class SightingImportServiceTest {
+
+    @Autowired
+    private SightingImportService sightingImportService;
+
+    @Autowired
+    private IBirdRepository iBirdRepository;
+
+    @Autowired
+    private ISightingRepository iSightingRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @After
+    public void tearDown() {
+        iSightingRepository.deleteAllInBatch();
+        iBirdRepository.deleteAllInBatch();
+    }
+
+    /**
+     * This method is used for testing that valid rows are imported in batches and invalid rows are reported
+     */
+    @Test
+    public void testImportSightings() {
+        var robinId = saveBird("Robin");
+        saveBird("Swift");
+        var csv = "Location,Observer,Bird,date_time,latitude,longitude\r\n"
+                + "Danube Delta,ann,Robin,2024-05-01T06:30,45.1,29.5\r\n"
+                + "\"Lake \"\"Big\"\", north,\nshore\",bob, Swift ,2024-05-01 07:45:10,,\r\n"
+                + "\r\n"
+                + "Danube Delta,ann,Heron,2024-05-02T06:30,,\n"
+                + "Danube Delta,ann,Robin,yesterday,,\n"
+                + "Danube Delta,ann,Robin,2024-05-02T06:30,north,29.5\n"
+                + "Danube Delta,ann,Robin,2024-05-02T06:30,45.1,\n"
+                + "Danube Delta,ann\n"
+                + "Carpathians,ann,Robin,,,";
+
+        var result = sightingImportService.importSightings(new StringReader(csv));
+
+        assertTrue(result.isFinished());
+        assertEquals(8, result.getRowsRead());
+        assertEquals(3, result.getImported());
+        assertEquals(5, result.getRejected());
+        assertEquals(List.of(
+                new SightingImportRejectionDTO(6, "Unknown bird: Heron"),
+                new SightingImportRejectionDTO(7, "Invalid date_time: yesterday"),
+                new SightingImportRejectionDTO(8, "Invalid latitude: north"),
+                new SightingImportRejectionDTO(9, "A sighting needs both latitude and longitude or none of them"),
+                new SightingImportRejectionDTO(10, "Expected at least 6 fields, found 2")), result.getRejectedRows());
+
+        assertEquals(3, iSightingRepository.count());
+        var delta = iSightingRepository.findByLocation("Danube Delta").get(0);
+        assertEquals(robinId, delta.getBird().getId());
+        assertEquals(LocalDateTime.of(2024, 5, 1, 6, 30), delta.getDateTime());
+        assertEquals(GeoGrid.cellOf(45.1, 29.5), jdbcTemplate.queryForObject(
+                "SELECT grid_cell FROM sighting WHERE id = ?", Long.class, delta.getId()));
+        var lake = iSightingRepository.findByLocation("Lake \"Big\", north,\nshore").get(0);
+        assertEquals(LocalDateTime.of(2024, 5, 1, 7, 45, 10), lake.getDateTime());
+        assertEquals(1, iSightingRepository.findByLocation("Carpathians").size());
+        assertTrue(sightingImportService.findRunningImports().isEmpty());
+    }
+
+    /**
+     * This method is used for testing that a CSV without the bird column is refused
+     */
+    @Test
+    public void testImportSightings_MissingColumn() {
+        assertThrows(BadRequestException.class,
+                () -> sightingImportService.importSightings(new StringReader("location,date_time\nDelta,\n")));
+    }
+
+    /**
+     * This method is used for testing that an unterminated quote stops the import after the committed batches
+     */
+    @Test
+    public void testImportSightings_UnterminatedQuote() {
+        saveBird("Robin");
+        var csv = "bird,location\nRobin,Delta 1\nRobin,Delta 2\nRobin,\"Delta 3\nRobin,Delta 4\n";
+
+        assertThrows(BadRequestException.class, () -> sightingImportService.importSightings(new StringReader(csv)));
+        assertEquals(2, iSightingRepository.count());
+    }
+
+    private Long saveBird(String name) {
+        var bird = new Bird();
+        bird.setName(name);
+        return iBirdRepository.save(bird).getId();
+    }
+}
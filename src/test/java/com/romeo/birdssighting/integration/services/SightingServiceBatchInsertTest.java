@@ -0,0 +1,79 @@
+package com.romeo.birdssighting.integration.services;
+
+import com.romeo.birdssighting.config.HibernateStatisticsConfig;
+import com.romeo.birdssighting.domain.Bird;
+import com.romeo.birdssighting.dto.SightingDTO;
+import com.romeo.birdssighting.mapper.BirdMapper;
+import com.romeo.birdssighting.mapper.SightingMapper;
+import com.romeo.birdssighting.repositories.ISightingRepository;
+import com.romeo.birdssighting.services.BirdLookup;
+import com.romeo.birdssighting.services.QueryDiagnostics;
+import com.romeo.birdssighting.services.ResourceVersions;
+import com.romeo.birdssighting.services.SightingService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@ActiveProfiles("h2")
+@Import({SightingService.class, SightingMapper.class, BirdMapper.class, BirdLookup.class, ResourceVersions.class,
+        HibernateStatisticsConfig.class, QueryDiagnostics.class, SimpleMeterRegistry.class})
+public class SightingServiceBatchInsertTest {
+
+    @Autowired
+    private SightingService sightingService;
+
+    @Autowired
+    private ISightingRepository iSightingRepository;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * This method is used for testing that a batch of sightings is written with JDBC batches
+     */
+    @Test
+    public void testCreateSightings_UsesJdbcBatching() {
+        var bird = new Bird();
+        bird.setName("Robin");
+        testEntityManager.persistAndFlush(bird);
+        testEntityManager.clear();
+
+        List<SightingDTO> sightingDTOs = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            var sightingDTO = new SightingDTO();
+            sightingDTO.setLocation("Location " + i);
+            sightingDTO.setDateTime(LocalDateTime.now());
+            sightingDTOs.add(sightingDTO);
+        }
+        var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        var result = sightingService.createSightings(bird.getId(), sightingDTOs);
+
+        assertEquals(2_000, result.getInserted());
+        assertEquals(2_000, result.getIds().stream().distinct().count());
+        assertEquals(2_000, iSightingRepository.count());
+        // Without batching this would be one statement per row
+        assertTrue(statistics.getPrepareStatementCount() < 100);
+    }
+}
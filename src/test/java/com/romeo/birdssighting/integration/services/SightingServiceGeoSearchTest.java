@@ -0,0 +1,108 @@
+package com.romeo.birdssighting.integration.services;
+
+import com.romeo.birdssighting.domain.Bird;
+import com.romeo.birdssighting.dto.SightingDTO;
+import com.romeo.birdssighting.mapper.BirdMapper;
+import com.romeo.birdssighting.mapper.SightingMapper;
+import com.romeo.birdssighting.services.BirdLookup;
+import com.romeo.birdssighting.services.ResourceVersions;
+import com.romeo.birdssighting.services.SightingService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@ActiveProfiles("h2")
+@Import({SightingService.class, SightingMapper.class, BirdMapper.class, BirdLookup.class, ResourceVersions.class})
+public class SightingServiceGeoSearchTest {
+
+    @Autowired
+    private SightingService sightingService;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    private Long birdId;
+
+    @Before
+    public void setUp() {
+        var bird = new Bird();
+        bird.setName("Robin");
+        birdId = testEntityManager.persistAndFlush(bird).getId();
+        List<SightingDTO> sightingDTOs = new ArrayList<>();
+        // Trafalgar Square, about 3.4 km from it, about 8 km from it, Paris and one without coordinates
+        sightingDTOs.add(sighting("Trafalgar Square", 51.5080, -0.1281));
+        sightingDTOs.add(sighting("Regent's Park", 51.5313, -0.1570));
+        sightingDTOs.add(sighting("Greenwich", 51.4826, -0.0077));
+        sightingDTOs.add(sighting("Paris", 48.8566, 2.3522));
+        sightingDTOs.add(sighting("Unknown", null, null));
+        sightingService.createSightings(birdId, sightingDTOs);
+    }
+
+    /**
+     * This method is used for testing that a radius search returns only the sightings inside the circle
+     */
+    @Test
+    public void testFindSightingsNear() {
+        var within5Km = sightingService.findSightingsNear(51.5080, -0.1281, 5, null, null);
+        var within10Km = sightingService.findSightingsNear(51.5080, -0.1281, 10, null, null);
+
+        assertEquals(List.of("Trafalgar Square", "Regent's Park"), locations(within5Km.getSightings()));
+        assertEquals(3, within10Km.getSightings().size());
+    }
+
+    /**
+     * This method is used for testing that a box search is paged
+     */
+    @Test
+    public void testFindSightingsInBox_IsPaged() {
+        var firstPage = sightingService.findSightingsInBox(51.4, -0.2, 51.6, 0.0, null, 2);
+        var secondPage = sightingService.findSightingsInBox(51.4, -0.2, 51.6, 0.0, firstPage.getNextCursor(), 2);
+
+        assertEquals(2, firstPage.getSightings().size());
+        assertNotNull(firstPage.getNextCursor());
+        assertEquals(List.of("Greenwich"), locations(secondPage.getSightings()));
+        assertNull(secondPage.getNextCursor());
+    }
+
+    /**
+     * This method is used for testing that moving a sighting moves it to its new grid cell
+     */
+    @Test
+    public void testUpdateSighting_MovesTheSighting() {
+        var paris = sightingService.findSightingsNear(48.8566, 2.3522, 1, null, null).getSightings().get(0);
+        var moved = sighting("Paris", 51.5081, -0.1282);
+
+        sightingService.updateSighting(paris.getId(), moved);
+        testEntityManager.flush();
+
+        assertEquals(0, sightingService.findSightingsNear(48.8566, 2.3522, 1, null, null).getSightings().size());
+        assertEquals(2, sightingService.findSightingsNear(51.5080, -0.1281, 1, null, null).getSightings().size());
+    }
+
+    private static SightingDTO sighting(String location, Double latitude, Double longitude) {
+        var sightingDTO = new SightingDTO();
+        sightingDTO.setLocation(location);
+        sightingDTO.setLatitude(latitude);
+        sightingDTO.setLongitude(longitude);
+        return sightingDTO;
+    }
+
+    private static List<String> locations(List<SightingDTO> sightings) {
+        return sightings.stream().map(SightingDTO::getLocation).toList();
+    }
+}
@@ -0,0 +1,111 @@
+package com.romeo.birdssighting.integration.services;
+
+import com.romeo.birdssighting.config.HibernateStatisticsConfig;
+import com.romeo.birdssighting.domain.Bird;
+import com.romeo.birdssighting.domain.Sighting;
+import com.romeo.birdssighting.dto.SightingDTO;
+import com.romeo.birdssighting.mapper.BirdMapper;
+import com.romeo.birdssighting.mapper.SightingMapper;
+import com.romeo.birdssighting.services.BirdLookup;
+import com.romeo.birdssighting.services.QueryDiagnostics;
+import com.romeo.birdssighting.services.ResourceVersions;
+import com.romeo.birdssighting.services.SightingService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@ActiveProfiles("h2")
+@Import({SightingService.class, SightingMapper.class, BirdMapper.class, BirdLookup.class, ResourceVersions.class,
+        HibernateStatisticsConfig.class, QueryDiagnostics.class, SimpleMeterRegistry.class})
+// The reads have to start their own read-only transaction, as they do in production
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class SightingServiceProjectionTest {
+
+    private static final LocalDateTime DATE_TIME = LocalDateTime.of(2024, 5, 1, 6, 30);
+
+    @Autowired
+    private SightingService sightingService;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Long birdId;
+
+    @Before
+    public void setUp() {
+        birdId = transactionTemplate.execute(status -> {
+            var bird = new Bird();
+            bird.setName("Robin");
+            testEntityManager.persist(bird);
+            persistSighting(bird, "London", DATE_TIME, 51.5, -0.12);
+            persistSighting(bird, "London", DATE_TIME.plusHours(1), null, null);
+            persistSighting(bird, "Paris", DATE_TIME, null, null);
+            return bird.getId();
+        });
+    }
+
+    /**
+     * This method is used for testing that the reads return the sightings without loading any entity
+     */
+    @Test
+    public void testReads_DoNotLoadEntities() {
+        var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        var byLocation = sorted(sightingService.findByLocation("London"));
+        var byDateTime = sightingService.findByDateTime(DATE_TIME);
+        var byBird = sightingService.findAllSightingsByBirdId(birdId);
+
+        assertEquals(2, byLocation.size());
+        assertEquals(DATE_TIME, byLocation.get(0).getDateTime());
+        assertEquals(51.5, byLocation.get(0).getLatitude(), 0);
+        assertNull(byLocation.get(1).getLongitude());
+        // As before, the sightings are returned without their bird
+        assertNull(byLocation.get(0).getBird());
+        assertEquals(List.of("London", "Paris"), byDateTime.stream().map(SightingDTO::getLocation).sorted().toList());
+        assertEquals(3, byBird.size());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getFlushCount());
+    }
+
+    private void persistSighting(Bird bird, String location, LocalDateTime dateTime, Double latitude, Double longitude) {
+        var sighting = new Sighting();
+        sighting.setBird(bird);
+        sighting.setLocation(location);
+        sighting.setDateTime(dateTime);
+        sighting.setLatitude(latitude);
+        sighting.setLongitude(longitude);
+        testEntityManager.persist(sighting);
+    }
+
+    private static List<SightingDTO> sorted(List<SightingDTO> sightings) {
+        return sightings.stream().sorted(Comparator.comparing(SightingDTO::getDateTime)).toList();
+    }
+}
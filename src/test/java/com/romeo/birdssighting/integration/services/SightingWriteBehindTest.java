@@ -0,0 +1,186 @@
+package com.romeo.birdssighting.integration.services;
+
+import com.romeo.birdssighting.domain.Bird;
+import com.romeo.birdssighting.domain.GeoGrid;
+import com.romeo.birdssighting.dto.SightingDTO;
+import com.romeo.birdssighting.events.SightingChangeEvent;
+import com.romeo.birdssighting.events.SightingSnapshot;
+import com.romeo.birdssighting.exception.TooManyRequestsException;
+import com.romeo.birdssighting.mapper.BirdMapper;
+import com.romeo.birdssighting.mapper.SightingMapper;
+import com.romeo.birdssighting.repositories.IBirdRepository;
+import com.romeo.birdssighting.repositories.ISightingRepository;
+import com.romeo.birdssighting.services.BirdLookup;
+import com.romeo.birdssighting.services.ResourceVersions;
+import com.romeo.birdssighting.services.SightingIdAllocator;
+import com.romeo.birdssighting.services.SightingService;
+import com.romeo.birdssighting.services.SightingWriteBehind;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.event.EventListener;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@ActiveProfiles("h2")
+@Import({SightingWriteBehind.class, SightingIdAllocator.class, SightingService.class, SightingMapper.class,
+        BirdMapper.class, BirdLookup.class, ResourceVersions.class, SimpleMeterRegistry.class})
+@TestPropertySource(properties = {
+        "birds.ingestion.write-behind.enabled=true",
+        "birds.ingestion.write-behind.capacity=1000",
+        "birds.ingestion.write-behind.batch-size=50",
+        "birds.ingestion.write-behind.max-delay=20ms",
+        "birds.ingestion.write-behind.drain-timeout=10s"})
+// The writer commits on its own thread, the test data cannot live in a rolled back test transaction.
+// Each test stops the writer, so each gets its own context and database
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class SightingWriteBehindTest {
+
+    // Locations whose batch fails in FailingListener, while the batch is written
+    private static final String COMMIT_FAILS = "Commit fails";
+    private static final String LISTENER_FAILS = "Listener fails";
+
+    @Autowired
+    private SightingWriteBehind sightingWriteBehind;
+
+    @Autowired
+    private SightingService sightingService;
+
+    @Autowired
+    private IBirdRepository iBirdRepository;
+
+    @Autowired
+    private ISightingRepository iSightingRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * This method is used for testing that queued sightings get unique ids, are all written on stop
+     * and that sightings are rejected once the writer stopped
+     */
+    @Test
+    public void testEnqueueSighting_DrainedOnStop() {
+        var bird = new Bird();
+        bird.setName("Swift");
+        var birdId = iBirdRepository.save(bird).getId();
+
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            ids.add(sightingWriteBehind.enqueueSighting(birdId, sighting(i)).getId());
+        }
+        // A sighting saved through Hibernate meanwhile takes its id from the same pooled sequence
+        var saved = sightingService.createSighting(birdId, sighting(120));
+        ids.add(saved.getId());
+        assertEquals(ids.size(), new HashSet<>(ids).size());
+
+        sightingWriteBehind.stop();
+
+        assertEquals(0, sightingWriteBehind.queueDepth());
+        assertEquals(121, iSightingRepository.count());
+        assertEquals(GeoGrid.cellOf(45.0, 29.0), jdbcTemplate.queryForObject(
+                "SELECT grid_cell FROM sighting WHERE id = ?", Long.class, ids.get(0)));
+        assertEquals("Delta 0", iSightingRepository.findById(ids.get(0)).orElseThrow().getLocation());
+        assertEquals(120, (long) meterRegistry.get("birds.ingestion.batch.size").summary().totalAmount());
+        assertFalse(sightingWriteBehind.isRunning());
+        assertThrows(TooManyRequestsException.class, () -> sightingWriteBehind.enqueueSighting(birdId, sighting(0)));
+    }
+
+    /**
+     * This method is used for testing that a failed commit is retried row by row, so only its bad row is lost
+     */
+    @Test
+    public void testWriteFailingToCommit_RetriedOneByOne() {
+        var birdId = saveBird();
+        for (int i = 0; i < 20; i++) {
+            sightingWriteBehind.enqueueSighting(birdId, i == 10 ? sighting(COMMIT_FAILS) : sighting(i));
+        }
+
+        sightingWriteBehind.stop();
+
+        assertEquals(19, iSightingRepository.count());
+        assertEquals(1.0, meterRegistry.get("birds.ingestion.failed").counter().count(), 0.0);
+    }
+
+    /**
+     * This method is used for testing that the sightings of a batch failing otherwise are counted as failed
+     */
+    @Test
+    public void testWriteFailingOtherwise_CountsTheBatchAsFailed() {
+        var birdId = saveBird();
+        for (int i = 0; i < 20; i++) {
+            sightingWriteBehind.enqueueSighting(birdId, i == 10 ? sighting(LISTENER_FAILS) : sighting(i));
+        }
+
+        sightingWriteBehind.stop();
+
+        // Whatever batch the bad row fell into is lost, none of its rows is silently dropped
+        var failed = meterRegistry.get("birds.ingestion.failed").counter().count();
+        assertEquals(20.0, iSightingRepository.count() + failed, 0.0);
+        assertTrue(failed > 0);
+    }
+
+    private Long saveBird() {
+        var bird = new Bird();
+        bird.setName("Swift");
+        return iBirdRepository.save(bird).getId();
+    }
+
+    private static SightingDTO sighting(String location) {
+        var sightingDTO = sighting(0);
+        sightingDTO.setLocation(location);
+        return sightingDTO;
+    }
+
+    private static SightingDTO sighting(int i) {
+        var sightingDTO = new SightingDTO();
+        sightingDTO.setLocation("Delta " + i);
+        sightingDTO.setDateTime(LocalDateTime.of(2024, 5, 1, 6, 30).plusMinutes(i));
+        sightingDTO.setLatitude(45.0);
+        sightingDTO.setLongitude(29.0);
+        return sightingDTO;
+    }
+
+    // Fails the write of a batch from inside its transaction, like a failed commit or a failing listener would
+    @TestConfiguration
+    static class FailingListener {
+
+        @EventListener
+        public void onSightingChange(SightingChangeEvent event) {
+            var locations = event.added().stream().map(SightingSnapshot::location).toList();
+            if (locations.contains(COMMIT_FAILS)) {
+                throw new TransactionSystemException("Could not commit the queued sightings");
+            }
+            if (locations.contains(LISTENER_FAILS)) {
+                throw new IllegalStateException("The listener failed");
+            }
+        }
+    }
+}
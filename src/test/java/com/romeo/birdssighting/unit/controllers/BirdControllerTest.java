@@ -3,7 +3,9 @@ package com.romeo.birdssighting.unit.controllers;
 
 import com.romeo.birdssighting.controllers.BirdController;
 import com.romeo.birdssighting.dto.BirdDTO;
+import com.romeo.birdssighting.dto.BirdPatchDTO;
 import com.romeo.birdssighting.services.BirdService;
+import com.romeo.birdssighting.services.ResourceVersions;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.internal.verification.VerificationModeFactory;
@@ -11,6 +13,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
@@ -25,17 +28,23 @@ import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @RunWith(SpringRunner.class)
 @WebMvcTest(controllers = BirdController.class)
 @AutoConfigureMockMvc
+@Import(ResourceVersions.class)
 public class BirdControllerTest {
 
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private ResourceVersions resourceVersions;
+
     @MockBean
     private BirdService birdService;
 
@@ -65,6 +74,67 @@ public class BirdControllerTest {
         reset(birdService);
     }
 
+    /**
+     * This method is used for testing when return a bird by id
+     */
+    @Test
+    public void testFindById() throws Exception {
+        var birdDTO = new BirdDTO();
+        birdDTO.setId(1L);
+        birdDTO.setName("Test");
+
+        given(birdService.findBirdById(1L)).willReturn(birdDTO);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/birds/{id}", 1L)
+                        .contentType(MediaType.APPLICATION_JSON))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.name").value("Test"));
+
+        verify(birdService, VerificationModeFactory.times(1)).findBirdById(1L);
+        reset(birdService);
+    }
+
+    /**
+     * This method is used for testing that a current ETag is answered with 304 without loading the birds,
+     * and that a write makes it stale
+     */
+    @Test
+    public void testGetAllBirds_WithETag() throws Exception {
+        given(birdService.getAllBirds()).willReturn(List.of(new BirdDTO()));
+        var eTag = mockMvc.perform(MockMvcRequestBuilders.get("/api/birds"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+        reset(birdService);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/birds").header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", eTag));
+        verify(birdService, never()).getAllBirds();
+
+        resourceVersions.birdChanged(1L);
+        given(birdService.getAllBirds()).willReturn(List.of(new BirdDTO()));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/birds").header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+        reset(birdService);
+    }
+
+    /**
+     * This method is used for testing that the ETag of a bird changes only with that bird
+     */
+    @Test
+    public void testFindById_WithETag() throws Exception {
+        var eTag = resourceVersions.birdETag(1L);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/birds/{id}", 1L).header("If-None-Match", eTag))
+                .andExpect(status().isNotModified());
+        resourceVersions.birdChanged(2L);
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/birds/{id}", 1L).header("If-None-Match", eTag))
+                .andExpect(status().isNotModified());
+        verify(birdService, never()).findBirdById(1L);
+    }
+
     /**
      * This method is used for testing when create a bird
      */
@@ -110,6 +180,28 @@ public class BirdControllerTest {
          reset(birdService);
     }
 
+    /**
+     * This method is used for testing when patch a bird, only the fields sent are passed on
+     */
+    @Test
+    public void testPatchBird() throws Exception {
+        var id = 1L;
+        var patchedBird = new BirdDTO();
+        patchedBird.setName("Test");
+        patchedBird.setColor("Blue");
+        var birdPatchDTO = new BirdPatchDTO();
+        birdPatchDTO.setColor("Blue");
+        given(birdService.patchBird(id, birdPatchDTO)).willReturn(patchedBird);
+
+        mockMvc.perform(MockMvcRequestBuilders.patch("/api/birds/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"color\":\"Blue\"}"))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.name").value("Test"))
+                        .andExpect(jsonPath("$.color").value("Blue"));
+        verify(birdService).patchBird(id, birdPatchDTO);
+    }
+
     /**
      * This method is used for testing when filter a bird by name
      */
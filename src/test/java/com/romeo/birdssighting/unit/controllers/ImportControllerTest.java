@@ -0,0 +1,76 @@
+package com.romeo.birdssighting.unit.controllers;
+
+import com.romeo.birdssighting.controllers.ImportController;
+import com.romeo.birdssighting.dto.SightingImportDTO;
+import com.romeo.birdssighting.services.SightingImportService;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.io.BufferedReader;
+import java.io.Reader;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@WebMvcTest(ImportController.class)
+public class ImportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private SightingImportService sightingImportService;
+
+    /**
+     * This method is used for testing when returns the outcome of a CSV import, the body is passed as a stream
+     */
+    @Test
+    public void testImportSightings() throws Exception {
+        var sightingImportDTO = new SightingImportDTO();
+        sightingImportDTO.setId("import-1");
+        sightingImportDTO.setFinished(true);
+        sightingImportDTO.setRowsRead(1);
+        sightingImportDTO.setImported(1);
+        sightingImportDTO.setRejectedRows(List.of());
+        given(sightingImportService.importSightings(any(Reader.class))).willAnswer(invocation -> {
+            assertEquals("bird,location", new BufferedReader(invocation.<Reader>getArgument(0)).readLine());
+            return sightingImportDTO;
+        });
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/import/sightings")
+                        .contentType("text/csv")
+                        .content("bird,location\nRobin,Pădurea Letea\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value("import-1"))
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.rejectedRows", hasSize(0)));
+    }
+
+    /**
+     * This method is used for testing when returns the progress of the running imports
+     */
+    @Test
+    public void testGetRunningImports() throws Exception {
+        var sightingImportDTO = new SightingImportDTO();
+        sightingImportDTO.setId("import-1");
+        sightingImportDTO.setRowsRead(20_000);
+        given(sightingImportService.findRunningImports()).willReturn(List.of(sightingImportDTO));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/import/sightings"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].rowsRead").value(20_000))
+                .andExpect(jsonPath("$[0].finished").value(false));
+    }
+}
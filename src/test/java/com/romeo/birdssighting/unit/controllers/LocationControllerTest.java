@@ -0,0 +1,78 @@
+package com.romeo.birdssighting.unit.controllers;
+
+import com.romeo.birdssighting.controllers.LocationController;
+import com.romeo.birdssighting.dto.LocationMatchDTO;
+import com.romeo.birdssighting.dto.LocationSightingsDTO;
+import com.romeo.birdssighting.services.LocationService;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@WebMvcTest(LocationController.class)
+public class LocationControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private LocationService locationService;
+
+    /**
+     * This method is used for testing when returns the locations starting with a prefix
+     */
+    @Test
+    public void testCompleteLocation() throws Exception {
+        given(locationService.completeLocation("lak", 5)).willReturn(List.of("Lake Geneva", "Lake Tahoe"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/locations/autocomplete")
+                        .param("prefix", "lak")
+                        .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0]").value("Lake Geneva"));
+    }
+
+    /**
+     * This method is used for testing when returns the locations similar to a text
+     */
+    @Test
+    public void testSearchLocations() throws Exception {
+        given(locationService.searchLocations("lake taho", null))
+                .willReturn(List.of(new LocationMatchDTO("Lake Tahoe", 3, 0.8)));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/locations/search").param("q", "lake taho"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].location").value("Lake Tahoe"))
+                .andExpect(jsonPath("$[0].sightings").value(3))
+                .andExpect(jsonPath("$[0].score").value(0.8));
+    }
+
+    /**
+     * This method is used for testing when returns the sighting ids of a location
+     */
+    @Test
+    public void testGetSightingIds() throws Exception {
+        var locationSightingsDTO = new LocationSightingsDTO();
+        locationSightingsDTO.setLocation("Lake Tahoe");
+        locationSightingsDTO.setSightingIds(List.of(1L, 7L));
+        given(locationService.findSightingIds("Lake Tahoe", null)).willReturn(locationSightingsDTO);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/locations/sightings").param("location", "Lake Tahoe"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sightingIds", hasSize(2)))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+}
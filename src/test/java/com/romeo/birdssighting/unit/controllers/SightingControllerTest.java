@@ -1,7 +1,10 @@
 package com.romeo.birdssighting.unit.controllers;
 
 import com.romeo.birdssighting.controllers.SightingController;
+import com.romeo.birdssighting.dto.SightingBatchResultDTO;
 import com.romeo.birdssighting.dto.SightingDTO;
+import com.romeo.birdssighting.dto.SightingPageDTO;
+import com.romeo.birdssighting.services.ResourceVersions;
 import com.romeo.birdssighting.services.SightingService;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -9,6 +12,7 @@ import org.mockito.internal.verification.VerificationModeFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
@@ -17,6 +21,7 @@ import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentMatchers.any;
@@ -27,12 +32,14 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.reset;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 
 @RunWith(SpringRunner.class)
 @WebMvcTest(SightingController.class)
+@Import(ResourceVersions.class)
 public class SightingControllerTest {
 
     @Autowired
@@ -87,6 +94,32 @@ public class SightingControllerTest {
         reset(sightingService);
     }
 
+    /**
+     * This method is used for testing when save many sightings of a bird
+     */
+    @Test
+    public void testSaveSightings() throws Exception {
+        var birdId = 1L;
+        var sightingDTO = new SightingDTO();
+        sightingDTO.setLocation("London");
+        List<SightingDTO> sightingDTOs = List.of(sightingDTO, sightingDTO);
+        var result = new SightingBatchResultDTO();
+        result.setInserted(2);
+        result.setIds(List.of(1L, 2L));
+
+        given(sightingService.createSightings(birdId, sightingDTOs)).willReturn(result);
+
+        mockMvc.perform(post("/api/birds/{birdId}/sightings/batch", birdId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(JsonUtil.toJson(sightingDTOs)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.inserted").value(2))
+                .andExpect(jsonPath("$.ids", hasSize(2)));
+
+        verify(sightingService, VerificationModeFactory.times(1)).createSightings(birdId, sightingDTOs);
+        reset(sightingService);
+    }
+
     /**
      * This method is used for testing when update a sighting
      */
@@ -110,7 +143,7 @@ public class SightingControllerTest {
 
 
     /**
-     * This method is used for testing when returns all sightings
+     * This method is used for testing when returns a page of sightings
      */
     @Test
     public void testGetAllSightings() throws Exception {
@@ -119,15 +152,165 @@ public class SightingControllerTest {
 
         List<SightingDTO> sightings = new ArrayList<>();
         sightings.add(sightingDTO);
+        var sightingPageDTO = new SightingPageDTO();
+        sightingPageDTO.setSightings(sightings);
+        sightingPageDTO.setNextCursor("MQ");
 
-        given(sightingService.findAllSightings()).willReturn(sightings);
+        given(sightingService.findSightingsPage("MA", 1)).willReturn(sightingPageDTO);
 
         mockMvc.perform(MockMvcRequestBuilders.get("/api/sightings")
+                        .param("after", "MA")
+                        .param("limit", "1")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(1)));
+                .andExpect(jsonPath("$.sightings", hasSize(1)))
+                .andExpect(jsonPath("$.nextCursor").value("MQ"));
+
+        verify(sightingService, times(1)).findSightingsPage("MA", 1);
+        reset(sightingService);
+    }
+
+    /**
+     * This method is used for testing when returns the sightings of a time range
+     */
+    @Test
+    public void testGetAllSightingsInRange() throws Exception {
+        var from = LocalDateTime.of(2024, 5, 1, 0, 0);
+        var to = LocalDateTime.of(2024, 6, 1, 0, 0);
+        var sightingPageDTO = new SightingPageDTO();
+        sightingPageDTO.setSightings(List.of(new SightingDTO()));
+
+        given(sightingService.findSightingsInRange(from, to, 1L, "Bucharest", null, null)).willReturn(sightingPageDTO);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/sightings")
+                        .param("from", "2024-05-01T00:00:00")
+                        .param("to", "2024-06-01T00:00:00")
+                        .param("birdId", "1")
+                        .param("location", "Bucharest")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sightings", hasSize(1)));
+
+        verify(sightingService, times(1)).findSightingsInRange(from, to, 1L, "Bucharest", null, null);
+        verify(sightingService, times(0)).findSightingsPage(any(), any());
+        reset(sightingService);
+    }
+
+    /**
+     * This method is used for testing when returns the sightings of a bird without a time range
+     */
+    @Test
+    public void testGetAllSightingsOfBird() throws Exception {
+        var sightingPageDTO = new SightingPageDTO();
+        sightingPageDTO.setSightings(List.of(new SightingDTO()));
+
+        given(sightingService.findSightingsPage(1L, null, null, null)).willReturn(sightingPageDTO);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/sightings")
+                        .param("birdId", "1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sightings", hasSize(1)));
+
+        verify(sightingService, times(1)).findSightingsPage(1L, null, null, null);
+        verify(sightingService, times(0)).findSightingsInRange(any(), any(), any(), any(), any(), any());
+        reset(sightingService);
+    }
+
+    /**
+     * This method is used for testing when returns the sightings of a location without a time range
+     */
+    @Test
+    public void testGetAllSightingsAtLocation() throws Exception {
+        var sightingPageDTO = new SightingPageDTO();
+        sightingPageDTO.setSightings(List.of(new SightingDTO()));
+
+        given(sightingService.findSightingsPage(null, "Bucharest", "MA", 1)).willReturn(sightingPageDTO);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/sightings")
+                        .param("location", "Bucharest")
+                        .param("after", "MA")
+                        .param("limit", "1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sightings", hasSize(1)));
+
+        verify(sightingService, times(1)).findSightingsPage(null, "Bucharest", "MA", 1);
+        verify(sightingService, times(0)).findSightingsInRange(any(), any(), any(), any(), any(), any());
+        reset(sightingService);
+    }
+
+    /**
+     * This method is used for testing when returns the sightings since a date time, without an end
+     */
+    @Test
+    public void testGetAllSightingsSince() throws Exception {
+        var from = LocalDateTime.of(2024, 5, 1, 0, 0);
+        var sightingPageDTO = new SightingPageDTO();
+        sightingPageDTO.setSightings(List.of(new SightingDTO()));
+
+        given(sightingService.findSightingsInRange(from, null, 1L, null, null, null)).willReturn(sightingPageDTO);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/sightings")
+                        .param("from", "2024-05-01T00:00:00")
+                        .param("birdId", "1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sightings", hasSize(1)));
+
+        verify(sightingService, times(1)).findSightingsInRange(from, null, 1L, null, null, null);
+        reset(sightingService);
+    }
+
+    /**
+     * This method is used for testing when returns the sightings near a point
+     */
+    @Test
+    public void testGetSightingsNear() throws Exception {
+        var sightingPageDTO = new SightingPageDTO();
+        sightingPageDTO.setSightings(List.of(new SightingDTO()));
 
-        verify(sightingService, times(1)).findAllSightings();
+        given(sightingService.findSightingsNear(51.5, -0.12, 5.0, null, 10)).willReturn(sightingPageDTO);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/sightings/near")
+                        .param("lat", "51.5")
+                        .param("lon", "-0.12")
+                        .param("radiusKm", "5")
+                        .param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sightings", hasSize(1)));
+
+        verify(sightingService, times(1)).findSightingsNear(51.5, -0.12, 5.0, null, 10);
+        reset(sightingService);
+    }
+
+    /**
+     * This method is used for testing when export all sightings as newline-delimited JSON
+     */
+    @Test
+    public void testExportSightings() throws Exception {
+        var first = new SightingDTO();
+        first.setId(1L);
+        var second = new SightingDTO();
+        second.setId(2L);
+
+        given(sightingService.exportSightings(any())).willAnswer(invocation -> {
+            Consumer<SightingDTO> consumer = invocation.getArgument(0);
+            consumer.accept(first);
+            consumer.accept(second);
+            return 2L;
+        });
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/sightings/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(
+                        "{\"id\":1,\"location\":null,\"bird\":null,\"dateTime\":null,"
+                                + "\"latitude\":null,\"longitude\":null}\n"
+                                + "{\"id\":2,\"location\":null,\"bird\":null,\"dateTime\":null,"
+                                + "\"latitude\":null,\"longitude\":null}\n"));
+
+        verify(sightingService, times(1)).exportSightings(any());
         reset(sightingService);
     }
 
@@ -0,0 +1,74 @@
+package com.romeo.birdssighting.unit.controllers;
+
+import com.romeo.birdssighting.controllers.SightingController;
+import com.romeo.birdssighting.dto.SightingDTO;
+import com.romeo.birdssighting.exception.TooManyRequestsException;
+import com.romeo.birdssighting.services.ResourceVersions;
+import com.romeo.birdssighting.services.SightingService;
+import com.romeo.birdssighting.services.SightingWriteBehind;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@WebMvcTest(SightingController.class)
+@Import(ResourceVersions.class)
+public class SightingControllerWriteBehindTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private SightingService sightingService;
+
+    @MockBean
+    private SightingWriteBehind sightingWriteBehind;
+
+    /**
+     * This method is used for testing that a queued sighting is answered with 202 and its id
+     */
+    @Test
+    public void testSaveSighting_Accepted() throws Exception {
+        var sightingDTO = new SightingDTO();
+        sightingDTO.setLocation("Delta");
+        given(sightingWriteBehind.enqueueSighting(eq(1L), any(SightingDTO.class)))
+                .willReturn(new SightingDTO(51L, "Delta", null, null, null));
+
+        mockMvc.perform(post("/api/birds/{birdId}/sightings", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(JsonUtil.toJson(sightingDTO)))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").value(51));
+        verifyNoInteractions(sightingService);
+    }
+
+    /**
+     * This method is used for testing that a full queue is answered with 429 and Retry-After
+     */
+    @Test
+    public void testSaveSighting_QueueFull() throws Exception {
+        given(sightingWriteBehind.enqueueSighting(eq(1L), any(SightingDTO.class)))
+                .willThrow(new TooManyRequestsException("Sighting ingestion queue is full", 1));
+
+        mockMvc.perform(post("/api/birds/{birdId}/sightings", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(JsonUtil.toJson(new SightingDTO())))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+}
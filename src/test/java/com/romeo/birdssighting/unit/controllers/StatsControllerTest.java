@@ -0,0 +1,69 @@
+package com.romeo.birdssighting.unit.controllers;
+
+import com.romeo.birdssighting.controllers.StatsController;
+import com.romeo.birdssighting.dto.SightingStatsDTO;
+import com.romeo.birdssighting.exception.BadRequestException;
+import com.romeo.birdssighting.services.SightingStatsService;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@WebMvcTest(StatsController.class)
+public class StatsControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private SightingStatsService sightingStatsService;
+
+    /**
+     * This method is used for testing when returns the sighting stats grouped by bird and day
+     */
+    @Test
+    public void testGetSightingStats() throws Exception {
+        var from = LocalDate.of(2024, 5, 1);
+        var to = LocalDate.of(2024, 5, 31);
+        given(sightingStatsService.getSightingStats("bird,day", from, to))
+                .willReturn(List.of(new SightingStatsDTO(1L, null, from, 3)));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/stats/sightings")
+                        .param("groupBy", "bird,day")
+                        .param("from", "2024-05-01")
+                        .param("to", "2024-05-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].birdId").value(1))
+                .andExpect(jsonPath("$[0].location").doesNotExist())
+                .andExpect(jsonPath("$[0].count").value(3));
+
+        verify(sightingStatsService).getSightingStats("bird,day", from, to);
+    }
+
+    /**
+     * This method is used for testing when the sighting stats are grouped by an unknown field
+     */
+    @Test
+    public void testGetSightingStats_WhenGroupByIsInvalid() throws Exception {
+        given(sightingStatsService.getSightingStats("colour", null, null))
+                .willThrow(new BadRequestException("Cannot group sightings by: colour"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/stats/sightings").param("groupBy", "colour"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,45 @@
+package com.romeo.birdssighting.unit.domain;
+
+import com.romeo.birdssighting.domain.GeoGrid;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class GeoGridTest {
+
+    /**
+     * This method is used for testing that every point belongs to one of the cells covering a box around it
+     */
+    @Test
+    public void testCellsCovering_ContainPointsOfTheBox() {
+        var cells = GeoGrid.cellsCovering(51.45, -0.25, 51.55, -0.05);
+
+        assertEquals(GeoGrid.cellCount(51.45, -0.25, 51.55, -0.05), cells.size());
+        assertTrue(cells.contains(GeoGrid.cellOf(51.5074, -0.1278)));
+        assertTrue(cells.contains(GeoGrid.cellOf(51.45, -0.25)));
+        assertTrue(cells.contains(GeoGrid.cellOf(51.55, -0.05)));
+    }
+
+    /**
+     * This method is used for testing that a box crossing the antimeridian covers both of its sides
+     */
+    @Test
+    public void testCellsCovering_AcrossTheAntimeridian() {
+        var cells = GeoGrid.cellsCovering(-17.8, 179.95, -17.7, 180.05);
+
+        assertTrue(cells.contains(GeoGrid.cellOf(-17.75, 179.99)));
+        assertTrue(cells.contains(GeoGrid.cellOf(-17.75, -179.99)));
+    }
+
+    /**
+     * This method is used for testing the cells of the edges of the grid
+     */
+    @Test
+    public void testCellOf_Edges() {
+        assertNull(GeoGrid.cellOf(null, 10.0));
+        assertEquals(GeoGrid.cellOf(90.0, 180.0), GeoGrid.cellOf(89.95, -180.0));
+        assertEquals(Long.valueOf(0), GeoGrid.cellOf(-90.0, -180.0));
+    }
+}
@@ -0,0 +1,136 @@
+package com.romeo.birdssighting.unit.filter;
+
+import com.romeo.birdssighting.filter.ConcurrencyLimitFilter;
+import com.romeo.birdssighting.services.ResourceVersions;
+import org.junit.Test;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ConcurrencyLimitFilterTest {
+
+    private final ResourceVersions resourceVersions = new ResourceVersions();
+    private final ConcurrencyLimitFilter concurrencyLimitFilter =
+            new ConcurrencyLimitFilter(resourceVersions, 1, Duration.ofMillis(10));
+
+    /**
+     * This method is used for testing that a request is rejected while all the slots are taken
+     */
+    @Test
+    public void testRequestIsRejected_WhenNoSlotIsFree() throws Exception {
+        var nestedResponse = new AtomicReference<MockHttpServletResponse>();
+        // The first request holds the only slot while the second one arrives
+        var chain = new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response)
+                    throws IOException, ServletException {
+                var rejectedResponse = new MockHttpServletResponse();
+                concurrencyLimitFilter.doFilter(new MockHttpServletRequest("GET", "/api/birds"), rejectedResponse,
+                        new MockFilterChain());
+                nestedResponse.set(rejectedResponse);
+            }
+        };
+        var response = new MockHttpServletResponse();
+
+        concurrencyLimitFilter.doFilter(new MockHttpServletRequest("GET", "/api/sightings"), response, chain);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(503, nestedResponse.get().getStatus());
+        assertEquals("1", nestedResponse.get().getHeader(HttpHeaders.RETRY_AFTER));
+    }
+
+    /**
+     * This method is used for testing that the requests not bound to the database pass while all the slots are taken
+     */
+    @Test
+    public void testUnlimitedRequestsPass_WhenNoSlotIsFree() throws Exception {
+        var conditional = new MockHttpServletRequest("GET", "/api/birds/1");
+        conditional.addHeader(HttpHeaders.IF_NONE_MATCH, resourceVersions.birdETag(1L));
+        var unlimited = List.of(new MockHttpServletRequest("GET", "/actuator/health"),
+                new MockHttpServletRequest("GET", "/api/locations/autocomplete"),
+                new MockHttpServletRequest("GET", "/api/sightings/export"),
+                new MockHttpServletRequest("POST", "/api/import/sightings"),
+                conditional);
+        List<Integer> statuses = new ArrayList<>();
+        // The first request holds the only slot while the others arrive
+        var chain = new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response)
+                    throws IOException, ServletException {
+                for (var unlimitedRequest : unlimited) {
+                    var unlimitedResponse = new MockHttpServletResponse();
+                    concurrencyLimitFilter.doFilter(unlimitedRequest, unlimitedResponse, new MockFilterChain());
+                    statuses.add(unlimitedResponse.getStatus());
+                }
+            }
+        };
+
+        concurrencyLimitFilter.doFilter(new MockHttpServletRequest("GET", "/api/sightings"),
+                new MockHttpServletResponse(), chain);
+
+        assertEquals(List.of(200, 200, 200, 200, 200), statuses);
+    }
+
+    /**
+     * This method is used for testing that a conditional GET with a stale or unknown ETag is limited,
+     * the controller reads the database for it
+     */
+    @Test
+    public void testConditionalRequestIsRejected_WhenETagIsStale() throws Exception {
+        var staleETag = resourceVersions.birdETag(1L);
+        resourceVersions.birdChanged(1L);
+        var stale = new MockHttpServletRequest("GET", "/api/birds/1/sightings");
+        stale.addHeader(HttpHeaders.IF_NONE_MATCH, staleETag);
+        var madeUp = new MockHttpServletRequest("GET", "/api/birds");
+        madeUp.addHeader(HttpHeaders.IF_NONE_MATCH, "x");
+        var current = new MockHttpServletRequest("GET", "/api/birds/1/sightings");
+        current.addHeader(HttpHeaders.IF_NONE_MATCH, resourceVersions.birdETag(1L));
+        List<Integer> statuses = new ArrayList<>();
+        // The first request holds the only slot while the conditional ones arrive
+        var chain = new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response)
+                    throws IOException, ServletException {
+                for (var conditional : List.of(stale, madeUp, current)) {
+                    var conditionalResponse = new MockHttpServletResponse();
+                    concurrencyLimitFilter.doFilter(conditional, conditionalResponse, new MockFilterChain());
+                    statuses.add(conditionalResponse.getStatus());
+                }
+            }
+        };
+
+        concurrencyLimitFilter.doFilter(new MockHttpServletRequest("GET", "/api/sightings"),
+                new MockHttpServletResponse(), chain);
+
+        assertEquals(List.of(503, 503, 200), statuses);
+    }
+
+    /**
+     * This method is used for testing that the slot is released when the request completes
+     */
+    @Test
+    public void testSlotIsReleased_WhenRequestCompletes() throws Exception {
+        var first = new MockHttpServletResponse();
+        var second = new MockHttpServletResponse();
+
+        concurrencyLimitFilter.doFilter(new MockHttpServletRequest("GET", "/api/birds"), first, new MockFilterChain());
+        concurrencyLimitFilter.doFilter(new MockHttpServletRequest("GET", "/api/birds"), second, new MockFilterChain());
+
+        assertEquals(200, first.getStatus());
+        assertEquals(200, second.getStatus());
+        assertNull(second.getHeader(HttpHeaders.RETRY_AFTER));
+    }
+}
@@ -0,0 +1,109 @@
+package com.romeo.birdssighting.unit.filter;
+
+import com.romeo.birdssighting.filter.QueryStatisticsFilter;
+import com.romeo.birdssighting.filter.StatementBudget;
+import com.romeo.birdssighting.services.QueryDiagnostics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+
+public class QueryStatisticsFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final QueryDiagnostics queryDiagnostics = new QueryDiagnostics(meterRegistry, 10, 10);
+
+    /**
+     * This method is used for testing that the statement count is returned with and without a body
+     */
+    @Test
+    public void testStatementCount_IsReturnedInHeader() throws Exception {
+        var filter = new QueryStatisticsFilter(queryDiagnostics, true, true);
+        var withBody = new MockHttpServletResponse();
+        var withoutBody = new MockHttpServletResponse();
+
+        filter.doFilter(request(), withBody, chain(1, true));
+        filter.doFilter(request(), withoutBody, chain(1, false));
+
+        assertEquals("1", withBody.getHeader(QueryStatisticsFilter.STATEMENT_COUNT_HEADER));
+        assertEquals("1", withoutBody.getHeader(QueryStatisticsFilter.STATEMENT_COUNT_HEADER));
+        assertEquals(0, meterRegistry.find(QueryDiagnostics.REQUEST_BUDGET_EXCEEDED_METRIC).counters().size());
+    }
+
+    /**
+     * This method is used for testing that a request over its budget fails when the budgets are enforced
+     */
+    @Test
+    public void testRequestOverBudget_FailsWhenEnforced() {
+        var filter = new QueryStatisticsFilter(queryDiagnostics, true, true);
+
+        var exception = assertThrows(IllegalStateException.class,
+                () -> filter.doFilter(request(), new MockHttpServletResponse(), chain(2, true)));
+
+        assertEquals("GET /api/birds/1 issued 2 statements, its budget is 1", exception.getMessage());
+        assertEquals(1.0, exceededCount(), 0.0);
+    }
+
+    /**
+     * This method is used for testing that a request over its budget is only counted when the budgets are not enforced
+     */
+    @Test
+    public void testRequestOverBudget_IsCountedWhenNotEnforced() throws Exception {
+        var filter = new QueryStatisticsFilter(queryDiagnostics, false, false);
+        var response = new MockHttpServletResponse();
+
+        filter.doFilter(request(), response, chain(2, true));
+
+        assertEquals(200, response.getStatus());
+        assertNull(response.getHeader(QueryStatisticsFilter.STATEMENT_COUNT_HEADER));
+        assertEquals(1.0, exceededCount(), 0.0);
+    }
+
+    private double exceededCount() {
+        return meterRegistry.get(QueryDiagnostics.REQUEST_BUDGET_EXCEEDED_METRIC).tag("uri", "/api/birds/{id}")
+                .counter().count();
+    }
+
+    private static MockHttpServletRequest request() throws NoSuchMethodException {
+        var request = new MockHttpServletRequest("GET", "/api/birds/1");
+        // Set by the dispatcher servlet once the handler is found
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/birds/{id}");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+                new HandlerMethod(new Endpoint(), Endpoint.class.getMethod("findById")));
+        return request;
+    }
+
+    // Stands for the handler, preparing statements and optionally writing a body
+    private MockFilterChain chain(int statements, boolean body) {
+        return new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response) throws IOException {
+                for (int i = 0; i < statements; i++) {
+                    queryDiagnostics.statementPrepared();
+                }
+                if (body) {
+                    response.getWriter().write("{}");
+                    response.flushBuffer();
+                }
+            }
+        };
+    }
+
+    public static class Endpoint {
+
+        @StatementBudget(1)
+        public void findById() {
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.romeo.birdssighting.unit.services;
+
+import com.romeo.birdssighting.domain.Bird;
+import com.romeo.birdssighting.dto.BirdDTO;
+import com.romeo.birdssighting.exception.ResourceNotFoundException;
+import com.romeo.birdssighting.mapper.BirdMapper;
+import com.romeo.birdssighting.repositories.IBirdRepository;
+import com.romeo.birdssighting.services.BirdLookup;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BirdLookupTest {
+
+    @Mock
+    private IBirdRepository iBirdRepository;
+
+    @Mock
+    private BirdMapper birdMapper;
+
+    @InjectMocks
+    private BirdLookup birdLookup;
+
+    /**
+     * This method is used to testing that a bird found by id is returned without its sightings
+     */
+    @Test
+    public void testFindById_WhenBirdExists() {
+        var bird = new Bird();
+        bird.setId(1L);
+        var expectedBirdDTO = new BirdDTO();
+        expectedBirdDTO.setId(1L);
+        when(iBirdRepository.findById(1L)).thenReturn(Optional.of(bird));
+        when(birdMapper.convertToDTO(bird, BirdMapper.WITHOUT_SIGHTINGS)).thenReturn(expectedBirdDTO);
+
+        var result = birdLookup.findById(1L);
+
+        assertEquals(expectedBirdDTO, result);
+    }
+
+    /**
+     * Test that to find a bird by id if not exist
+     */
+    @Test
+    public void testFindById_WhenBirdDoesNotExist() {
+        when(iBirdRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> birdLookup.findById(1L));
+        verifyNoInteractions(birdMapper);
+    }
+
+    /**
+     * Test that if return bird by name when bird exist
+     */
+    @Test
+    public void testFindByName_WhenBirdExists() {
+        var name = "Test";
+        var bird = new Bird();
+        bird.setName(name);
+        var expectedBirdDTO = new BirdDTO();
+        expectedBirdDTO.setName(name);
+        when(iBirdRepository.findByName(name)).thenReturn(bird);
+        when(birdMapper.convertToDTO(bird, BirdMapper.WITHOUT_SIGHTINGS)).thenReturn(expectedBirdDTO);
+
+        var result = birdLookup.findByName(name);
+
+        verify(iBirdRepository, times(1)).findByName(name);
+        assertEquals(expectedBirdDTO, result);
+    }
+
+    /**
+     * Test that if return bird by name when bird does not exist
+     */
+    @Test
+    public void testFindByName_WhenBirdDoesNotExist() {
+        var name = "Test";
+        when(iBirdRepository.findByName(name)).thenReturn(null);
+
+        assertThrows(ResourceNotFoundException.class, () -> birdLookup.findByName(name));
+        verify(iBirdRepository, times(1)).findByName(name);
+    }
+
+    /**
+     * This method is used to testing a bird filtered by color when exist
+     */
+    @Test
+    public void testFindByColor_WhenBirdExists() {
+        var color = "Red";
+        var bird = new Bird();
+        bird.setColor(color);
+        var expectedBirdDTO = new BirdDTO();
+        expectedBirdDTO.setColor(color);
+        when(iBirdRepository.findByColor(color)).thenReturn(bird);
+        when(birdMapper.convertToDTO(bird, BirdMapper.WITHOUT_SIGHTINGS)).thenReturn(expectedBirdDTO);
+
+        var result = birdLookup.findByColor(color);
+
+        verify(iBirdRepository, times(1)).findByColor(color);
+        assertEquals(expectedBirdDTO, result);
+    }
+
+    /**
+     * Test that if return bird by color when bird does not exist
+     */
+    @Test
+    public void testFindByColor_WhenBirdDoesNotExist() {
+        var color = "Blue";
+        when(iBirdRepository.findByColor(color)).thenReturn(null);
+
+        assertThrows(ResourceNotFoundException.class, () -> birdLookup.findByColor(color));
+        verify(iBirdRepository, times(1)).findByColor(color);
+    }
+}
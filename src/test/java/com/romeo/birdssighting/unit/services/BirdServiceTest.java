@@ -3,36 +3,53 @@ package com.romeo.birdssighting.unit.services;
 import com.romeo.birdssighting.domain.Bird;
 import com.romeo.birdssighting.domain.Sighting;
 import com.romeo.birdssighting.dto.BirdDTO;
+import com.romeo.birdssighting.dto.BirdPatchDTO;
 import com.romeo.birdssighting.dto.SightingDTO;
+import com.romeo.birdssighting.events.SightingChangeEvent;
+import com.romeo.birdssighting.events.SightingSnapshot;
+import com.romeo.birdssighting.exception.BadRequestException;
 import com.romeo.birdssighting.exception.ResourceNotFoundException;
 import com.romeo.birdssighting.mapper.BirdMapper;
 import com.romeo.birdssighting.mapper.SightingMapper;
 import com.romeo.birdssighting.repositories.IBirdRepository;
 import com.romeo.birdssighting.repositories.ISightingRepository;
+import com.romeo.birdssighting.repositories.SightingRemovalRow;
+import com.romeo.birdssighting.services.BirdCacheEvictor;
+import com.romeo.birdssighting.services.BirdLookup;
 import com.romeo.birdssighting.services.BirdService;
+import com.romeo.birdssighting.services.ResourceVersions;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 
 @RunWith(MockitoJUnitRunner.class)
@@ -49,6 +66,21 @@ public class BirdServiceTest {
     @Mock
     private BirdMapper birdMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ResourceVersions resourceVersions;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private BirdLookup birdLookup;
+
+    @Mock
+    private BirdCacheEvictor birdCacheEvictor;
+
     @InjectMocks
     private BirdService birdService;
 
@@ -66,36 +98,27 @@ public class BirdServiceTest {
 
         // Create a list with one element
         List<Bird> birds = Collections.singletonList(bird);
-        List<Sighting> sightings = new ArrayList<>();
         List<SightingDTO> sightingDTOS = new ArrayList<>();
         SightingDTO sightingDTO = new SightingDTO();
         sightingDTO.setId(1L);
         sightingDTOS.add(sightingDTO);
-        var sighting = new Sighting();
-        sighting.setLocation("London");
-        sighting.setId(1L);
-        sightings.add(sighting);
 
         var birdDto = new BirdDTO();
         birdDto.setId(1L);
         birdDto.setName("Test");
         birdDto.setSightings(sightingDTOS);
 
-        // Mock the behavior of iBirdRepository.findAll()
-        when(iBirdRepository.findAll()).thenReturn(birds);
-        when(iSightingRepository.findByBird(bird)).thenReturn(sightings);
-        when(birdMapper.convertToDTO(bird)).thenReturn(birdDto);
-        when(sightingMapper.convertToDTO(sightings)).thenReturn(sightingDTOS);
+        // Mock the behavior of iBirdRepository.findAllWithSightings()
+        when(iBirdRepository.findAllWithSightings()).thenReturn(birds);
+        when(birdMapper.convertToDTO(birds)).thenReturn(Collections.singletonList(birdDto));
 
         // Call the service method
         List<BirdDTO> actualBirdDTOs = birdService.getAllBirds();
 
-        // Verify that the repository method and the mapper methods were called as expected
-        verify(iBirdRepository, times(1)).findAll();
-        // Verify that the findByBird method was called with the correct bird object
-        verify(iSightingRepository, times(1)).findByBird(bird);
-        verify(birdMapper, times(1)).convertToDTO(bird);
-        verify(sightingMapper, times(1)).convertToDTO(sightings);
+        // Verify that birds and sightings are loaded with a single repository call
+        verify(iBirdRepository, times(1)).findAllWithSightings();
+        verify(birdMapper, times(1)).convertToDTO(birds);
+        verifyNoInteractions(iSightingRepository);
 
         // Verify that the method returns the expected list of BirdDTO objects
         assertEquals(1, actualBirdDTOs.size());
@@ -166,6 +189,7 @@ public class BirdServiceTest {
         verify(iSightingRepository).saveAll(anyList());
         verify(iBirdRepository).save(bird);
         verify(birdMapper).convertToDTO(bird);
+        verify(eventPublisher).publishEvent(SightingChangeEvent.added(List.of(SightingSnapshot.of(sighting))));
 
         // Assertions
         assertNotNull(result);
@@ -215,6 +239,94 @@ public class BirdServiceTest {
         assertEquals(birdDTO.getWeight(), updatedBirdDTO.getWeight());
     }
 
+    /**
+     * This method is used to testing that updating a bird writes only the sightings that differ from the stored ones
+     */
+    @Test
+    public void testUpdateBird_WritesOnlyChangedSightings() {
+        var id = 1L;
+        var existingBird = new Bird();
+        existingBird.setId(id);
+        var dateTime = LocalDateTime.of(2024, 5, 1, 6, 30);
+        when(iBirdRepository.findById(id)).thenReturn(Optional.of(existingBird));
+        when(iSightingRepository.findSightingDTOsByBirdId(id)).thenReturn(List.of(
+                new SightingDTO(10L, "London", dateTime, null, null),
+                new SightingDTO(11L, "Paris", dateTime, null, null),
+                new SightingDTO(12L, "Rome", dateTime, null, null)));
+        var changedSighting = new Sighting();
+        changedSighting.setId(11L);
+        when(iSightingRepository.findAllById(Set.of(11L))).thenReturn(List.of(changedSighting));
+        var addedSighting = new Sighting();
+        addedSighting.setLocation("Madrid");
+        addedSighting.setDateTime(dateTime);
+        when(sightingMapper.convertToEntity(any(SightingDTO.class))).thenReturn(addedSighting);
+        var birdDTO = new BirdDTO();
+        birdDTO.setName("Test 2");
+        birdDTO.setSightings(List.of(
+                new SightingDTO(10L, "London", dateTime, null, null),
+                new SightingDTO(11L, "Berlin", dateTime, null, null),
+                new SightingDTO(null, "Madrid", dateTime, null, null)));
+
+        birdService.updateBird(id, birdDTO);
+
+        verify(iSightingRepository).deleteAllByIdInBatch(List.of(12L));
+        assertEquals("Berlin", changedSighting.getLocation());
+        verify(iSightingRepository).saveAll(argThat(sightings -> sightings instanceof List<?> list && list.size() == 1));
+        verify(iSightingRepository).flush();
+        // The changed sighting is removed with its stored values and added with the new ones
+        var day = dateTime.toLocalDate();
+        verify(eventPublisher).publishEvent(new SightingChangeEvent(
+                List.of(new SightingSnapshot(id, "Rome", day), new SightingSnapshot(id, "Paris", day)),
+                List.of(new SightingSnapshot(id, "Berlin", day), new SightingSnapshot(id, "Madrid", day))));
+        assertEquals("Test 2", existingBird.getName());
+    }
+
+    /**
+     * This method is used to testing that a sighting of another bird cannot be updated through a bird
+     */
+    @Test
+    public void testUpdateBird_WithForeignSighting_ShouldThrowBadRequestException() {
+        var id = 1L;
+        var existingBird = new Bird();
+        existingBird.setId(id);
+        when(iBirdRepository.findById(id)).thenReturn(Optional.of(existingBird));
+        when(iSightingRepository.findSightingDTOsByBirdId(id)).thenReturn(List.of());
+        var birdDTO = new BirdDTO();
+        birdDTO.setSightings(List.of(new SightingDTO(99L, "London", null, null, null)));
+
+        assertThrows(BadRequestException.class, () -> birdService.updateBird(id, birdDTO));
+        verify(iSightingRepository, never()).saveAll(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    /**
+     * This method is used to testing that patching a bird changes only the fields sent and never reads its sightings
+     */
+    @Test
+    public void testPatchBird_ChangesOnlyFieldsSent() {
+        var id = 1L;
+        var existingBird = new Bird();
+        existingBird.setId(id);
+        existingBird.setName("Test 1");
+        existingBird.setColor("Green");
+        existingBird.setHeight(5);
+        existingBird.setWeight(15);
+        when(iBirdRepository.findById(id)).thenReturn(Optional.of(existingBird));
+        when(birdMapper.convertToDTO(existingBird, BirdMapper.WITHOUT_SIGHTINGS)).thenReturn(new BirdDTO());
+        var birdPatchDTO = new BirdPatchDTO();
+        birdPatchDTO.setColor("Blue");
+        birdPatchDTO.setWeight(20);
+
+        birdService.patchBird(id, birdPatchDTO);
+
+        assertEquals("Test 1", existingBird.getName());
+        assertEquals("Blue", existingBird.getColor());
+        assertEquals(5, existingBird.getHeight());
+        assertEquals(20, existingBird.getWeight());
+        verify(resourceVersions).birdChanged(id);
+        verifyNoInteractions(iSightingRepository, eventPublisher);
+    }
+
     /**
      * This method is used to testing update a bird when do not exist
      */
@@ -241,80 +353,68 @@ public class BirdServiceTest {
     @Test
     public void testFindBirdByColor_WhenBirdExists() {
         var color = "Red";
-        var bird = new Bird();
-        bird.setId(1L);
-        bird.setColor(color);
-        // Mock behavior to simulate the bird existing in the repository
-        when(iBirdRepository.findByColor(color)).thenReturn(bird);
-        // Mock behavior of birdMapper
+        // The cached fields of the bird
+        var cachedBirdDTO = new BirdDTO();
+        cachedBirdDTO.setId(1L);
+        cachedBirdDTO.setColor(color);
+        when(birdLookup.findByColor(color)).thenReturn(cachedBirdDTO);
+        List<SightingDTO> sightings = List.of(new SightingDTO());
+        when(iSightingRepository.findSightingDTOsByBirdId(1L)).thenReturn(sightings);
         var expectedBirdDTO = new BirdDTO();
-        expectedBirdDTO.setId(bird.getId());
-        expectedBirdDTO.setColor(bird.getColor());
-        when(birdMapper.convertToDTO(bird)).thenReturn(expectedBirdDTO);
+        when(birdMapper.withSightings(cachedBirdDTO, sightings)).thenReturn(expectedBirdDTO);
         // Call the method under test
         var result = birdService.findBirdByColor(color);
-        // Verify that findByColor(color) is called once with the specified color
-        verify(iBirdRepository, times(1)).findByColor(color);
-        // Verify that the result is not null
-        assertNotNull(result);
-        // Verify that the returned BirdDTO matches the expected one
-        assertEquals(expectedBirdDTO.getId(), result.getId());
-        assertEquals(expectedBirdDTO.getColor(), result.getColor());
+        // Verify that the returned BirdDTO is the cached one with the sightings read
+        assertEquals(expectedBirdDTO, result);
     }
 
     /**
-     * Test that if return bird by color when bird does not exist
+     * Test that if return bird by name when bird exist
      */
     @Test
-    public void testFindBirdByColor_WhenBirdDoesNotExist() {
-        var color = "Blue";
-        // Mock behavior to simulate the bird not existing in the repository
-        when(iBirdRepository.findByColor(color)).thenReturn(null);
-        // Call the method under test and verify that it throws ResourceNotFoundException
-        assertThrows(ResourceNotFoundException.class, () -> birdService.findBirdByColor(color));
-        // Verify that findByColor(color) is called once with the specified color
-        verify(iBirdRepository, times(1)).findByColor(color);
+    public void testFindBirdByName_WhenBirdExists() {
+        var name = "Test";
+        var cachedBirdDTO = new BirdDTO();
+        cachedBirdDTO.setId(1L);
+        cachedBirdDTO.setName(name);
+        when(birdLookup.findByName(name)).thenReturn(cachedBirdDTO);
+        List<SightingDTO> sightings = List.of(new SightingDTO());
+        when(iSightingRepository.findSightingDTOsByBirdId(1L)).thenReturn(sightings);
+        var expectedBirdDTO = new BirdDTO();
+        when(birdMapper.withSightings(cachedBirdDTO, sightings)).thenReturn(expectedBirdDTO);
+
+        var result = birdService.findBirdByName(name);
+
+        assertEquals(expectedBirdDTO, result);
     }
 
     /**
-     * Test that if return bird by name when bird exist
+     * Test that to find a bird by id if exist
      */
     @Test
-    public void testFindBirdByName_WhenBirdExists() {
-        var name = "Test";
-        var bird = new Bird();
-        bird.setId(1L);
-        bird.setName(name);
-        // Mock behavior to simulate the bird existing in the repository
-        when(iBirdRepository.findByName(name)).thenReturn(bird);
-        // Mock behavior of birdMapper
-        BirdDTO expectedBirdDTO = new BirdDTO();
-        expectedBirdDTO.setId(bird.getId());
-        expectedBirdDTO.setName(bird.getName());
-        when(birdMapper.convertToDTO(bird)).thenReturn(expectedBirdDTO);
+    public void testFindBirdById_WhenBirdExists() {
+        var cachedBirdDTO = new BirdDTO();
+        cachedBirdDTO.setId(1L);
+        when(birdLookup.findById(1L)).thenReturn(cachedBirdDTO);
+        List<SightingDTO> sightings = List.of(new SightingDTO());
+        when(iSightingRepository.findSightingDTOsByBirdId(1L)).thenReturn(sightings);
+        var expectedBirdDTO = new BirdDTO();
+        when(birdMapper.withSightings(cachedBirdDTO, sightings)).thenReturn(expectedBirdDTO);
 
-        var result = birdService.findBirdByName(name);
-        // Verify that findByName(name) is called once with the specified name
-        verify(iBirdRepository, times(1)).findByName(name);
-        // Verify that the result is not null
-        assertNotNull(result);
-        // Verify that the returned BirdDTO matches the expected one
-        assertEquals(expectedBirdDTO.getId(), result.getId());
-        assertEquals(expectedBirdDTO.getName(), result.getName());
+        var result = birdService.findBirdById(1L);
+
+        assertEquals(expectedBirdDTO, result);
     }
 
     /**
-     * Test that if return bird by name when bird does not exist
+     * Test that to find a bird by id if not exist
      */
     @Test
-    public void testFindBirdByName_WhenBirdDoesNotExist() {
-        var name = "Test";
-        // Simulate the bird not existing in the repository
-        when(iBirdRepository.findByName(name)).thenReturn(null);
-        // Verify that it throws ResourceNotFoundException
-        assertThrows(ResourceNotFoundException.class, () -> birdService.findBirdByName(name));
-        // Verify that findByName(name) is called once with the specified name
-        verify(iBirdRepository, times(1)).findByName(name);
+    public void testFindBirdById_WhenBirdDoesNotExist() {
+        when(birdLookup.findById(1L)).thenThrow(new ResourceNotFoundException("Bird not exist with id :1"));
+
+        assertThrows(ResourceNotFoundException.class, () -> birdService.findBirdById(1L));
+        verifyNoInteractions(iSightingRepository, birdMapper);
     }
 
     /**
@@ -323,14 +423,64 @@ public class BirdServiceTest {
     @Test
     public void testDeleteBirdTest() {
         var id = 1L;
+        runTransactionsInline();
+        var dateTime = LocalDateTime.of(2024, 5, 1, 6, 30);
+        when(iSightingRepository.findRemovalRowsByBirdId(id, PageRequest.of(0, 10_000))).thenReturn(List.of(
+                removalRow(10L, id, "London", dateTime.toLocalDate()),
+                removalRow(11L, id, "Paris", dateTime.toLocalDate())));
         // Simulate the bird existing in the repository
-        when(iBirdRepository.existsById(id)).thenReturn(true);
-        doNothing().when(iBirdRepository).deleteById(id);
+        when(iBirdRepository.deleteBirdById(id)).thenReturn(1);
+
+        birdService.deleteBird(id);
+
+        verify(iSightingRepository, times(1)).deleteByBirdIdUpTo(id, 11L);
+        verify(eventPublisher).publishEvent(SightingChangeEvent.removed(List.of(
+                new SightingSnapshot(id, "London", dateTime.toLocalDate()),
+                new SightingSnapshot(id, "Paris", dateTime.toLocalDate()))));
+        verify(iBirdRepository, times(1)).deleteBirdById(id);
+        verify(iBirdRepository, never()).deleteById(any());
+        verify(resourceVersions).birdChanged(id);
+    }
+
+    /**
+     * Test that the sightings of a bird are deleted chunk by chunk before the bird
+     */
+    @Test
+    public void testDeleteBirdInChunksTest() {
+        var id = 1L;
+        runTransactionsInline();
+        var fullChunk = Collections.nCopies(10_000, removalRow(10L, id, "London", null));
+        var lastChunk = Collections.nCopies(42, removalRow(10L, id, "London", null));
+        when(iSightingRepository.findRemovalRowsByBirdId(id, PageRequest.of(0, 10_000)))
+                .thenReturn(fullChunk, fullChunk, lastChunk);
+        when(iBirdRepository.deleteBirdById(id)).thenReturn(1);
 
         birdService.deleteBird(id);
 
-        verify(iBirdRepository, times(1)).existsById(id);
-        verify(iBirdRepository, times(1)).deleteById(id);
+        verify(transactionTemplate, times(3)).execute(any());
+        verify(iSightingRepository, times(3)).findRemovalRowsByBirdId(id, PageRequest.of(0, 10_000));
+        verify(iSightingRepository, times(3)).deleteByBirdIdUpTo(id, 10L);
+        verify(iBirdRepository, times(1)).deleteBirdById(id);
+        verify(eventPublisher, times(3)).publishEvent(any(SightingChangeEvent.class));
+    }
+
+    /**
+     * Test that the cached birds are evicted when a chunk fails after earlier chunks were committed
+     */
+    @Test
+    public void testDeleteBirdFailingAfterCommittedChunkTest() {
+        var id = 1L;
+        runTransactionsInline();
+        var fullChunk = Collections.nCopies(10_000, removalRow(10L, id, "London", null));
+        when(iSightingRepository.findRemovalRowsByBirdId(id, PageRequest.of(0, 10_000)))
+                .thenReturn(fullChunk)
+                .thenThrow(new QueryTimeoutException("Chunk timed out"));
+
+        assertThrows(QueryTimeoutException.class, () -> birdService.deleteBird(id));
+        verify(iSightingRepository, times(1)).deleteByBirdIdUpTo(id, 10L);
+        verify(iBirdRepository, never()).deleteBirdById(id);
+        verify(birdCacheEvictor).evictAll();
+        verify(resourceVersions).birdChanged(id);
     }
 
     /**
@@ -339,10 +489,40 @@ public class BirdServiceTest {
     @Test
     public void testDeleteNonExistentBirdTest() {
         var nonExistentId = 1L;
-
-        when(iBirdRepository.existsById(nonExistentId)).thenReturn(false);
+        runTransactionsInline();
+        when(iBirdRepository.deleteBirdById(nonExistentId)).thenReturn(0);
 
         assertThrows(ResourceNotFoundException.class, () -> birdService.deleteBird(nonExistentId));
-        verify(iBirdRepository, times(1)).existsById(nonExistentId);
+        verify(iBirdRepository, times(1)).deleteBirdById(nonExistentId);
+        verifyNoInteractions(eventPublisher);
+    }
+
+    private void runTransactionsInline() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    private static SightingRemovalRow removalRow(Long id, Long birdId, String location, LocalDate sightingDate) {
+        return new SightingRemovalRow() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getBirdId() {
+                return birdId;
+            }
+
+            @Override
+            public String getLocation() {
+                return location;
+            }
+
+            @Override
+            public LocalDate getSightingDate() {
+                return sightingDate;
+            }
+        };
     }
 }
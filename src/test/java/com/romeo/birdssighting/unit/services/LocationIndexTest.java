@@ -0,0 +1,122 @@
+package com.romeo.birdssighting.unit.services;
+
+import com.romeo.birdssighting.dto.LocationMatchDTO;
+import com.romeo.birdssighting.events.SightingChangeEvent;
+import com.romeo.birdssighting.events.SightingSnapshot;
+import com.romeo.birdssighting.repositories.ISightingRepository;
+import com.romeo.birdssighting.repositories.LocationCountRow;
+import com.romeo.birdssighting.services.LocationIndex;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class LocationIndexTest {
+
+    @Mock
+    private ISightingRepository iSightingRepository;
+
+    @InjectMocks
+    private LocationIndex locationIndex;
+
+    @Before
+    public void setUp() {
+        when(iSightingRepository.countPerLocation())
+                .thenReturn(List.of(row("Lake Tahoe", 3), row("Lake Geneva", 1), row("London", 5)));
+        locationIndex.afterSingletonsInstantiated();
+    }
+
+    /**
+     * This method is used for testing that the completion ignores case and is sorted
+     */
+    @Test
+    public void testComplete() {
+        assertEquals(List.of("Lake Geneva", "Lake Tahoe"), locationIndex.complete("lAKE", 10));
+        assertEquals(List.of("Lake Geneva"), locationIndex.complete("lake", 1));
+        assertEquals(List.of(), locationIndex.complete("Paris", 10));
+    }
+
+    /**
+     * This method is used for testing that the search tolerates a typo and ranks the best match first
+     */
+    @Test
+    public void testSearch_WithTypo() {
+        var matches = locationIndex.search("lake taho", 10);
+
+        assertEquals("Lake Tahoe", matches.get(0).getLocation());
+        assertEquals(3, matches.get(0).getSightings());
+        assertTrue(matches.stream().noneMatch(match -> match.getLocation().equals("London")));
+    }
+
+    /**
+     * This method is used for testing that an unrelated text matches nothing
+     */
+    @Test
+    public void testSearch_NoMatch() {
+        assertEquals(List.of(), locationIndex.search("xyz", 10));
+    }
+
+    /**
+     * This method is used for testing that a location is added with its first sighting and removed with its last
+     */
+    @Test
+    public void testOnSightingChange() {
+        var day = LocalDate.of(2024, 5, 1);
+        locationIndex.onSightingChange(SightingChangeEvent.added(List.of(new SightingSnapshot(1L, "Paris", day))));
+        assertEquals(List.of("Paris"), locationIndex.complete("par", 10));
+        assertEquals(List.of(new LocationMatchDTO("Paris", 1, 1.0)), locationIndex.search("paris", 10));
+
+        locationIndex.onSightingChange(SightingChangeEvent.updated(
+                new SightingSnapshot(1L, "Lake Geneva", day), new SightingSnapshot(1L, "London", day)));
+        assertEquals(List.of("Lake Tahoe"), locationIndex.complete("lake", 10));
+        assertEquals(6, locationIndex.search("london", 10).get(0).getSightings());
+
+        locationIndex.onSightingChange(SightingChangeEvent.removed(new SightingSnapshot(1L, "Paris", day)));
+        assertEquals(List.of(), locationIndex.complete("par", 10));
+        assertEquals(List.of(), locationIndex.search("paris", 10));
+    }
+
+    /**
+     * This method is used for testing that the locations of a write are searchable once it is applied,
+     * also when they outgrow the id array the searches read
+     */
+    @Test
+    public void testOnSightingChange_ManyLocations() {
+        var day = LocalDate.of(2024, 5, 1);
+        var added = IntStream.range(0, 2_000)
+                .mapToObj(i -> new SightingSnapshot(1L, "Station " + i, day))
+                .toList();
+
+        locationIndex.onSightingChange(SightingChangeEvent.added(added));
+
+        assertEquals("Station 1999", locationIndex.search("station 1999", 1).get(0).getLocation());
+        locationIndex.onSightingChange(SightingChangeEvent.removed(added));
+        assertEquals(List.of(), locationIndex.search("station 1999", 10));
+        assertEquals("Lake Tahoe", locationIndex.search("lake taho", 1).get(0).getLocation());
+    }
+
+    private static LocationCountRow row(String location, long count) {
+        return new LocationCountRow() {
+            @Override
+            public String getLocation() {
+                return location;
+            }
+
+            @Override
+            public long getSightingCount() {
+                return count;
+            }
+        };
+    }
+}
@@ -0,0 +1,39 @@
+package com.romeo.birdssighting.unit.services;
+
+import com.romeo.birdssighting.services.QueryFingerprint;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class QueryFingerprintTest {
+
+    /**
+     * This method is used for testing that string, numeric and bind parameters are replaced and aliases kept
+     */
+    @Test
+    public void testOf_ReplacesLiteralsAndParameters() {
+        assertEquals("select b1_0.id from bird b1_0 where b1_0.name=? and b1_0.id>? and b1_0.color=? limit ?",
+                QueryFingerprint.of("select b1_0.id from bird b1_0 where b1_0.name='O''Brien' and b1_0.id>-12.5"
+                        + " and b1_0.color=?1 limit :limit"));
+    }
+
+    /**
+     * This method is used for testing that IN lists of any length and any whitespace give the same fingerprint
+     */
+    @Test
+    public void testOf_CollapsesInListsAndWhitespace() {
+        assertEquals("delete from sighting where id in (?)",
+                QueryFingerprint.of("delete from sighting\n   where id IN (1, 2,3)"));
+        assertEquals("delete from sighting where id in (?)",
+                QueryFingerprint.of("delete from sighting where id in (?,?,?,?)"));
+    }
+
+    /**
+     * This method is used for testing that casts are not mistaken for named parameters
+     */
+    @Test
+    public void testOf_KeepsCasts() {
+        assertEquals("select ?::text, s.date_time::date from sighting s",
+                QueryFingerprint.of("select 'a'::text, s.date_time::date from sighting s"));
+    }
+}
@@ -0,0 +1,55 @@
+package com.romeo.birdssighting.unit.services;
+
+import com.romeo.birdssighting.services.ResourceVersions;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class ResourceVersionsTest {
+
+    private final ResourceVersions resourceVersions = new ResourceVersions();
+
+    @After
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    /**
+     * This method is used for testing that a bird write changes the ETags of the bird list and of that bird only
+     */
+    @Test
+    public void testBirdChanged() {
+        var birdsETag = resourceVersions.birdsETag();
+        var birdETag = resourceVersions.birdETag(1L);
+        var otherBirdETag = resourceVersions.birdETag(2L);
+
+        resourceVersions.birdChanged(1L);
+
+        assertNotEquals(birdsETag, resourceVersions.birdsETag());
+        assertNotEquals(birdETag, resourceVersions.birdETag(1L));
+        assertEquals(otherBirdETag, resourceVersions.birdETag(2L));
+    }
+
+    /**
+     * This method is used for testing that inside a transaction the versions change only after the commit
+     */
+    @Test
+    public void testBirdsChanged_AfterCommit() {
+        var birdsETag = resourceVersions.birdsETag();
+        TransactionSynchronizationManager.initSynchronization();
+
+        resourceVersions.birdsChanged(List.of(1L, 2L));
+        assertEquals(birdsETag, resourceVersions.birdsETag());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertNotEquals(birdsETag, resourceVersions.birdsETag());
+    }
+}
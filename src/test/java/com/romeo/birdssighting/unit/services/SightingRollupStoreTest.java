@@ -0,0 +1,125 @@
+package com.romeo.birdssighting.unit.services;
+
+import com.romeo.birdssighting.dto.SightingStatsDTO;
+import com.romeo.birdssighting.events.SightingChangeEvent;
+import com.romeo.birdssighting.events.SightingSnapshot;
+import com.romeo.birdssighting.repositories.ISightingRepository;
+import com.romeo.birdssighting.repositories.SightingRollupRow;
+import com.romeo.birdssighting.services.SightingRollupDimension;
+import com.romeo.birdssighting.services.SightingRollupStore;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SightingRollupStoreTest {
+
+    private static final LocalDate MAY_1 = LocalDate.of(2024, 5, 1);
+    private static final LocalDate MAY_2 = LocalDate.of(2024, 5, 2);
+
+    @Mock
+    private ISightingRepository iSightingRepository;
+
+    @InjectMocks
+    private SightingRollupStore sightingRollupStore;
+
+    @Before
+    public void setUp() {
+        when(iSightingRepository.countPerBirdLocationAndDay())
+                .thenReturn(List.of(row(1L, "London", MAY_1, 3), row(2L, "London", MAY_1, 1)));
+        sightingRollupStore.afterSingletonsInstantiated();
+    }
+
+    /**
+     * This method is used for testing that the counters loaded at startup are grouped by every dimension
+     */
+    @Test
+    public void testQuery_GroupedByBirdLocationAndDay() {
+        var stats = sightingRollupStore.query(EnumSet.allOf(SightingRollupDimension.class), null, null);
+
+        assertEquals(List.of(new SightingStatsDTO(1L, "London", MAY_1, 3),
+                new SightingStatsDTO(2L, "London", MAY_1, 1)), stats);
+    }
+
+    /**
+     * This method is used for testing that created, updated and deleted sightings change the counters
+     */
+    @Test
+    public void testOnSightingChange_UpdatesCounters() {
+        sightingRollupStore.onSightingChange(SightingChangeEvent.added(List.of(
+                new SightingSnapshot(1L, "Paris", MAY_2), new SightingSnapshot(1L, "Paris", MAY_2))));
+        sightingRollupStore.onSightingChange(SightingChangeEvent.updated(
+                new SightingSnapshot(2L, "London", MAY_1), new SightingSnapshot(2L, "Paris", MAY_2)));
+        sightingRollupStore.onSightingChange(SightingChangeEvent.removed(new SightingSnapshot(1L, "London", MAY_1)));
+
+        var byLocation = sightingRollupStore.query(EnumSet.of(SightingRollupDimension.LOCATION), null, null);
+        var byBirdOnMay2 = sightingRollupStore.query(EnumSet.of(SightingRollupDimension.BIRD), MAY_2, MAY_2);
+
+        assertEquals(List.of(new SightingStatsDTO(null, "London", null, 2),
+                new SightingStatsDTO(null, "Paris", null, 3)), byLocation);
+        assertEquals(List.of(new SightingStatsDTO(1L, null, null, 2),
+                new SightingStatsDTO(2L, null, null, 1)), byBirdOnMay2);
+    }
+
+    /**
+     * This method is used for testing that the sightings published by a bird delete drop its counters
+     * without reading the database
+     */
+    @Test
+    public void testOnSightingChange_DropsADeletedBird() {
+        var london = new SightingSnapshot(1L, "London", MAY_1);
+        sightingRollupStore.onSightingChange(SightingChangeEvent.removed(List.of(london, london, london)));
+
+        var stats = sightingRollupStore.query(EnumSet.of(SightingRollupDimension.BIRD), null, null);
+        assertEquals(List.of(new SightingStatsDTO(2L, null, null, 1)), stats);
+        verify(iSightingRepository, times(1)).countPerBirdLocationAndDay();
+        verifyNoMoreInteractions(iSightingRepository);
+    }
+
+    /**
+     * This method is used for testing that without any grouping the total is returned
+     */
+    @Test
+    public void testQuery_WithoutGrouping() {
+        var stats = sightingRollupStore.query(EnumSet.noneOf(SightingRollupDimension.class), MAY_1, MAY_1);
+
+        assertEquals(List.of(new SightingStatsDTO(null, null, null, 4)), stats);
+    }
+
+    private static SightingRollupRow row(Long birdId, String location, LocalDate day, long count) {
+        return new SightingRollupRow() {
+            @Override
+            public Long getBirdId() {
+                return birdId;
+            }
+
+            @Override
+            public String getLocation() {
+                return location;
+            }
+
+            @Override
+            public LocalDate getSightingDate() {
+                return day;
+            }
+
+            @Override
+            public long getSightingCount() {
+                return count;
+            }
+        };
+    }
+}
@@ -4,31 +4,50 @@ import com.romeo.birdssighting.domain.Bird;
 import com.romeo.birdssighting.domain.Sighting;
 import com.romeo.birdssighting.dto.BirdDTO;
 import com.romeo.birdssighting.dto.SightingDTO;
+import com.romeo.birdssighting.events.SightingChangeEvent;
+import com.romeo.birdssighting.events.SightingSnapshot;
+import com.romeo.birdssighting.exception.BadRequestException;
 import com.romeo.birdssighting.exception.ResourceNotFoundException;
 import com.romeo.birdssighting.mapper.BirdMapper;
 import com.romeo.birdssighting.mapper.SightingMapper;
 import com.romeo.birdssighting.repositories.IBirdRepository;
 import com.romeo.birdssighting.repositories.ISightingRepository;
+import com.romeo.birdssighting.repositories.SightingRemovalRow;
+import com.romeo.birdssighting.services.BirdLookup;
+import com.romeo.birdssighting.services.ResourceVersions;
 import com.romeo.birdssighting.services.SightingService;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 
 
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -50,6 +69,18 @@ public class SightingServiceTest {
     @Mock
     private BirdMapper birdMapper;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ResourceVersions resourceVersions;
+
+    @Mock
+    private BirdLookup birdLookup;
+
     @InjectMocks
     private SightingService sightingService;
 
@@ -63,29 +94,22 @@ public class SightingServiceTest {
 
         var sightingDTO = new SightingDTO();
         sightingDTO.setId(1L);
-        var sighting = new Sighting();
-        sighting.setId(1L);
-        sighting.setLocation("London");
+        sightingDTO.setLocation("London");
         bird.setId(birdId);
 
-        List<Sighting> sightings = new ArrayList<>();
         List<SightingDTO> sightingDTOS = new ArrayList<>();
         sightingDTOS.add(sightingDTO);
-        sightings.add(sighting);
 
         when(iBirdRepository.existsById(birdId)).thenReturn(true);
-        when(iSightingRepository.findByBirdId(birdId)).thenReturn(sightings);
-        when(sightingMapper.convertToDTO(sightings)).thenReturn(sightingDTOS);
+        when(iSightingRepository.findSightingDTOsByBirdId(birdId)).thenReturn(sightingDTOS);
 
         var result = sightingService.findAllSightingsByBirdId(birdId);
 
         assertEquals(1, result.size());
         verify(iBirdRepository).existsById(birdId);
-
-        verify(sightingMapper).convertToDTO(sightings);
-        verify(iSightingRepository).findByBirdId(birdId);
-        verify(sightingMapper, times(1)).convertToDTO(sightings);
-
+        verify(iSightingRepository).findSightingDTOsByBirdId(birdId);
+        // The DTOs come from the query, no entity is converted
+        verifyNoInteractions(sightingMapper);
     }
 
     /**
@@ -150,22 +174,17 @@ public class SightingServiceTest {
         var location = "Bucharest";
         var sightingDTO = new SightingDTO();
         sightingDTO.setId(1L);
-        Sighting sighting = new Sighting();
-        sighting.setId(1L);
-        sighting.setLocation("Test");
+        sightingDTO.setLocation("Test");
 
-        List<Sighting> sightings = new ArrayList<>();
         List<SightingDTO> sightingDTOS = new ArrayList<>();
         sightingDTOS.add(sightingDTO);
-        sightings.add(sighting);
 
-        when(iSightingRepository.findByLocation(location)).thenReturn(sightings);
-        when(sightingMapper.convertToDTO(sightings)).thenReturn(sightingDTOS);
+        when(iSightingRepository.findSightingDTOsByLocation(location)).thenReturn(sightingDTOS);
 
         var result = sightingService.findByLocation(location);
 
-        verify(iSightingRepository).findByLocation(location);
-        verify(sightingMapper, times(1)).convertToDTO(sightings);
+        verify(iSightingRepository).findSightingDTOsByLocation(location);
+        verifyNoInteractions(sightingMapper);
         assertEquals(1, result.size());
     }
 
@@ -177,22 +196,17 @@ public class SightingServiceTest {
         var dateTime = LocalDateTime.now();
         var sightingDTO = new SightingDTO();
         sightingDTO.setId(1L);
-        Sighting sighting = new Sighting();
-        sighting.setId(1L);
-        sighting.setLocation("Test");
+        sightingDTO.setLocation("Test");
 
-        List<Sighting> sightings = new ArrayList<>();
         List<SightingDTO> sightingDTOS = new ArrayList<>();
         sightingDTOS.add(sightingDTO);
-        sightings.add(sighting);
 
-        when(iSightingRepository.findByDateTime(dateTime)).thenReturn(sightings);
-        when(sightingMapper.convertToDTO(sightings)).thenReturn(sightingDTOS);
+        when(iSightingRepository.findSightingDTOsByDateTime(dateTime)).thenReturn(sightingDTOS);
 
         List<SightingDTO> result = sightingService.findByDateTime(dateTime);
 
-        verify(iSightingRepository).findByDateTime(dateTime);
-        verify(sightingMapper, times(1)).convertToDTO(sightings);
+        verify(iSightingRepository).findSightingDTOsByDateTime(dateTime);
+        verifyNoInteractions(sightingMapper);
         assertEquals(1, result.size());
     }
     /**
@@ -201,11 +215,11 @@ public class SightingServiceTest {
     @Test
     public void testFindByDateTime_WhenSightingsDoNotExist() {
         var dateTime = LocalDateTime.now();
-        when(iSightingRepository.findByDateTime(dateTime)).thenReturn(Collections.emptyList());
+        when(iSightingRepository.findSightingDTOsByDateTime(dateTime)).thenReturn(Collections.emptyList());
 
         var result = sightingService.findByDateTime(dateTime);
 
-        verify(iSightingRepository).findByDateTime(dateTime);
+        verify(iSightingRepository).findSightingDTOsByDateTime(dateTime);
         assertEquals(0, result.size());
     }
     /**
@@ -214,10 +228,10 @@ public class SightingServiceTest {
     @Test
     public void testFindByLocation_WhenSightingsDoNotExist() {
         String location = "Test";
-        when(iSightingRepository.findByLocation(location)).thenReturn(Collections.emptyList());
+        when(iSightingRepository.findSightingDTOsByLocation(location)).thenReturn(Collections.emptyList());
         List<SightingDTO> result = sightingService.findByLocation(location);
 
-        verify(iSightingRepository).findByLocation(location);
+        verify(iSightingRepository).findSightingDTOsByLocation(location);
         assertEquals(0, result.size());
     }
 
@@ -240,77 +254,342 @@ public class SightingServiceTest {
         sighting.setLocation("Test location");
         sighting.setBird(bird);
 
+        var birdDTO = new BirdDTO();
+
         // Mock repository calls
-        when(iBirdRepository.findById(birdId)).thenReturn(Optional.of(bird));
+        when(birdLookup.findById(birdId)).thenReturn(birdDTO);
+        when(iBirdRepository.getReferenceById(birdId)).thenReturn(bird);
         when(sightingMapper.convertToEntity(sightingDTO)).thenReturn(sighting);
         when(iSightingRepository.save(any(Sighting.class))).thenReturn(sighting);
         when(sightingMapper.convertToDTO(sighting)).thenReturn(sightingDTO);
-        when(birdMapper.convertToDTO(bird)).thenReturn(new BirdDTO()); // Mock bird DTO
 
         // Call the method
         SightingDTO result = sightingService.createSighting(birdId, sightingDTO);
 
-        // Verify repository calls
-        verify(iBirdRepository).findById(birdId);
+        // Verify repository calls, the bird is referenced and its fields come from the bird cache
+        verify(iBirdRepository, never()).findById(birdId);
         verify(sightingMapper).convertToEntity(sightingDTO);
         verify(iSightingRepository).save(sighting);
         verify(sightingMapper).convertToDTO(sighting);
-        verify(birdMapper).convertToDTO(bird);
+        verifyNoInteractions(birdMapper);
+        verify(resourceVersions).birdChanged(birdId);
 
         // Assert the result
         assertNotNull(result);
         assertEquals(sightingDTO.getLocation(), result.getLocation());
-        assertNotNull(result.getBird());
+        assertSame(birdDTO, result.getBird());
     }
 
     /**
      * This method is used for testing for save sighting when a bird does not exist
      */
-    @Test(expected = EntityNotFoundException.class)
+    @Test(expected = ResourceNotFoundException.class)
     public void testSaveSighting_WhenBirdDoesNotExist() {
         var birdId = 1L;
         var sightingDTO = new SightingDTO();
-        when(iBirdRepository.findById(birdId)).thenReturn(Optional.empty());
+        when(birdLookup.findById(birdId)).thenThrow(new ResourceNotFoundException("Bird not exist with id :" + birdId));
 
-        // Call the method under test - it should throw EntityNotFoundException
+        // Call the method under test - it should throw ResourceNotFoundException
         sightingService.createSighting(birdId, sightingDTO);
     }
 
     /**
-     * This method is used for testing for returns all sightings
+     * This method is used for testing for save many sightings of one bird
+     */
+    @Test
+    public void testCreateSightings_WhenBirdExists() {
+        var birdId = 1L;
+        var bird = new Bird();
+        bird.setId(birdId);
+        List<SightingDTO> sightingDTOs = List.of(new SightingDTO(), new SightingDTO());
+
+        when(iBirdRepository.existsById(birdId)).thenReturn(true);
+        when(iBirdRepository.getReferenceById(birdId)).thenReturn(bird);
+        when(sightingMapper.convertToEntity(any(SightingDTO.class))).thenAnswer(invocation -> new Sighting());
+        when(iSightingRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Sighting> sightings = invocation.getArgument(0);
+            long id = 10;
+            for (Sighting sighting : sightings) {
+                sighting.setId(id++);
+            }
+            return sightings;
+        });
+
+        var result = sightingService.createSightings(birdId, sightingDTOs);
+
+        verify(iSightingRepository, times(1)).saveAll(anyList());
+        verify(iSightingRepository, times(1)).flush();
+        assertEquals(2, result.getInserted());
+        assertEquals(List.of(10L, 11L), result.getIds());
+    }
+
+    /**
+     * This method is used for testing for save many sightings when the bird does not exist
+     */
+    @Test
+    public void testCreateSightings_WhenBirdDoesNotExist() {
+        var birdId = 1L;
+        when(iBirdRepository.existsById(birdId)).thenReturn(false);
+
+        assertThrows(EntityNotFoundException.class,
+                () -> sightingService.createSightings(birdId, List.of(new SightingDTO())));
+        verifyNoInteractions(iSightingRepository);
+    }
+
+    /**
+     * This method is used for testing for save many sightings of different birds when one bird is unknown
+     */
+    @Test
+    public void testCreateSightingsOfManyBirds_WhenBirdDoesNotExist() {
+        var knownBird = new BirdDTO();
+        knownBird.setId(1L);
+        var unknownBird = new BirdDTO();
+        unknownBird.setId(2L);
+        var first = new SightingDTO();
+        first.setBird(knownBird);
+        var second = new SightingDTO();
+        second.setBird(unknownBird);
+
+        when(iBirdRepository.findExistingIds(Set.of(1L, 2L))).thenReturn(Set.of(1L));
+
+        assertThrows(EntityNotFoundException.class,
+                () -> sightingService.createSightings(List.of(first, second)));
+        verifyNoInteractions(iSightingRepository);
+    }
+
+    /**
+     * This method is used for testing for save many sightings of different birds without a bird id
+     */
+    @Test
+    public void testCreateSightingsOfManyBirds_WhenBirdIdIsMissing() {
+        assertThrows(BadRequestException.class,
+                () -> sightingService.createSightings(List.of(new SightingDTO())));
+        verify(iBirdRepository, times(0)).getReferenceById(anyLong());
+        verifyNoInteractions(iSightingRepository);
+    }
+
+    /**
+     * This method is used for testing that a page returns a cursor which continues after its last sighting
+     */
+    @Test
+    public void testFindSightingsPage_WhenMoreSightingsExist() {
+        List<Sighting> sightings = new ArrayList<>();
+        for (long id = 1; id <= 3; id++) {
+            var sighting = new Sighting();
+            sighting.setId(id);
+            sighting.setBird(new Bird());
+            sightings.add(sighting);
+        }
+
+        // The service asks for one row more than the limit to detect the next page
+        when(iSightingRepository.findPageAfterId(0L, PageRequest.of(0, 3))).thenReturn(sightings);
+        when(sightingMapper.convertToDTO(any(Sighting.class))).thenReturn(new SightingDTO());
+        when(birdMapper.convertToDTO(any(Bird.class), eq(BirdMapper.WITHOUT_SIGHTINGS))).thenReturn(new BirdDTO());
+
+        var firstPage = sightingService.findSightingsPage(null, 2);
+
+        assertEquals(2, firstPage.getSightings().size());
+        assertNotNull(firstPage.getNextCursor());
+
+        when(iSightingRepository.findPageAfterId(2L, PageRequest.of(0, 3)))
+                .thenReturn(Collections.singletonList(sightings.get(2)));
+
+        var secondPage = sightingService.findSightingsPage(firstPage.getNextCursor(), 2);
+
+        verify(iSightingRepository).findPageAfterId(2L, PageRequest.of(0, 3));
+        assertEquals(1, secondPage.getSightings().size());
+        assertNull(secondPage.getNextCursor());
+    }
+
+    /**
+     * This method is used for testing that the page size is capped
+     */
+    @Test
+    public void testFindSightingsPage_WhenLimitIsTooLarge() {
+        when(iSightingRepository.findPageAfterId(0L, PageRequest.of(0, 501))).thenReturn(Collections.emptyList());
+
+        var result = sightingService.findSightingsPage(null, 100_000);
+
+        verify(iSightingRepository).findPageAfterId(0L, PageRequest.of(0, 501));
+        assertEquals(0, result.getSightings().size());
+        assertNull(result.getNextCursor());
+    }
+
+    /**
+     * This method is used for testing that a malformed cursor is rejected
      */
     @Test
-    public void testFindAllSightings() {
+    public void testFindSightingsPage_WhenCursorIsInvalid() {
+        assertThrows(BadRequestException.class, () -> sightingService.findSightingsPage("not-a-cursor!", 10));
+        verifyNoInteractions(iSightingRepository);
+    }
+
+    /**
+     * This method is used for testing that a time range page continues after the dateTime and id of its last sighting
+     */
+    @Test
+    public void testFindSightingsInRange_WhenMoreSightingsExist() {
+        var from = LocalDateTime.of(2024, 5, 1, 0, 0);
+        var to = LocalDateTime.of(2024, 6, 1, 0, 0);
         List<Sighting> sightings = new ArrayList<>();
+        for (long id = 1; id <= 3; id++) {
+            var sighting = new Sighting();
+            sighting.setId(id);
+            sighting.setDateTime(from.plusDays(id));
+            sighting.setBird(new Bird());
+            sightings.add(sighting);
+        }
+
+        when(iSightingRepository.findPageInRangeByBirdId(7L, from, to, from, 0L, "London", PageRequest.of(0, 3)))
+                .thenReturn(sightings);
+        when(sightingMapper.convertToDTO(any(Sighting.class))).thenReturn(new SightingDTO());
+        when(birdMapper.convertToDTO(any(Bird.class), eq(BirdMapper.WITHOUT_SIGHTINGS))).thenReturn(new BirdDTO());
+
+        var firstPage = sightingService.findSightingsInRange(from, to, 7L, "London", null, 2);
+
+        assertEquals(2, firstPage.getSightings().size());
+        assertNotNull(firstPage.getNextCursor());
+
+        when(iSightingRepository.findPageInRangeByBirdId(7L, from, to, from.plusDays(2), 2L, "London",
+                PageRequest.of(0, 3))).thenReturn(Collections.singletonList(sightings.get(2)));
+
+        var secondPage = sightingService.findSightingsInRange(from, to, 7L, "London", firstPage.getNextCursor(), 2);
+
+        assertEquals(1, secondPage.getSightings().size());
+        assertNull(secondPage.getNextCursor());
+        verify(iSightingRepository, times(0)).findPageInRange(any(), any(), any(), any(), any(), any());
+    }
+
+    /**
+     * This method is used for testing that a time range needs its bounds in the right order
+     */
+    @Test
+    public void testFindSightingsInRange_WhenRangeIsInvalid() {
+        var from = LocalDateTime.of(2024, 5, 1, 0, 0);
+
+        assertThrows(BadRequestException.class,
+                () -> sightingService.findSightingsInRange(from, from, null, null, null, null));
+        assertThrows(BadRequestException.class,
+                () -> sightingService.findSightingsInRange(from, from.minusDays(1), null, null, null, null));
+        verifyNoInteractions(iSightingRepository);
+    }
+
+    /**
+     * This method is used for testing that a time range missing a bound is open on that side
+     */
+    @Test
+    public void testFindSightingsInRange_WhenABoundIsMissing() {
+        var from = LocalDateTime.of(2024, 5, 1, 0, 0);
+        var earliest = LocalDateTime.of(1, 1, 1, 0, 0);
+        var latest = LocalDateTime.of(9999, 12, 31, 0, 0);
+        var pageable = PageRequest.of(0, 3);
+
+        sightingService.findSightingsInRange(from, null, null, "London", null, 2);
+        sightingService.findSightingsInRange(null, from, 7L, null, null, 2);
+
+        verify(iSightingRepository).findPageInRange(from, latest, from, 0L, "London", pageable);
+        verify(iSightingRepository).findPageInRangeByBirdId(7L, earliest, from, earliest, 0L, null, pageable);
+    }
+
+    /**
+     * This method is used for testing that the sightings of a bird or a location are paged by id without a range
+     */
+    @Test
+    public void testFindSightingsPage_ByBirdOrLocation() {
+        var sighting = new Sighting();
+        sighting.setId(5L);
+        sighting.setBird(new Bird());
+        var pageable = PageRequest.of(0, 2);
+        when(iSightingRepository.findPageAfterIdByBirdId(7L, 0L, "London", pageable))
+                .thenReturn(List.of(sighting, sighting));
+        when(sightingMapper.convertToDTO(any(Sighting.class))).thenReturn(new SightingDTO());
+        when(birdMapper.convertToDTO(any(Bird.class), eq(BirdMapper.WITHOUT_SIGHTINGS))).thenReturn(new BirdDTO());
+
+        var birdPage = sightingService.findSightingsPage(7L, "London", null, 1);
+        var locationPage = sightingService.findSightingsPage(null, "London", birdPage.getNextCursor(), 1);
+
+        assertEquals(1, birdPage.getSightings().size());
+        assertNotNull(birdPage.getNextCursor());
+        assertEquals(0, locationPage.getSightings().size());
+        verify(iSightingRepository).findPageAfterIdByLocation("London", 5L, pageable);
+    }
+
+    /**
+     * This method is used for testing that a cursor of one kind of page is not accepted by the other
+     */
+    @Test
+    public void testFindSightingsInRange_WhenCursorIsFromAnotherQuery() {
+        var from = LocalDateTime.of(2024, 5, 1, 0, 0);
         var sighting = new Sighting();
         sighting.setId(1L);
-        sighting.setLocation("Test location");
         sighting.setBird(new Bird());
-        sightings.add(sighting);
+        when(iSightingRepository.findPageAfterId(0L, PageRequest.of(0, 2)))
+                .thenReturn(List.of(sighting, sighting));
+        when(sightingMapper.convertToDTO(any(Sighting.class))).thenReturn(new SightingDTO());
+        when(birdMapper.convertToDTO(any(Bird.class), eq(BirdMapper.WITHOUT_SIGHTINGS))).thenReturn(new BirdDTO());
 
-        List<SightingDTO>  sightingsDTO = new ArrayList<>();
-        var sightingDTO = new SightingDTO();
-        sightingDTO.setId(1L);
-        sightingDTO.setLocation("Test Location");
-        sightingDTO.setBird(new BirdDTO());
-        sightingsDTO.add(sightingDTO);
+        var idCursor = sightingService.findSightingsPage(null, 1).getNextCursor();
 
-        // Mock repository call
-        when(iSightingRepository.findAll()).thenReturn(sightings);
-        when(sightingMapper.convertToDTO(sighting)).thenReturn(sightingDTO);
-        when(birdMapper.convertToDTO(any(Bird.class))).thenReturn(new BirdDTO());
+        assertThrows(BadRequestException.class,
+                () -> sightingService.findSightingsInRange(from, from.plusDays(1), null, null, idCursor, 1));
+    }
 
-        // Call the method
-        List<SightingDTO> result = sightingService.findAllSightings();
+    /**
+     * This method is used for testing that invalid coordinates and too large areas are rejected
+     */
+    @Test
+    public void testGeoSearch_WhenAreaIsInvalid() {
+        assertThrows(BadRequestException.class,
+                () -> sightingService.findSightingsNear(95, 0, 5, null, null));
+        assertThrows(BadRequestException.class,
+                () -> sightingService.findSightingsNear(51.5, -0.1, 0, null, null));
+        assertThrows(BadRequestException.class,
+                () -> sightingService.findSightingsNear(51.5, -0.1, 2_000, null, null));
+        assertThrows(BadRequestException.class,
+                () -> sightingService.findSightingsInBox(52, 0, 51, 1, null, null));
+        assertThrows(BadRequestException.class,
+                () -> sightingService.findSightingsInBox(-90, -180, 90, 180, null, null));
+        verifyNoInteractions(iSightingRepository);
+    }
 
-        // Verify repository calls and mapper conversions
-        verify(iSightingRepository).findAll();
-        verify(sightingMapper).convertToDTO(sighting);
-        verify(birdMapper).convertToDTO(any(Bird.class));
+    /**
+     * This method is used for testing that a sighting with only one coordinate is rejected
+     */
+    @Test
+    public void testCreateSighting_WhenCoordinatesAreIncomplete() {
+        var sightingDTO = new SightingDTO();
+        sightingDTO.setLatitude(51.5);
+        when(birdLookup.findById(1L)).thenReturn(new BirdDTO());
 
-        // Assert the result
-        assertNotNull(result);
-        assertEquals(sightings.size(), result.size());
+        assertThrows(BadRequestException.class, () -> sightingService.createSighting(1L, sightingDTO));
+        verifyNoInteractions(iSightingRepository);
+    }
+
+    /**
+     * This method is used for testing that the export passes every sighting to the consumer
+     * and clears the persistence context periodically
+     */
+    @Test
+    public void testExportSightings() {
+        List<Sighting> sightings = new ArrayList<>();
+        for (long id = 1; id <= 1000; id++) {
+            var sighting = new Sighting();
+            sighting.setId(id);
+            sighting.setBird(new Bird());
+            sightings.add(sighting);
+        }
+        when(iSightingRepository.streamAllWithBird()).thenReturn(sightings.stream());
+        when(sightingMapper.convertToDTO(any(Sighting.class))).thenReturn(new SightingDTO());
+        when(birdMapper.convertToDTO(any(Bird.class), eq(BirdMapper.WITHOUT_SIGHTINGS))).thenReturn(new BirdDTO());
+
+        List<SightingDTO> exported = new ArrayList<>();
+        var count = sightingService.exportSightings(exported::add);
+
+        assertEquals(1000, count);
+        assertEquals(1000, exported.size());
+        assertNotNull(exported.get(0).getBird());
+        assertNull(exported.get(0).getBird().getSightings());
+        verify(entityManager, times(2)).clear();
     }
 
     /**
@@ -329,14 +608,15 @@ public class SightingServiceTest {
         sighting.setDateTime(LocalDateTime.now().minusDays(1));
 
         // Mock behavior to simulate existing sighting
-        when(iSightingRepository.findById(id)).thenReturn(Optional.of(sighting));
+        when(iSightingRepository.findWithBirdById(id)).thenReturn(Optional.of(sighting));
         when(iSightingRepository.save(any(Sighting.class))).thenReturn(sighting);
         when(sightingMapper.convertToDTO(any(Sighting.class))).thenReturn(sightingDTO);
+        var previousDay = sighting.getDateTime().toLocalDate();
 
         // Call the method under test
         var result = sightingService.updateSighting(id, sightingDTO);
 
-        verify(iSightingRepository, times(1)).findById(id);
+        verify(iSightingRepository, times(1)).findWithBirdById(id);
         verify(iSightingRepository, times(1)).save(any(Sighting.class));
         verify(sightingMapper, times(1)).convertToDTO(any(Sighting.class));
 
@@ -353,7 +633,7 @@ public class SightingServiceTest {
         SightingDTO sightingDTO = new SightingDTO();
 
         // Mock behavior to simulate non-existing sighting
-        when(iSightingRepository.findById(id)).thenReturn(Optional.empty());
+        when(iSightingRepository.findWithBirdById(id)).thenReturn(Optional.empty());
 
         // Call the method under test, which should throw ResourceNotFoundException
         sightingService.updateSighting(id, sightingDTO);
@@ -365,13 +645,21 @@ public class SightingServiceTest {
     @Test
     public void testDeleteSightingExists() {
         var id = 1L;
+        var removalRow = mock(SightingRemovalRow.class);
+        when(removalRow.getBirdId()).thenReturn(2L);
+        when(removalRow.getLocation()).thenReturn("London");
+        when(removalRow.getSightingDate()).thenReturn(LocalDate.of(2024, 5, 1));
 
-        when(iSightingRepository.existsById(id)).thenReturn(true);
+        when(iSightingRepository.findRemovalRowById(id)).thenReturn(Optional.of(removalRow));
+        when(iSightingRepository.deleteSightingById(id)).thenReturn(1);
 
         sightingService.deleteSighting(id);
 
-        // Verify that deleteByBirdId is called with the correct id
-        verify(iSightingRepository, times(1)).deleteById(id);
+        // Verify that the sighting is deleted without being loaded and removed from the rollups
+        verify(iSightingRepository, never()).findById(id);
+        verify(resourceVersions).birdChanged(2L);
+        verify(eventPublisher).publishEvent(SightingChangeEvent.removed(
+                new SightingSnapshot(2L, "London", LocalDate.of(2024, 5, 1))));
     }
 
     /**
@@ -383,9 +671,24 @@ public class SightingServiceTest {
         var id = 1L;
 
         // Mock behavior to simulate non-existing sighting
-        when(iSightingRepository.existsById(id)).thenReturn(false);
+        when(iSightingRepository.findRemovalRowById(id)).thenReturn(Optional.empty());
 
         // Call the method under test and assert that it throws ResourceNotFoundException
         assertThrows(ResourceNotFoundException.class, () -> sightingService.deleteSighting(id));
+        verify(iSightingRepository, never()).deleteSightingById(id);
+        verifyNoInteractions(eventPublisher);
+    }
+
+    /**
+     *  This method is used for testing for delete sighting when a concurrent request deleted it first
+     */
+    @Test
+    public void testDeleteSightingDeletedConcurrently_ShouldThrowException() {
+        var id = 1L;
+        when(iSightingRepository.findRemovalRowById(id)).thenReturn(Optional.of(mock(SightingRemovalRow.class)));
+        when(iSightingRepository.deleteSightingById(id)).thenReturn(0);
+
+        assertThrows(ResourceNotFoundException.class, () -> sightingService.deleteSighting(id));
+        verifyNoInteractions(eventPublisher, resourceVersions);
     }
 }